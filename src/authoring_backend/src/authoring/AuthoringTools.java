@@ -3,12 +3,18 @@ package authoring;
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.annotations.XStreamOmitField;
 import com.thoughtworks.xstream.io.xml.DomDriver;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
 import conversion.authoring.SavedEntityDB;
+import conversion.engine.BinaryGamePackage;
+import conversion.engine.ScriptCompiler;
 import gameObjects.crud.GameObjectsCRUDInterface;
 import gameObjects.crud.SimpleGameObjectsCRUD;
 import groovy.api.GroovyFactory;
 import phase.api.PhaseDB;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * This class contains all the tools to author a game;
  *
@@ -30,13 +36,11 @@ public class AuthoringTools {
     }
 
     /**
-     * Initialize with a XML string
+     * Initialize with a XML string. It is read as a stream: a DOM reader takes quadratic time over a grid's worth of instances.
      */
     public AuthoringTools(String xml) {
-        var xstream = new XStream(new DomDriver());
+        var xstream = new XStream(new StaxDriver());
         var p = (SavedAuthoringTools) xstream.fromXML(xml);
-        System.out.println("--------Entity xml-------");
-        System.out.println(p.entityDBXML());
         entityDB = new SimpleGameObjectsCRUD((SavedEntityDB) xstream.fromXML(p.entityDBXML()));
         factory = new GroovyFactory(entityDB);
         phaseDB = new PhaseDB(factory, p.phaseDBXML());
@@ -62,6 +66,26 @@ public class AuthoringTools {
         return Serializers.forEngine().toXML(this);
     }
 
+    /**
+     * Exports the game as a package holding the engine XML together with every script
+     * already compiled to bytecode, so the engine doesn't have to run the Groovy compiler at all
+     */
+    public void toEnginePackage(OutputStream out) throws IOException {
+        var compiler = new ScriptCompiler();
+        var xml = Serializers.forEngine(compiler).toXML(this);
+        compiler.writePackage(xml, out);
+    }
+
+    /**
+     * Exports the game as a compact binary package (see BinaryGamePackage) with its scripts compiled,
+     * which the engine memory-maps instead of parsing
+     */
+    public void toEngineBinaryPackage(OutputStream out) throws IOException {
+        var compiler = new ScriptCompiler();
+        var xml = Serializers.forEngine(compiler).toXML(this);
+        BinaryGamePackage.write(xml, compiler.classes(), out);
+    }
+
     public String toAuthoringXML() {
         var xstream = new XStream(new DomDriver());
         return xstream.toXML(new SavedAuthoringTools(entityDB.toXML(), phaseDB.toXML()));
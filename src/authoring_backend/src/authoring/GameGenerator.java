@@ -0,0 +1,280 @@
+package authoring;
+
+import gameObjects.entity.EntityClass;
+import gameObjects.player.PlayerClass;
+import gameObjects.tile.TileClass;
+import grids.PointImpl;
+import groovy.api.BlockGraph;
+import groovy.api.GroovyFactory;
+import groovy.api.Ports;
+import groovy.graph.blocks.core.GroovyBlock;
+import javafx.scene.input.KeyCode;
+import phase.api.GameEvent;
+import phase.api.Phase;
+import phase.api.PhaseDB;
+import phase.api.PhaseGraph;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates valid projects of any size and shape for load and scaling tests, through the same
+ * entity DB, PhaseDB and GroovyFactory calls the editor makes:
+ * <ul>
+ * <li>a grid filled with tiles of tileClasses classes "tile0", "tile1"...</li>
+ * <li>entityClasses classes "unit0", "unit1"... with instancesPerClass instances each, scattered over the grid
+ * and dealt out to players players "P0", "P1"...</li>
+ * <li>phaseGraphs phase graphs "G0", "G1"..., each a tree phaseDepth levels deep in which every node has
+ * fanOut children, reached by a click on a unit of some class or by a digit key. The leaves pass the turn and
+ * go on to the next graph.</li>
+ * <li>node executions of scriptComplexity loops over the instances of a class, and block-built guards and
+ * win condition</li>
+ * </ul>
+ * The same settings and seed always generate the same project.
+ */
+public class GameGenerator {
+    public static final String TILE_PREFIX = "tile";
+    public static final String ENTITY_PREFIX = "unit";
+    public static final String PLAYER_PREFIX = "P";
+    public static final String GRAPH_PREFIX = "G";
+
+    private int myWidth = 10, myHeight = 10;
+    private int myTileClasses = 1, myEntityClasses = 1, myInstancesPerClass = 10, myPlayers = 2;
+    private int myPhaseGraphs = 1, myPhaseDepth = 1, myFanOut = 1, myScriptComplexity = 1;
+    private long mySeed;
+
+    private GroovyFactory myFactory;
+
+    public GameGenerator grid(int width, int height) {
+        myWidth = width;
+        myHeight = height;
+        return this;
+    }
+
+    public GameGenerator tileClasses(int count) {
+        myTileClasses = Math.max(1, count);
+        return this;
+    }
+
+    public GameGenerator entityClasses(int count) {
+        myEntityClasses = Math.max(1, count);
+        return this;
+    }
+
+    public GameGenerator instancesPerClass(int count) {
+        myInstancesPerClass = count;
+        return this;
+    }
+
+    public GameGenerator players(int count) {
+        myPlayers = Math.max(1, count);
+        return this;
+    }
+
+    public GameGenerator phaseGraphs(int count) {
+        myPhaseGraphs = Math.max(1, count);
+        return this;
+    }
+
+    /**
+     * Levels of nodes below each graph's source
+     */
+    public GameGenerator phaseDepth(int depth) {
+        myPhaseDepth = Math.max(1, depth);
+        return this;
+    }
+
+    public GameGenerator fanOut(int children) {
+        myFanOut = Math.max(1, children);
+        return this;
+    }
+
+    /**
+     * Loops in each node's execution
+     */
+    public GameGenerator scriptComplexity(int loops) {
+        myScriptComplexity = Math.max(0, loops);
+        return this;
+    }
+
+    public GameGenerator seed(long seed) {
+        mySeed = seed;
+        return this;
+    }
+
+    public AuthoringTools generate() {
+        var tools = new AuthoringTools(myHeight, myWidth); // it hands them to the entity DB swapped, as the editor expects
+        myFactory = tools.factory();
+        var random = new Random(mySeed);
+        try {
+            generateObjects(tools, random);
+            generatePhases(tools.phaseDB());
+            generateWinCondition(tools.phaseDB().winCondition());
+        } catch (Throwable t) {
+            throw new IllegalStateException("generated an invalid project", t);
+        }
+        return tools;
+    }
+
+    private void generateObjects(AuthoringTools tools, Random random) throws Throwable {
+        var db = tools.entityDB();
+        db.setBGMpath("");
+
+        var tileClasses = new TileClass[myTileClasses];
+        for (int i = 0; i < tileClasses.length; i++) {
+            tileClasses[i] = db.createTileClass(TILE_PREFIX + i);
+            tileClasses[i].getImagePathList().add(TILE_PREFIX + i + ".png");
+            tileClasses[i].getPropertiesMap().put("cost", String.valueOf(1 + i % 5));
+        }
+        var entityClasses = new EntityClass[myEntityClasses];
+        for (int i = 0; i < entityClasses.length; i++) {
+            entityClasses[i] = db.createEntityClass(ENTITY_PREFIX + i);
+            entityClasses[i].addImagePath(ENTITY_PREFIX + i + ".png");
+            entityClasses[i].getPropertiesMap().put("hp", String.valueOf(1 + i % 10));
+        }
+        for (var tileClass : db.getTileClasses()) tileClass.setImageSelector(myFactory.createDefaultImageSelector());
+        for (var entityClass : db.getEntityClasses()) entityClass.setImageSelector(myFactory.createDefaultImageSelector());
+        var players = new PlayerClass[myPlayers];
+        for (int i = 0; i < players.length; i++) players[i] = db.createPlayerClass(PLAYER_PREFIX + i);
+
+        for (int x = 0; x < myWidth; x++) {
+            for (int y = 0; y < myHeight; y++) {
+                tileClasses[random.nextInt(tileClasses.length)].createInstance(new PointImpl(x, y));
+            }
+        }
+        var cells = myWidth * myHeight;
+        int placed = 0;
+        for (var entityClass : entityClasses) {
+            for (int i = 0; i < myInstancesPerClass; i++, placed++) {
+                var cell = random.nextInt(cells);
+                var instance = entityClass.createInstance(new PointImpl(cell % myWidth, cell / myWidth));
+                players[placed % players.length].addGameObjectInstances(instance);
+            }
+        }
+    }
+
+    private void generatePhases(PhaseDB phaseDB) throws Throwable {
+        for (int g = 0; g < myPhaseGraphs; g++) {
+            var name = GRAPH_PREFIX + g;
+            var graph = phaseDB.createPhaseGraph(name).get();
+            generateChildren(phaseDB, graph, graph.source(), name, 1, GRAPH_PREFIX + (g + 1) % myPhaseGraphs);
+        }
+    }
+
+    private void generateChildren(PhaseDB phaseDB, PhaseGraph graph, Phase parent, String parentName, int depth, String nextGraph) throws Throwable {
+        for (int i = 0; i < myFanOut; i++) {
+            var name = parentName + "_" + i;
+            var child = phaseDB.createPhase(200 * i, 150 * depth, name).get();
+            graph.addNode(child);
+            var byKey = i % 2 == 1;
+            var transition = phaseDB.createTransition(parent, byKey ? GameEvent.keyPress(KeyCode.valueOf("DIGIT" + i % 10)) : GameEvent.mouseClick(), child);
+            graph.addEdge(transition);
+            if (!byKey) generateClickGuard(transition.guard(), ENTITY_PREFIX + i / 2 % myEntityClasses);
+            generateExecution(child.exec(), i, depth == myPhaseDepth ? nextGraph : null);
+            if (depth < myPhaseDepth) generateChildren(phaseDB, graph, child, name, depth + 1, nextGraph);
+        }
+    }
+
+    /**
+     * $return(isEntity($clicked) && getName($clicked) == entityClass)
+     */
+    private void generateClickGuard(BlockGraph guard, String entityClass) throws Throwable {
+        clear(guard);
+        var returnBlock = call(guard, "GameMethods.$return", "Object retVal");
+        var and = add(guard, myFactory.binaryBlock(0, 100, "&&"));
+        var isEntity = call(guard, "GameMethods.isEntity", "GameObject object");
+        var equals = add(guard, myFactory.binaryBlock(200, 200, "=="));
+        var getName = call(guard, "GameMethods.getName", "GameObject object");
+        link(guard, guard.source(), Ports.FLOW_OUT, returnBlock);
+        link(guard, returnBlock, Ports.A, and);
+        link(guard, and, Ports.A, isEntity);
+        link(guard, isEntity, Ports.A, add(guard, myFactory.refBlock(0, 300, "$clicked").get()));
+        link(guard, and, Ports.B, equals);
+        link(guard, equals, Ports.A, getName);
+        link(guard, getName, Ports.A, add(guard, myFactory.refBlock(200, 300, "$clicked").get()));
+        link(guard, equals, Ports.B, add(guard, myFactory.stringBlock(300, 300, entityClass)));
+    }
+
+    /**
+     * visited = 0, then for each loop: for (entity in instancesOf(class)) visited = getProperty(entity, "hp") + visited;
+     * a leaf then passes the turn and goes to nextGraph. (The ref goes last: Groovy reads "(visited) + x" as a cast.)
+     */
+    private void generateExecution(BlockGraph exec, int index, String nextGraph) throws Throwable {
+        var counter = add(exec, myFactory.assignBlock(0, 0));
+        link(exec, counter, Ports.ASSIGN_LHS, add(exec, myFactory.refBlock(0, 50, "visited").get()));
+        link(exec, counter, Ports.ASSIGN_RHS, add(exec, myFactory.integerBlock(100, 50, "0").get()));
+        link(exec, exec.source(), Ports.FLOW_OUT, counter);
+        var last = counter;
+        for (int i = 0; i < myScriptComplexity; i++) {
+            var y = 100 * (i + 1);
+            var loop = add(exec, myFactory.forEachBlock(0, y, "entity"));
+            var instances = call(exec, "GameMethods.instancesOf", "String entityName");
+            link(exec, instances, Ports.A, add(exec, myFactory.stringBlock(100, y, ENTITY_PREFIX + (index + i) % myEntityClasses)));
+            link(exec, loop, Ports.FOREACH_LIST, instances);
+
+            var sum = add(exec, myFactory.assignBlock(50, y + 50));
+            var plus = add(exec, myFactory.binaryBlock(150, y + 50, "+"));
+            var hp = call(exec, "GameMethods.getProperty", "PropertyHolder object", "String key");
+            link(exec, sum, Ports.ASSIGN_LHS, add(exec, myFactory.refBlock(100, y + 50, "visited").get()));
+            link(exec, sum, Ports.ASSIGN_RHS, plus);
+            link(exec, plus, Ports.A, hp);
+            link(exec, plus, Ports.B, add(exec, myFactory.refBlock(200, y + 50, "visited").get()));
+            link(exec, hp, Ports.A, add(exec, myFactory.refBlock(250, y + 50, "entity").get()));
+            link(exec, hp, Ports.B, add(exec, myFactory.stringBlock(300, y + 50, "hp")));
+            link(exec, loop, Ports.FOREACH_BODY, sum);
+
+            link(exec, last, Ports.FLOW_OUT, loop);
+            last = loop;
+        }
+        if (nextGraph == null) return;
+        var toNextPlayer = add(exec, myFactory.functionBlock(0, 10000, "GameMethods.toNextPlayer", Map.of()));
+        var goTo = call(exec, "GameMethods.$goto", "String phaseNodeName");
+        link(exec, goTo, Ports.A, add(exec, myFactory.stringBlock(100, 10100, nextGraph)));
+        link(exec, last, Ports.FLOW_OUT, toNextPlayer);
+        link(exec, toNextPlayer, Ports.FLOW_OUT, goTo);
+    }
+
+    /**
+     * if (numberOfInstances(unit0) == 0) endGame("unit0 wiped out")
+     */
+    private void generateWinCondition(BlockGraph winCondition) throws Throwable {
+        var check = add(winCondition, myFactory.ifBlock(0, 0));
+        var equals = add(winCondition, myFactory.binaryBlock(100, 0, "=="));
+        var count = call(winCondition, "GameMethods.numberOfInstances", "String entityName");
+        var endGame = call(winCondition, "GameMethods.endGame", "String endingMessage");
+        link(winCondition, winCondition.source(), Ports.FLOW_OUT, check);
+        link(winCondition, check, Ports.IF_PREDICATE, equals);
+        link(winCondition, equals, Ports.A, count);
+        link(winCondition, count, Ports.A, add(winCondition, myFactory.stringBlock(200, 50, ENTITY_PREFIX + 0)));
+        link(winCondition, equals, Ports.B, add(winCondition, myFactory.integerBlock(200, 0, "0").get()));
+        link(winCondition, check, Ports.IF_BODY, endGame);
+        link(winCondition, endGame, Ports.A, add(winCondition, myFactory.stringBlock(100, 100, ENTITY_PREFIX + "0 wiped out")));
+    }
+
+    /**
+     * A GameMethods call taking one argument per parameter description
+     */
+    private GroovyBlock<?> call(BlockGraph graph, String method, String... parameters) throws Throwable {
+        var ports = new Ports[]{Ports.A, Ports.B, Ports.C, Ports.D, Ports.E};
+        var portInfo = new HashMap<Ports, String>();
+        for (int i = 0; i < parameters.length; i++) portInfo.put(ports[i], parameters[i]);
+        return add(graph, myFactory.functionBlock(0, 0, method, portInfo));
+    }
+
+    private GroovyBlock<?> add(BlockGraph graph, GroovyBlock<?> block) throws Throwable {
+        graph.addNode(block);
+        return block;
+    }
+
+    private void link(BlockGraph graph, GroovyBlock<?> from, Ports port, GroovyBlock<?> to) throws Throwable {
+        graph.addEdge(myFactory.createEdge(from, port, to));
+    }
+
+    /**
+     * Drops the default script, which hangs off the source
+     */
+    private void clear(BlockGraph graph) throws Throwable {
+        graph.findTarget(graph.source(), Ports.FLOW_OUT).forEach(first -> graph.removeNode(first));
+    }
+}
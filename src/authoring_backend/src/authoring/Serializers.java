@@ -2,6 +2,7 @@ package authoring;
 
 import com.thoughtworks.xstream.XStream;
 import conversion.SerializerForAuthor;
+import conversion.engine.ScriptCompiler;
 import conversion.engine.SerializerForEngine;
 
 /**
@@ -16,4 +17,8 @@ public class Serializers {
     public static XStream forEngine() {
         return SerializerForEngine.gen();
     }
+
+    public static XStream forEngine(ScriptCompiler compiler) {
+        return SerializerForEngine.gen(compiler);
+    }
 }
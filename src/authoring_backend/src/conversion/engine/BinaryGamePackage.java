@@ -0,0 +1,327 @@
+package conversion.engine;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.DomDriver;
+import com.thoughtworks.xstream.io.xml.DomReader;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A compact binary alternative to the engine XML, meant to be memory-mapped by the engine.
+ * <p>
+ * Every string (class names, image paths, scripts ...) is stored once in a string table, and lists of strings
+ * once in a list table; tiles, entities and the rest are fixed-width records of ints pointing into those tables,
+ * so a record can be read without decoding anything before it. Props are ValueCodec blobs in a section of their own,
+ * and the compiled scripts of a game package come last.
+ * <p>
+ * Layout: a header of HEADER_INTS ints (magic, version, grid width and height, the bgm path and win condition
+ * as string indices, then the offset of each section), followed by the sections in Section order.
+ * All ints are big-endian; string indices of -1 stand for null, props offsets of -1 for an empty map.
+ * The package is transcoded from the engine XML, so it holds exactly what the XML would.
+ */
+public class BinaryGamePackage {
+    public static final String EXTENSION = ".vgp";
+    public static final int MAGIC = 0x5647504B; // "VGPK"
+    public static final int VERSION = 2; // 2: the turn records whose turn it is
+    public static final int HEADER_INTS = 6 + Section.values().length;
+    public static final int PROTOTYPE_INTS = 7, OBJECT_INTS = 11, PLAYER_INTS = 5, CLASS_INTS = 3;
+    public static final int NODE_INTS = 3, EDGE_INTS = 6, PHASE_INTS = 3;
+    public static final int MOUSE_CLICK = 0, MOUSE_DRAG = 1, KEY_PRESS = 2;
+
+    public enum Section {STRINGS, LISTS, PROTOTYPES, TILES, ENTITIES, PLAYERS, GRAPH, PROPS, CLASSES}
+
+    private Map<String, Integer> myStrings;
+    private Map<List<Integer>, Integer> myLists;
+    private ByteArrayOutputStream myProps;
+    private ValueCodec myCodec;
+    private XStream myMapReader;
+
+    private BinaryGamePackage() {
+        myStrings = new LinkedHashMap<>();
+        myLists = new LinkedHashMap<>();
+        myProps = new ByteArrayOutputStream();
+        myCodec = new ValueCodec();
+        myMapReader = new XStream(new DomDriver());
+        myMapReader.alias("props", LinkedHashMap.class);
+        myMapReader.alias("myStats", LinkedHashMap.class);
+        myMapReader.alias("myEntityIDs", TreeSet.class);
+    }
+
+    /**
+     * Writes the game described by the engine XML, along with the compiled scripts (which may be empty)
+     */
+    public static void write(String engineXML, Map<String, byte[]> classes, OutputStream out) throws IOException {
+        Element root;
+        try {
+            root = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                    .parse(new InputSource(new StringReader(engineXML))).getDocumentElement();
+        } catch (ParserConfigurationException | SAXException e) {
+            throw new IOException("Malformed engine XML", e);
+        }
+        new BinaryGamePackage().write(root, classes, out);
+    }
+
+    private void write(Element root, Map<String, byte[]> classes, OutputStream out) throws IOException {
+        var sections = new LinkedHashMap<Section, ByteArrayOutputStream>();
+        var prototypes = section(sections, Section.PROTOTYPES);
+        var tiles = section(sections, Section.TILES);
+        var entities = section(sections, Section.ENTITIES);
+        var players = section(sections, Section.PLAYERS);
+        var graph = section(sections, Section.GRAPH);
+        var nodes = new ByteArrayOutputStream();
+        var edges = new ByteArrayOutputStream();
+        var phases = new ByteArrayOutputStream();
+        int[] counts = new int[8];
+        int width = 0, height = 0, bgmPath = -1, winCondition = -1, turnPhase = -1, playersOrder = -1, playerIdx = 0;
+
+        for (var element : children(root, null)) {
+            switch (element.getTagName()) {
+                case "gameplay.EntityPrototype":
+                    counts[0]++;
+                    writeInts(prototypes, string(text(element, "name")), integer(element, "myWidth"), integer(element, "myHeight"),
+                            list(strings(element, "myImagePaths")), string(text(element, "myImageSelector")));
+                    writeInts(prototypes, props(element, "props"));
+                    break;
+                case "gameplay.Tile":
+                    counts[1]++;
+                    writeObject(tiles, element);
+                    break;
+                case "gameplay.Entity":
+                    counts[2]++;
+                    writeObject(entities, element);
+                    break;
+                case "gameplay.Player":
+                    counts[3]++;
+                    writeInts(players, string(text(element, "myName")));
+                    writeInts(players, props(element, "myStats"));
+                    writeInts(players, ids(element, "myEntityIDs"));
+                    break;
+                case "gameplay.Node":
+                    counts[4]++;
+                    writeInts(nodes, string(text(element, "myPhaseName")), string(text(element, "myName")),
+                            string(text(element, "myExecution")));
+                    break;
+                case "gameplay.Edge":
+                    counts[5]++;
+                    var trigger = child(element, "myTrigger");
+                    writeInts(edges, string(text(element, "myPhaseName")), string(text(element, "myStartNodeName")),
+                            string(text(element, "myEndNodeName")), triggerType(trigger),
+                            string(trigger == null ? null : text(trigger, "code")), string(text(element, "myGuard")));
+                    break;
+                case "gameplay.Phase":
+                    counts[6]++;
+                    writeInts(phases, string(text(element, "myStartNodeName")), string(text(element, "myCurrentNodeName")),
+                            list(strings(element, "myNodeNames")));
+                    break;
+                case "gameplay.Turn":
+                    if (counts[7]++ > 0) break; // only one Turn per game
+                    turnPhase = string(text(element, "myCurrentPhaseName"));
+                    playersOrder = list(strings(element, "playersOrder"));
+                    playerIdx = integer(element, "playerIdx");
+                    break;
+                case "grid-width":
+                    width = Integer.parseInt(element.getTextContent().trim());
+                    break;
+                case "grid-height":
+                    height = Integer.parseInt(element.getTextContent().trim());
+                    break;
+                case "bgmPath":
+                    bgmPath = string(element.getTextContent());
+                    break;
+                case "winCondition":
+                    winCondition = string(element.getTextContent());
+                    break;
+                default: // authoring-side prototypes the engine doesn't use
+            }
+        }
+        writeInts(graph, counts[4]);
+        nodes.writeTo(graph);
+        writeInts(graph, counts[5]);
+        edges.writeTo(graph);
+        writeInts(graph, counts[6]);
+        phases.writeTo(graph);
+        writeInts(graph, turnPhase, playersOrder, playerIdx);
+
+        var classSection = section(sections, Section.CLASSES);
+        var classData = new ByteArrayOutputStream();
+        writeInts(classSection, classes.size());
+        for (var entry : classes.entrySet()) {
+            writeInts(classSection, string(entry.getKey()), classData.size(), entry.getValue().length);
+            classData.write(entry.getValue());
+        }
+        classData.writeTo(classSection);
+
+        // the tables are complete only once everything else has been written
+        sections.put(Section.STRINGS, table(new ArrayList<>(myStrings.keySet()), (section, string) -> {
+            var bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeInts(section, bytes.length);
+            section.write(bytes);
+        }));
+        sections.put(Section.LISTS, table(new ArrayList<>(myLists.keySet()), (section, list) -> {
+            writeInts(section, list.size());
+            for (var index : list) writeInts(section, index);
+        }));
+        sections.put(Section.PROPS, myProps);
+
+        var header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeInt(width);
+        header.writeInt(height);
+        header.writeInt(bgmPath);
+        header.writeInt(winCondition);
+        var offset = HEADER_INTS * Integer.BYTES;
+        for (var section : Section.values()) {
+            header.writeInt(offset);
+            offset += sections.get(section).size() + (countedSection(section) ? Integer.BYTES : 0);
+        }
+        var sectionCounts = Map.of(Section.PROTOTYPES, counts[0], Section.TILES, counts[1],
+                Section.ENTITIES, counts[2], Section.PLAYERS, counts[3]);
+        for (var section : Section.values()) {
+            if (countedSection(section)) header.writeInt(sectionCounts.get(section));
+            sections.get(section).writeTo(header);
+        }
+        header.flush();
+    }
+
+    /**
+     * Record sections start with their record count, which is only known at the end
+     */
+    private static boolean countedSection(Section section) {
+        return section == Section.PROTOTYPES || section == Section.TILES || section == Section.ENTITIES || section == Section.PLAYERS;
+    }
+
+    private void writeObject(ByteArrayOutputStream section, Element element) throws IOException {
+        var coord = child(element, "myCoord");
+        writeInts(section, integer(element, "myID"), string(text(element, "name")), string(text(element, "instanceName")),
+                integer(element, "myWidth"), integer(element, "myHeight"), integer(coord, "x"), integer(coord, "y"),
+                list(strings(element, "myImagePaths")), string(text(element, "myImageSelector")));
+        writeInts(section, props(element, "props"));
+    }
+
+    /**
+     * Appends the map or set held by the element to the props section; returns its offset and length
+     */
+    private int[] props(Element parent, String name) throws IOException {
+        var element = child(parent, name);
+        if (element == null || children(element, null).isEmpty()) return new int[]{-1, 0};
+        var value = myMapReader.unmarshal(new DomReader(element));
+        var offset = myProps.size();
+        myCodec.write(new DataOutputStream(myProps), value);
+        return new int[]{offset, myProps.size() - offset};
+    }
+
+    /**
+     * A player's entity IDs are read directly: going through XStream's DomReader is quadratic in the number of IDs
+     */
+    private int[] ids(Element parent, String name) throws IOException {
+        var element = child(parent, name);
+        var ids = element == null ? List.<Element>of() : children(element, "int");
+        if (ids.isEmpty()) return new int[]{-1, 0};
+        var value = new TreeSet<Integer>();
+        for (var id : ids) value.add(Integer.parseInt(id.getTextContent().trim()));
+        var offset = myProps.size();
+        myCodec.write(new DataOutputStream(myProps), value);
+        return new int[]{offset, myProps.size() - offset};
+    }
+
+    private int string(String string) {
+        if (string == null) return -1;
+        return myStrings.computeIfAbsent(string, s -> myStrings.size());
+    }
+
+    private int list(List<String> strings) {
+        var indices = new ArrayList<Integer>(strings.size());
+        for (var string : strings) indices.add(string(string));
+        return myLists.computeIfAbsent(indices, l -> myLists.size());
+    }
+
+    private static int triggerType(Element trigger) {
+        var type = trigger == null ? "" : trigger.getAttribute("class");
+        if (type.endsWith("$KeyPress")) return KEY_PRESS;
+        if (type.endsWith("$MouseDrag")) return MOUSE_DRAG;
+        return MOUSE_CLICK;
+    }
+
+    private interface EntryWriter<T> {
+        void write(ByteArrayOutputStream section, T entry) throws IOException;
+    }
+
+    /**
+     * A count, the offset of every entry from the start of the section, then the entries
+     */
+    private static <T> ByteArrayOutputStream table(List<T> entries, EntryWriter<T> writer) throws IOException {
+        var data = new ByteArrayOutputStream();
+        var section = new ByteArrayOutputStream();
+        var start = (1 + entries.size()) * Integer.BYTES;
+        writeInts(section, entries.size());
+        for (var entry : entries) {
+            writeInts(section, start + data.size());
+            writer.write(data, entry);
+        }
+        data.writeTo(section);
+        return section;
+    }
+
+    private static ByteArrayOutputStream section(Map<Section, ByteArrayOutputStream> sections, Section section) {
+        var out = new ByteArrayOutputStream();
+        sections.put(section, out);
+        return out;
+    }
+
+    private static void writeInts(ByteArrayOutputStream out, int... values) {
+        for (var value : values) {
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+        }
+    }
+
+    private static List<Element> children(Element parent, String name) {
+        var children = new ArrayList<Element>();
+        for (var node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node instanceof Element && (name == null || ((Element) node).getTagName().equals(name))) {
+                children.add((Element) node);
+            }
+        }
+        return children;
+    }
+
+    private static Element child(Element parent, String name) {
+        var children = children(parent, name);
+        return children.isEmpty() ? null : children.get(0);
+    }
+
+    private static String text(Element parent, String name) {
+        var child = child(parent, name);
+        return child == null ? null : child.getTextContent();
+    }
+
+    private static int integer(Element parent, String name) {
+        var text = text(parent, name);
+        return text == null ? 0 : Integer.parseInt(text.trim());
+    }
+
+    private static List<String> strings(Element parent, String name) {
+        var strings = new ArrayList<String>();
+        var child = child(parent, name);
+        if (child != null) children(child, "string").forEach(element -> strings.add(element.getTextContent()));
+        return strings;
+    }
+}
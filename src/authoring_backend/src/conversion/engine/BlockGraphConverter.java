@@ -9,6 +9,12 @@ import groovy.api.BlockGraph;
 import groovy.graph.BlockGraphImpl;
 
 public class BlockGraphConverter implements Converter {
+    private ScriptCompiler compiler;
+
+    public BlockGraphConverter(ScriptCompiler compiler) {
+        this.compiler = compiler;
+    }
+
     @Override
     public void marshal(Object o, HierarchicalStreamWriter writer, MarshallingContext ctx) {
         // the failure should have been checked by this time
@@ -17,7 +23,7 @@ public class BlockGraphConverter implements Converter {
         } catch (Throwable throwable) {
             throwable.printStackTrace();
         }
-        writer.setValue(((BlockGraph) o).transformToGroovy().get(""));
+        writer.setValue(compiler.register((BlockGraph) o));
     }
 
     @Override
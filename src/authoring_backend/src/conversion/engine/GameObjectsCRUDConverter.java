@@ -15,21 +15,26 @@ import gameObjects.entity.EntityClass;
 import gameObjects.tile.TileClass;
 import groovy.lang.GroovyShell;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeSet;
 
 @SuppressWarnings("Duplicates")
 public class GameObjectsCRUDConverter implements Converter {
     private Mapper mapper;
+    private ScriptCompiler compiler;
 
-    public GameObjectsCRUDConverter(Mapper mapper) {
+    public GameObjectsCRUDConverter(Mapper mapper, ScriptCompiler compiler) {
         this.mapper = mapper;
+        this.compiler = compiler;
     }
 
     @Override
     public void marshal(Object o, HierarchicalStreamWriter writer, MarshallingContext ctx) {
         var db = (SimpleGameObjectsCRUD) o;
         var shell = new GroovyShell();
+        // instances mostly keep the properties of their class, so each distinct map is only evaluated once
+        var evaluated = new HashMap<String, Object>();
 
         writer.startNode("grid-width");
         writer.setValue(String.valueOf(db.getWidth()));
@@ -71,7 +76,7 @@ public class GameObjectsCRUDConverter implements Converter {
             // props
             var toEval = mapToString(entityClass.getPropertiesMap());
             writer.startNode("props");
-            new MapConverter(mapper).marshal(shell.evaluate(toEval), writer, ctx);
+            new MapConverter(mapper).marshal(evaluated.computeIfAbsent(toEval, shell::evaluate), writer, ctx);
             writer.endNode();
 
             // myWidth
@@ -96,7 +101,7 @@ public class GameObjectsCRUDConverter implements Converter {
 
             // imageSelector
             writer.startNode("myImageSelector");
-            writer.setValue(entityClass.getImageSelector().transformToGroovy().get(""));
+            writer.setValue(compiler.register(entityClass.getImageSelector()));
             writer.endNode();
 
             writer.endNode();
@@ -130,7 +135,7 @@ public class GameObjectsCRUDConverter implements Converter {
             // props
             var toEval = mapToString(entityInstance.getPropertiesMap());
             writer.startNode("props");
-            new MapConverter(mapper).marshal(shell.evaluate(toEval), writer, ctx);
+            new MapConverter(mapper).marshal(evaluated.computeIfAbsent(toEval, shell::evaluate), writer, ctx);
             writer.endNode();
 
             // myWidth
@@ -163,7 +168,7 @@ public class GameObjectsCRUDConverter implements Converter {
 
             // imageSelector
             writer.startNode("myImageSelector");
-            writer.setValue(entityClass.getImageSelector().transformToGroovy().get(""));
+            writer.setValue(compiler.register(entityClass.getImageSelector()));
             writer.endNode();
 
             writer.endNode();
@@ -185,7 +190,7 @@ public class GameObjectsCRUDConverter implements Converter {
             // props
             writer.startNode("props");
             var toEval = mapToString(tileClass.getPropertiesMap());
-            new MapConverter(mapper).marshal(shell.evaluate(toEval), writer, ctx);
+            new MapConverter(mapper).marshal(evaluated.computeIfAbsent(toEval, shell::evaluate), writer, ctx);
             writer.endNode();
 
             // myWidth
@@ -209,7 +214,7 @@ public class GameObjectsCRUDConverter implements Converter {
 
             // myImageSelector
             writer.startNode("myImageSelector");
-            writer.setValue(tileClass.getImageSelector().transformToGroovy().get(""));
+            writer.setValue(compiler.register(tileClass.getImageSelector()));
             writer.endNode();
             writer.endNode();
         }
@@ -236,7 +241,7 @@ public class GameObjectsCRUDConverter implements Converter {
             // props
             var toEval = mapToString(tileInstance.getPropertiesMap()); // should be instance tho...
             writer.startNode("props");
-            new MapConverter(mapper).marshal(shell.evaluate(toEval), writer, ctx);
+            new MapConverter(mapper).marshal(evaluated.computeIfAbsent(toEval, shell::evaluate), writer, ctx);
             writer.endNode();
 
             // myWidth
@@ -269,7 +274,7 @@ public class GameObjectsCRUDConverter implements Converter {
 
             // myImageSelector
             writer.startNode("myImageSelector");
-            writer.setValue(tileInstance.getGameObjectClass().getImageSelector().transformToGroovy().get(""));
+            writer.setValue(compiler.register(tileInstance.getGameObjectClass().getImageSelector()));
             writer.endNode();
 
             writer.endNode();
@@ -284,7 +289,7 @@ public class GameObjectsCRUDConverter implements Converter {
 
             writer.startNode("myStats");
             var toEval = mapToString(player.getPropertiesMap());
-            new MapConverter(mapper).marshal(shell.evaluate(toEval), writer, ctx);
+            new MapConverter(mapper).marshal(evaluated.computeIfAbsent(toEval, shell::evaluate), writer, ctx);
             writer.endNode();
 
             writer.startNode("myEntityIDs");
@@ -8,14 +8,20 @@ import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
 import phase.api.PhaseDB;
 
 public class PhaseDBConverter implements Converter {
+    private ScriptCompiler compiler;
+
+    public PhaseDBConverter(ScriptCompiler compiler) {
+        this.compiler = compiler;
+    }
+
     @Override
     public void marshal(Object o, HierarchicalStreamWriter writer, MarshallingContext ctx) {
         var db = (PhaseDB) o;
-        var graphConverter = new PhaseGraphConverter();
+        var graphConverter = new PhaseGraphConverter(compiler);
         db.phaseGraphs().forEach(graph -> {
             graphConverter.marshal(graph, writer, ctx);
         });
-        var blockGraphConverter = new BlockGraphConverter();
+        var blockGraphConverter = new BlockGraphConverter(compiler);
         writer.startNode("winCondition");
         blockGraphConverter.marshal(db.winCondition(), writer, ctx);
         writer.endNode();
@@ -12,6 +12,12 @@ import java.util.Collection;
 import java.util.stream.Collectors;
 
 public class PhaseGraphConverter implements Converter {
+    private ScriptCompiler compiler;
+
+    public PhaseGraphConverter(ScriptCompiler compiler) {
+        this.compiler = compiler;
+    }
+
     /**
      * We convert all node names to hashCode, and we replace goTo('A') to goTo('A'.hashCode());
      * It's a dirty hack that might fail if hashCodes collide but ... it's not likely
@@ -37,7 +43,7 @@ public class PhaseGraphConverter implements Converter {
             writer.endNode();
 
             writer.startNode("myExecution");
-            writer.setValue(node.exec().transformToGroovy().get(""));
+            writer.setValue(compiler.register(node.exec()));
             System.out.println("toGroovyRes" + node.exec().transformToGroovy());
             System.out.println("marshalling" + node.exec().hashCode());
             writer.endNode();
@@ -70,7 +76,7 @@ public class PhaseGraphConverter implements Converter {
             writer.endNode();
 
             writer.startNode("myGuard");
-            writer.setValue(edge.guard().transformToGroovy().get(""));
+            writer.setValue(compiler.register(edge.guard()));
             writer.endNode();
 
             writer.endNode();
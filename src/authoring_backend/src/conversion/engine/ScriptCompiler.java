@@ -0,0 +1,141 @@
+package conversion.engine;
+
+import groovy.api.BlockGraph;
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.tools.GroovyClass;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Compiles the Groovy code that goes into an engine XML to JVM bytecode while the game is being exported,
+ * so that the engine can load the classes instead of invoking the Groovy compiler on the player's machine.
+ * <p>
+ * The converters hand every script they write through register(); each distinct source is compiled once,
+ * into a class whose name is derived from the source text so that the engine can find it again.
+ * A game package is a zip holding the engine XML plus all the generated class files,
+ * and the ScriptSourceMap of every script that came from a BlockGraph.
+ */
+public class ScriptCompiler {
+    public static final String PACKAGE_EXTENSION = ".zip";
+    public static final String GAME_ENTRY = "game.xml";
+    public static final String CLASS_DIRECTORY = "scripts/";
+    public static final String SOURCE_MAP_ENTRY = "sourcemaps.bin";
+    private static final String CLASS_PREFIX = "GameScript_";
+
+    private boolean myEnabled;
+    private Set<String> mySources;
+    private Map<String, byte[]> myClasses;
+    private Map<String, ScriptSourceMap> mySourceMaps;
+
+    public ScriptCompiler() {
+        this(true);
+    }
+
+    private ScriptCompiler(boolean enabled) {
+        myEnabled = enabled;
+        mySources = new HashSet<>();
+        myClasses = new LinkedHashMap<>();
+        mySourceMaps = new LinkedHashMap<>();
+    }
+
+    /**
+     * A compiler that lets every script through untouched; used for plain XML exports
+     */
+    public static ScriptCompiler disabled() {
+        return new ScriptCompiler(false);
+    }
+
+    /**
+     * Compiles the script if it hasn't been seen yet, and returns it unchanged so it can still be written out.
+     * Scripts that fail to compile are left to the engine, which reports them when they're run.
+     */
+    public String register(String source) {
+        if (!myEnabled || !mySources.add(source)) return source;
+        var unit = new CompilationUnit(new CompilerConfiguration());
+        unit.addSource(classNameFor(source) + ".groovy", source);
+        try {
+            unit.compile(Phases.CLASS_GENERATION);
+            for (GroovyClass generated : unit.getClasses()) {
+                myClasses.put(generated.getName(), generated.getBytes());
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return source;
+    }
+
+    /**
+     * Registers the code of a block graph, remembering which block each line comes from
+     */
+    public String register(BlockGraph graph) {
+        var source = graph.transformToGroovy().get("");
+        if (myEnabled) mySourceMaps.computeIfAbsent(classNameFor(source), name -> ScriptSourceMap.of(graph));
+        return register(source);
+    }
+
+    /**
+     * Binary class name -> bytecode of everything compiled so far, closures included
+     */
+    public Map<String, byte[]> classes() {
+        return myClasses;
+    }
+
+    /**
+     * Script class name -> where its lines come from
+     */
+    public Map<String, ScriptSourceMap> sourceMaps() {
+        return mySourceMaps;
+    }
+
+    /**
+     * Writes the engine XML and the compiled classes into a game package
+     */
+    public void writePackage(String engineXML, OutputStream out) throws IOException {
+        try (var zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry(GAME_ENTRY));
+            zip.write(engineXML.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            for (var entry : myClasses.entrySet()) {
+                zip.putNextEntry(new ZipEntry(CLASS_DIRECTORY + entry.getKey() + ".class"));
+                zip.write(entry.getValue());
+                zip.closeEntry();
+            }
+            zip.putNextEntry(new ZipEntry(SOURCE_MAP_ENTRY));
+            var data = new DataOutputStream(zip);
+            ValueCodec.writeVarInt(data, mySourceMaps.size());
+            for (var entry : mySourceMaps.entrySet()) {
+                ValueCodec.writeString(data, entry.getKey());
+                entry.getValue().write(data);
+            }
+            data.flush();
+            zip.closeEntry();
+        }
+    }
+
+    /**
+     * The name of the class a script compiles into; both the exporter and the engine derive it from the source alone
+     */
+    public static String classNameFor(String source) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+            var name = new StringBuilder(CLASS_PREFIX);
+            for (int i = 0; i < 16; i++) name.append(String.format("%02x", digest[i]));
+            return name.toString();
+        } catch (NoSuchAlgorithmException e) { // every JVM ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
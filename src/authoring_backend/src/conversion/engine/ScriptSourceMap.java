@@ -0,0 +1,114 @@
+package conversion.engine;
+
+import groovy.api.BlockGraph;
+import groovy.api.Ports;
+import groovy.graph.blocks.core.GroovyBlock;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static conversion.engine.ValueCodec.readStrings;
+import static conversion.engine.ValueCodec.writeStrings;
+
+/**
+ * Tells which GroovyBlock produced each line of the code a BlockGraph transforms into, so that the engine can
+ * report where a script spends its time in terms of the blocks the author placed.
+ * <p>
+ * A line is attributed to the innermost statement block that wrote it, together with the If, Else and ForEach
+ * blocks around it: frames() of a line in a loop body is e.g. ["Else@100,300", "each: entity@200,400", "=@300,480"].
+ * Blocks are named by name() and their position in the editor, which is how the authoring UI finds them again.
+ * Expressions are folded into the statement they're part of.
+ */
+public class ScriptSourceMap {
+    private static final Set<Ports> BODY_PORTS = Set.of(Ports.IF_BODY, Ports.FOREACH_BODY);
+    private static final String SEPARATOR = ";";
+    private static final int MAX_NAME_LENGTH = 40;
+
+    private String[] myLines;
+
+    private ScriptSourceMap(String[] lines) {
+        myLines = lines;
+    }
+
+    /**
+     * Maps the code graph.transformToGroovy() returns; lines no block accounts for map to no frames
+     */
+    public static ScriptSourceMap of(BlockGraph graph) {
+        var code = graph.transformToGroovy().get("");
+        var lines = new String[lineCount(code)];
+        graph.findTarget(graph.source(), Ports.FLOW_OUT).forEach(first -> attribute(graph, first, 0, "", lines));
+        return new ScriptSourceMap(lines);
+    }
+
+    private static void attribute(BlockGraph graph, GroovyBlock<?> block, int firstLine, String enclosing, String[] lines) {
+        var code = groovy(graph, block);
+        if (code.isEmpty()) return;
+        var out = block.ports().contains(Ports.FLOW_OUT) ? graph.findTarget(block, Ports.FLOW_OUT).get(null) : null;
+        var outCode = out == null ? "" : groovy(graph, out);
+        var own = code.endsWith(outCode) ? code.substring(0, code.length() - outCode.length()) : code;
+
+        var path = enclosing + frame(block);
+        var ownLines = Math.max(1, newlines(own, own.length()) + (own.endsWith("\n") ? 0 : 1));
+        for (int i = firstLine; i < firstLine + ownLines && i < lines.length; i++) lines[i] = path;
+        for (var port : block.ports()) {
+            if (!BODY_PORTS.contains(port)) continue;
+            var body = graph.findTarget(block, port).get(null);
+            if (body == null) continue;
+            var start = own.indexOf(groovy(graph, body));
+            if (start >= 0) attribute(graph, body, firstLine + newlines(own, start), path + SEPARATOR, lines);
+        }
+        if (out != null && !outCode.isEmpty()) attribute(graph, out, firstLine + newlines(own, own.length()), enclosing, lines);
+    }
+
+    private static String groovy(BlockGraph graph, GroovyBlock<?> block) {
+        return block.toGroovy(graph).get("");
+    }
+
+    /**
+     * Raw Groovy blocks are named after their code, so names are flattened to one line and shortened
+     */
+    private static String frame(GroovyBlock<?> block) {
+        var name = block.name().strip().replaceAll("\\s+", " ").replace(SEPARATOR, ",");
+        if (name.length() > MAX_NAME_LENGTH) name = name.substring(0, MAX_NAME_LENGTH) + "...";
+        return String.format("%s@%d,%d", name, Math.round(block.x()), Math.round(block.y()));
+    }
+
+    private static int newlines(String text, int end) {
+        int count = 0;
+        for (int i = 0; i < end; i++) if (text.charAt(i) == '\n') count++;
+        return count;
+    }
+
+    private static int lineCount(String code) {
+        return newlines(code, code.length()) + 1;
+    }
+
+    /**
+     * The blocks that produced a 1-based line of the script, outermost first; empty if none did
+     */
+    public List<String> frames(int line) {
+        if (line < 1 || line > myLines.length || myLines[line - 1] == null) return List.of();
+        return Arrays.asList(myLines[line - 1].split(SEPARATOR));
+    }
+
+    public int lines() {
+        return myLines.length;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        var lines = new ArrayList<String>(myLines.length);
+        for (var line : myLines) lines.add(line == null ? "" : line);
+        writeStrings(out, lines);
+    }
+
+    public static ScriptSourceMap read(DataInput in) throws IOException {
+        var lines = readStrings(in).toArray(new String[0]);
+        for (int i = 0; i < lines.length; i++) if (lines[i].isEmpty()) lines[i] = null;
+        return new ScriptSourceMap(lines);
+    }
+}
@@ -25,24 +25,31 @@ public class SerializerForEngine {
             );
 
     public static XStream gen() {
+        return gen(ScriptCompiler.disabled());
+    }
+
+    /**
+     * Same serializer, except that every script written out is also handed to the compiler
+     */
+    public static XStream gen(ScriptCompiler compiler) {
         var serializer = new XStream(new DomDriver());
         serializer.alias("game", AuthoringTools.class);
-        serializer.registerConverter(new AuthoringToolsConverter(genAux(), serializer.getMapper()));
+        serializer.registerConverter(new AuthoringToolsConverter(genAux(compiler), serializer.getMapper()));
 
         return serializer;
     }
 
-    private static XStream genAux() {
+    private static XStream genAux(ScriptCompiler compiler) {
         var serializer = new XStream(new DomDriver());
         serializer.alias("game-objects", SimpleGameObjectsCRUD.class);
         serializer.alias("phase-info", PhaseDB.class);
         serializer.alias("props", LinkedHashMap.class);
 
-        serializer.registerConverter(new PhaseDBConverter());
-        serializer.registerConverter(new PhaseGraphConverter());
-        serializer.registerConverter(new BlockGraphConverter());
+        serializer.registerConverter(new PhaseDBConverter(compiler));
+        serializer.registerConverter(new PhaseGraphConverter(compiler));
+        serializer.registerConverter(new BlockGraphConverter(compiler));
         serializer.registerConverter(
-                new GameObjectsCRUDConverter(serializer.getMapper())
+                new GameObjectsCRUDConverter(serializer.getMapper(), compiler)
         );
         return serializer;
     }
@@ -0,0 +1,19 @@
+package conversion.engine;
+
+/**
+ * Thrown when a value has no binary form in ValueCodec, such as an arbitrary object a script stored in a prop
+ */
+public class UnsupportedValueException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    public UnsupportedValueException(Object value) {
+        super("Can't encode a " + value.getClass().getName() + ": " + value);
+    }
+
+    /**
+     * Says where the value was found, e.g. "prop hp of entity 3"
+     */
+    public UnsupportedValueException(String where, UnsupportedValueException cause) {
+        super(where + " holds a value that can't be saved. " + cause.getMessage(), cause);
+    }
+}
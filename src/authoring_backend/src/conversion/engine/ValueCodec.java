@@ -0,0 +1,247 @@
+package conversion.engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Binary form of the values kept in props, stats and script variables:
+ * null, booleans, numbers (including Groovy's BigDecimals), characters, strings, enums and lists, sets and maps of those.
+ * Each value is a tag byte followed by its payload; ints and lengths are varints.
+ * <p>
+ * Both the binary game package and the engine's snapshots use it; the engine extends it to write
+ * references to its entities and tiles as their IDs, and to its players as their names.
+ */
+public class ValueCodec {
+    private static final byte NULL = 0, TRUE = 1, FALSE = 2, INT = 3, LONG = 4, DOUBLE = 5, FLOAT = 6,
+            BIG_DECIMAL = 7, BIG_INTEGER = 8, CHAR = 9, STRING = 10, ENUM = 11,
+            LIST = 12, SET = 13, MAP = 14;
+    /**
+     * Tags from here on are left to subclasses for their references
+     */
+    protected static final byte FIRST_REFERENCE_TAG = 64;
+
+    /**
+     * Whether write() would accept the value
+     */
+    public boolean canWrite(Object value) {
+        if (referenceTag(value) >= 0) return true;
+        if (value instanceof Collection) return ((Collection<?>) value).stream().allMatch(this::canWrite);
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).entrySet().stream().allMatch(e -> canWrite(e.getKey()) && canWrite(e.getValue()));
+        }
+        return value == null || value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Double || value instanceof Float || value instanceof BigDecimal
+                || value instanceof BigInteger || value instanceof Character || value instanceof CharSequence
+                || value instanceof Enum;
+    }
+
+    /**
+     * The tag a value is written under as a reference (an ID or a name), or -1 if it's written as a value
+     */
+    protected int referenceTag(Object value) {
+        return -1;
+    }
+
+    /**
+     * Writes what identifies a value referenceTag() accepted; the tag itself is already written
+     */
+    protected void writeReference(DataOutput out, Object value) throws IOException {
+        throw new IllegalArgumentException("Not a reference: " + value);
+    }
+
+    /**
+     * Reads what writeReference() wrote and turns it back into the object it refers to
+     */
+    protected Object readReference(int tag, DataInput in) throws IOException {
+        throw new IOException("Unknown value tag " + tag);
+    }
+
+    /**
+     * Throws UnsupportedValueException for anything canWrite() rejects
+     */
+    public void write(DataOutput out, Object value) throws IOException {
+        var referenceTag = referenceTag(value);
+        if (referenceTag >= 0) {
+            out.writeByte(referenceTag);
+            writeReference(out, value);
+        } else if (value == null) out.writeByte(NULL);
+        else if (value instanceof Boolean) out.writeByte((Boolean) value ? TRUE : FALSE);
+        else if (value instanceof Integer) {
+            out.writeByte(INT);
+            writeVarInt(out, zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(BIG_DECIMAL);
+            writeString(out, value.toString());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(BIG_INTEGER);
+            writeString(out, value.toString());
+        } else if (value instanceof Character) {
+            out.writeByte(CHAR);
+            out.writeChar((Character) value);
+        } else if (value instanceof CharSequence) { // GStrings are flattened to Strings
+            out.writeByte(STRING);
+            writeString(out, value.toString());
+        } else if (value instanceof Enum) {
+            out.writeByte(ENUM);
+            writeString(out, ((Enum<?>) value).getDeclaringClass().getName());
+            writeString(out, ((Enum<?>) value).name());
+        } else if (value instanceof Map) {
+            out.writeByte(MAP);
+            writeMap(out, (Map<?, ?>) value);
+        } else if (value instanceof Collection) {
+            out.writeByte(value instanceof Set ? SET : LIST);
+            writeVarInt(out, ((Collection<?>) value).size());
+            for (var element : (Collection<?>) value) write(out, element);
+        } else throw new UnsupportedValueException(value);
+    }
+
+    public void writeMap(DataOutput out, Map<?, ?> map) throws IOException {
+        writeVarInt(out, map.size());
+        for (var entry : map.entrySet()) {
+            write(out, entry.getKey());
+            write(out, entry.getValue());
+        }
+    }
+
+    public Object read(DataInput in) throws IOException {
+        var tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return true;
+            case FALSE:
+                return false;
+            case INT:
+                return unZigZag(readVarInt(in));
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case FLOAT:
+                return in.readFloat();
+            case BIG_DECIMAL:
+                return new BigDecimal(readString(in));
+            case BIG_INTEGER:
+                return new BigInteger(readString(in));
+            case CHAR:
+                return in.readChar();
+            case STRING:
+                return readString(in);
+            case ENUM:
+                return readEnum(readString(in), readString(in));
+            case MAP:
+                return readMap(in, new LinkedHashMap<>());
+            case LIST:
+            case SET:
+                var size = readVarInt(in);
+                Collection<Object> collection = tag == LIST ? new ArrayList<>(size) : new LinkedHashSet<>();
+                for (int i = 0; i < size; i++) collection.add(read(in));
+                return collection;
+            default:
+                if (tag < FIRST_REFERENCE_TAG) throw new IOException("Unknown value tag " + tag);
+                return readReference(tag, in);
+        }
+    }
+
+    /**
+     * Reads the entries of a map written by writeMap() into the given map
+     */
+    @SuppressWarnings("unchecked")
+    public <K> Map<K, Object> readMap(DataInput in, Map<K, Object> into) throws IOException {
+        var size = readVarInt(in);
+        for (int i = 0; i < size; i++) into.put((K) read(in), read(in));
+        return into;
+    }
+
+    public static void writeString(DataOutput out, String string) throws IOException {
+        var bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+        var bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Strings that may be null, like an entity's instance name
+     */
+    public static void writeNullableString(DataOutput out, String string) throws IOException {
+        out.writeBoolean(string != null);
+        if (string != null) writeString(out, string);
+    }
+
+    public static String readNullableString(DataInput in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    public static void writeStrings(DataOutput out, List<String> strings) throws IOException {
+        writeVarInt(out, strings.size());
+        for (var string : strings) writeString(out, string);
+    }
+
+    public static List<String> readStrings(DataInput in) throws IOException {
+        var size = readVarInt(in);
+        var strings = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) strings.add(readString(in));
+        return strings;
+    }
+
+    public static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object readEnum(String className, String name) throws IOException {
+        try {
+            return Enum.valueOf((Class<? extends Enum>) Class.forName(className), name);
+        } catch (ClassNotFoundException | ClassCastException | IllegalArgumentException e) {
+            throw new IOException("Unknown enum constant " + className + "." + name, e);
+        }
+    }
+}
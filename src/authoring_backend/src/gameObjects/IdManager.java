@@ -15,6 +15,10 @@ public interface IdManager {
 
     Consumer<GameObjectInstance> requestInstanceIdFunc();
 
+    Consumer<Integer> returnClassIdFunc();
+
+    Consumer<Integer> returnInstanceIdFunc();
+
     Function<Integer, Boolean> verifyClassIdFunc();
 
     Function<Integer, Boolean> verifyTileInstanceIdFunc();
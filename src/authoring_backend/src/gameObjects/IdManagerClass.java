@@ -7,12 +7,12 @@ import gameObjects.gameObject.GameObjectInstance;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Stream;
 
 /**
  * This Class implements the IdManager Interface.
  * This Class assigns an id to every GameObject Class and Tile or Sprite Instance.
- * It maintains lists of returned ids for classes, tile instances and sprite instances.
+ * It always issues the lowest id not in use. Rather than searching from 1 every time, it remembers the lowest id
+ * that may be free, which returned ids lower again, so that filling a large grid takes linear time.
  *
  * @author Jason Zhou
  */
@@ -26,6 +26,8 @@ public class IdManagerClass implements IdManager {
     private Function<Integer, GameObjectInstance> getInstanceFromMapFunc;
     private Map<Integer, GameObjectClass> gameObjectClassMap;
     private Map<Integer, GameObjectInstance> gameObjectInstanceMap;
+    private int lowestFreeClassId = 1;
+    private int lowestFreeInstanceId = 1;
 
     public IdManagerClass(
             Function<Integer, GameObjectClass> getClassFromMapFunc,
@@ -63,24 +65,27 @@ public class IdManagerClass implements IdManager {
         };
     }
 
-    private int newClassID() {
-        return Stream.iterate(1, a -> a + 1).filter(this::notIssuedClassID).findFirst().get();
+    @Override
+    public Consumer<Integer> returnClassIdFunc() {
+        return id -> lowestFreeClassId = Math.max(1, Math.min(lowestFreeClassId, id));
     }
 
-    private int newInstanceID() {
-        return Stream.iterate(1, a -> a + 1).filter(this::notIssuedInstanceID).findFirst().get();
+    @Override
+    public Consumer<Integer> returnInstanceIdFunc() {
+        return id -> lowestFreeInstanceId = Math.max(1, Math.min(lowestFreeInstanceId, id));
     }
 
-    private boolean notIssuedClassID(int id) {
-        return gameObjectClassMap.values()
-                .stream()
-                .noneMatch(c -> c.getClassId() == id);
+    /**
+     * The maps are keyed by id; ids taken by objects loaded from a file are skipped over the same way
+     */
+    private int newClassID() {
+        while (gameObjectClassMap.containsKey(lowestFreeClassId)) lowestFreeClassId++;
+        return lowestFreeClassId++;
     }
 
-    private boolean notIssuedInstanceID(int id) {
-        return gameObjectInstanceMap.values()
-                .stream()
-                .noneMatch(c -> c.getInstanceId() == id);
+    private int newInstanceID() {
+        while (gameObjectInstanceMap.containsKey(lowestFreeInstanceId)) lowestFreeInstanceId++;
+        return lowestFreeInstanceId++;
     }
 
     @Override
@@ -169,7 +169,6 @@ public class SimpleGameObjectsCRUD implements GameObjectsCRUDInterface {
 
     private void checkDuplicate(String className)
             throws DuplicateGameObjectClassException {
-        System.out.println(gameObjectClassMapByName.keySet());
         if (gameObjectClassMapByName.containsKey(className)) {
             throw new DuplicateGameObjectClassException();
         }
@@ -577,6 +576,7 @@ public class SimpleGameObjectsCRUD implements GameObjectsCRUDInterface {
     @Override
     public void deleteAllInstances() {
         gameObjectInstanceMapById.clear();
+        myIdManager.returnInstanceIdFunc().accept(1);
     }
 
     /**
@@ -684,12 +684,14 @@ public class SimpleGameObjectsCRUD implements GameObjectsCRUDInterface {
             throws InvalidIdException {
         gameObjectClassMapByName.remove(g.getClassName());
         gameObjectClassMapById.remove(g.getClassId());
+        myIdManager.returnClassIdFunc().accept(g.getClassId());
     }
 
     private void removeGameObjectInstanceFromMap(int instanceId)
             throws InvalidIdException {
         GameObjectInstance gameObjectInstance = gameObjectInstanceMapById.get(instanceId);
         gameObjectInstanceMapById.remove(instanceId);
+        myIdManager.returnInstanceIdFunc().accept(instanceId);
     }
 
 
@@ -0,0 +1,128 @@
+import authoring.AuthoringTools;
+import authoring.GameGenerator;
+import gameObjects.gameObject.GameObjectInstance;
+import grids.PointImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameGeneratorTest {
+    private static final int WIDTH = 12, HEIGHT = 8;
+    private static final int TILE_CLASSES = 3, ENTITY_CLASSES = 5, INSTANCES_PER_CLASS = 4, PLAYERS = 3;
+    private static final int GRAPHS = 2, DEPTH = 2, FAN_OUT = 3;
+
+    AuthoringTools tools;
+
+    private static GameGenerator generator(long seed) {
+        return new GameGenerator()
+                .grid(WIDTH, HEIGHT)
+                .tileClasses(TILE_CLASSES)
+                .entityClasses(ENTITY_CLASSES)
+                .instancesPerClass(INSTANCES_PER_CLASS)
+                .players(PLAYERS)
+                .phaseGraphs(GRAPHS)
+                .phaseDepth(DEPTH)
+                .fanOut(FAN_OUT)
+                .scriptComplexity(2)
+                .seed(seed);
+    }
+
+    @BeforeEach
+    public void generate() {
+        tools = generator(42).generate();
+    }
+
+    @Test
+    public void testTilesCoverTheGrid() {
+        var cells = new HashSet<PointImpl>();
+        for (var tile : tools.entityDB().getTileInstances()) {
+            var coord = tile.getCoord();
+            assertTrue(coord.getX() >= 0 && coord.getX() < WIDTH && coord.getY() >= 0 && coord.getY() < HEIGHT, coord.toString());
+            assertTrue(cells.add(new PointImpl(coord.getX(), coord.getY())), "two tiles at " + coord);
+            assertTrue(tile.getClassName().startsWith(GameGenerator.TILE_PREFIX));
+        }
+        assertEquals(WIDTH * HEIGHT, cells.size());
+    }
+
+    @Test
+    public void testEntitiesAndTheirOwners() {
+        var entities = new ArrayList<GameObjectInstance>();
+        for (var entity : tools.entityDB().getEntityInstances()) {
+            var coord = entity.getCoord();
+            assertTrue(coord.getX() >= 0 && coord.getX() < WIDTH && coord.getY() >= 0 && coord.getY() < HEIGHT, coord.toString());
+            entities.add(entity);
+        }
+        assertEquals(ENTITY_CLASSES * INSTANCES_PER_CLASS, entities.size());
+        for (int i = 0; i < ENTITY_CLASSES; i++) {
+            assertEquals(INSTANCES_PER_CLASS, tools.entityDB().getAllInstances(GameGenerator.ENTITY_PREFIX + i).size());
+        }
+
+        var owned = new ArrayList<Integer>();
+        var players = new ArrayList<String>();
+        for (var player : tools.entityDB().getPlayerClasses()) {
+            if (!player.getClassName().startsWith(GameGenerator.PLAYER_PREFIX)) continue; // the DB's default player
+            players.add(player.getClassName());
+            var ids = player.getAllGameObjectInstanceIDs();
+            assertTrue(Math.abs(ids.size() - entities.size() / PLAYERS) <= 1, player.getClassName() + " owns " + ids.size());
+            owned.addAll(ids);
+        }
+        players.sort(null);
+        assertEquals(List.of("P0", "P1", "P2"), players);
+        var entityIDs = new ArrayList<Integer>();
+        entities.forEach(entity -> entityIDs.add(entity.getInstanceId()));
+        owned.sort(null);
+        entityIDs.sort(null);
+        assertEquals(entityIDs, owned); // each entity has exactly one owner
+    }
+
+    @Test
+    public void testInstanceIDsAreUnique() {
+        var ids = new HashSet<Integer>();
+        for (var instance : tools.entityDB().getAllInstances()) {
+            assertTrue(ids.add(instance.getInstanceId()), "ID " + instance.getInstanceId() + " used twice");
+        }
+        assertEquals(WIDTH * HEIGHT + ENTITY_CLASSES * INSTANCES_PER_CLASS, ids.size());
+    }
+
+    @Test
+    public void testPhaseGraphs() {
+        var graphs = tools.phaseDB().phaseGraphs();
+        assertEquals(GRAPHS, graphs.size());
+        var nodes = 1 + FAN_OUT + FAN_OUT * FAN_OUT; // the source and DEPTH levels below it
+        for (int g = 0; g < GRAPHS; g++) {
+            var graph = graphs.get(g);
+            assertEquals(GameGenerator.GRAPH_PREFIX + g, graph.name());
+            assertEquals(nodes, graph.size());
+            assertEquals(nodes - 1, graph.values().stream().mapToInt(List::size).sum()); // a tree
+        }
+    }
+
+    @Test
+    public void testSameSeedSameGame() {
+        var engineXML = sortedLines(tools.toEngineXML());
+        assertArrayEquals(engineXML, sortedLines(generator(42).generate().toEngineXML()));
+        assertFalse(Arrays.equals(engineXML, sortedLines(generator(43).generate().toEngineXML())));
+    }
+
+    @Test
+    public void testAuthoringXMLRoundTrip() {
+        // phase graphs are hashed by identity, so only the order of their nodes may change
+        var reloaded = new AuthoringTools(tools.toAuthoringXML());
+        assertArrayEquals(sortedLines(tools.toEngineXML()), sortedLines(reloaded.toEngineXML()));
+    }
+
+    private static String[] sortedLines(String xml) {
+        var lines = xml.split("\n");
+        Arrays.sort(lines);
+        return lines;
+    }
+}
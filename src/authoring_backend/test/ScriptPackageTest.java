@@ -0,0 +1,93 @@
+import authoring.AuthoringTools;
+import authoring.GameGenerator;
+import authoring.Serializers;
+import conversion.engine.ScriptCompiler;
+import groovy.lang.Script;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScriptPackageTest {
+    AuthoringTools tools;
+    Map<String, byte[]> entries;
+
+    @BeforeEach
+    public void exportPackage() throws IOException {
+        tools = new GameGenerator().grid(6, 4).entityClasses(3).instancesPerClass(2).players(2)
+                .phaseGraphs(2).phaseDepth(2).fanOut(2).scriptComplexity(2).seed(7).generate();
+        var out = new ByteArrayOutputStream();
+        tools.toEnginePackage(out);
+        entries = new HashMap<>();
+        try (var zip = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+    }
+
+    /**
+     * Every script the engine XML holds, collected the way the exporter sees them
+     */
+    private Set<String> scripts() {
+        var sources = new LinkedHashSet<String>();
+        var compiler = new ScriptCompiler() {
+            @Override
+            public String register(String source) {
+                if (source != null) sources.add(source);
+                return source;
+            }
+        };
+        Serializers.forEngine(compiler).toXML(tools);
+        return sources;
+    }
+
+    @Test
+    public void testPackageHoldsTheEngineXML() {
+        var xml = new String(entries.get(ScriptCompiler.GAME_ENTRY), StandardCharsets.UTF_8);
+        assertEquals(tools.toEngineXML(), xml);
+        assertTrue(entries.containsKey(ScriptCompiler.SOURCE_MAP_ENTRY));
+    }
+
+    @Test
+    public void testEveryScriptLoadsAsItsPrecompiledClass() throws ClassNotFoundException {
+        var loader = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> findClass(String name) throws ClassNotFoundException {
+                var bytes = entries.get(ScriptCompiler.CLASS_DIRECTORY + name + ".class");
+                if (bytes == null) throw new ClassNotFoundException(name);
+                return defineClass(name, bytes, 0, bytes.length);
+            }
+        };
+        var scripts = scripts();
+        assertFalse(scripts.isEmpty());
+        for (var source : scripts) {
+            var name = ScriptCompiler.classNameFor(source);
+            assertTrue(name.matches("GameScript_[0-9a-f]{32}"), name);
+            assertNotNull(entries.get(ScriptCompiler.CLASS_DIRECTORY + name + ".class"), "no class for " + source);
+            var loaded = Class.forName(name, false, loader);
+            assertSame(loader, loaded.getClassLoader()); // defined from the package, not compiled again
+            assertTrue(Script.class.isAssignableFrom(loaded));
+        }
+    }
+
+    @Test
+    public void testClassNamesDependOnTheSourceOnly() {
+        assertEquals(ScriptCompiler.classNameFor("$this.props.hp > 0"), ScriptCompiler.classNameFor("$this.props.hp > 0"));
+        assertFalse(ScriptCompiler.classNameFor("$this.props.hp > 0").equals(ScriptCompiler.classNameFor("$this.props.hp > 1")));
+    }
+}
@@ -0,0 +1,104 @@
+import authoring.AuthoringTools;
+import conversion.engine.ScriptSourceMap;
+import groovy.api.Ports;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SourceMapTest {
+    private static final String MOVE = "GameMethods.moveEntity(entity, $clicked)...@300,500";
+
+    String[] lines;
+    ScriptSourceMap sourceMap;
+
+    @BeforeEach
+    public void buildGraph() throws Throwable {
+        var authTools = new AuthoringTools(5, 5);
+        var factory = authTools.factory();
+        var graph = factory.createEmptyGraph();
+
+        var check = factory.ifBlock(100, 100);
+        var predicate = factory.refBlock(150, 50, "$clicked").get();
+        var select = factory.assignBlock(200, 200);
+        var selected = factory.refBlock(250, 250, "selected").get();
+        var otherwise = factory.elseBlock(100, 300);
+        var loop = factory.forEachBlock(200, 400, "entity");
+        var entities = factory.rawBlock(250, 350, "GameMethods.getCurrentPlayer().getMyEntities()");
+        var move = factory.rawBlock(300, 500, "GameMethods.moveEntity(entity, $clicked)\nGameMethods.toNextPlayer()");
+        var next = factory.rawBlock(100, 600, "GameMethods.$goto('A')");
+        for (var block : List.of(check, predicate, select, selected, otherwise, loop, entities, move, next)) {
+            graph.addNode(block);
+        }
+
+        graph.addEdge(factory.createEdge(graph.source(), Ports.FLOW_OUT, check));
+        graph.addEdge(factory.createEdge(check, Ports.IF_PREDICATE, predicate));
+        graph.addEdge(factory.createEdge(check, Ports.IF_BODY, select));
+        graph.addEdge(factory.createEdge(select, Ports.ASSIGN_LHS, selected));
+        graph.addEdge(factory.createEdge(select, Ports.ASSIGN_RHS, predicate));
+        graph.addEdge(factory.createEdge(check, Ports.FLOW_OUT, otherwise));
+        graph.addEdge(factory.createEdge(otherwise, Ports.IF_BODY, loop));
+        graph.addEdge(factory.createEdge(loop, Ports.FOREACH_LIST, entities));
+        graph.addEdge(factory.createEdge(loop, Ports.FOREACH_BODY, move));
+        graph.addEdge(factory.createEdge(otherwise, Ports.FLOW_OUT, next));
+
+        lines = graph.transformToGroovy().get().split("\n", -1);
+        sourceMap = ScriptSourceMap.of(graph);
+    }
+
+    /**
+     * The frames of the first line of the script that starts with the given code
+     */
+    private List<String> framesOf(String code) {
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].strip().startsWith(code)) return sourceMap.frames(i + 1);
+        }
+        throw new AssertionError("no line starts with " + code);
+    }
+
+    @Test
+    public void testEveryLineIsAttributed() {
+        assertEquals(lines.length, sourceMap.lines());
+        for (int line = 1; line <= lines.length; line++) assertFalse(sourceMap.frames(line).isEmpty(), "line " + line);
+    }
+
+    @Test
+    public void testLinesMapToTheBlocksAroundThem() {
+        assertEquals(List.of("If@100,100"), framesOf("if($clicked)"));
+        assertEquals(List.of("If@100,100", "=@200,200"), framesOf("selected = $clicked"));
+        assertEquals(List.of("Else@100,300"), framesOf("else"));
+        assertEquals(List.of("Else@100,300", "each: entity@200,400"), framesOf("(GameMethods.getCurrentPlayer()"));
+        assertEquals(List.of("GameMethods.$goto('A')@100,600"), framesOf("GameMethods.$goto"));
+    }
+
+    @Test
+    public void testEveryLineOfARawBlockMapsToIt() {
+        assertEquals(List.of("Else@100,300", "each: entity@200,400", MOVE), framesOf("GameMethods.moveEntity"));
+        assertEquals(List.of("Else@100,300", "each: entity@200,400", MOVE), framesOf("GameMethods.toNextPlayer"));
+        assertEquals(List.of("Else@100,300", "each: entity@200,400"), framesOf("})"));
+    }
+
+    @Test
+    public void testLinesOutsideTheScript() {
+        assertTrue(sourceMap.frames(0).isEmpty());
+        assertTrue(sourceMap.frames(lines.length + 1).isEmpty());
+    }
+
+    @Test
+    public void testWrittenMapReadsBackTheSame() throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        sourceMap.write(new DataOutputStream(bytes));
+        var read = ScriptSourceMap.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(sourceMap.lines(), read.lines());
+        for (int line = 1; line <= lines.length; line++) assertEquals(sourceMap.frames(line), read.frames(line));
+    }
+}
@@ -0,0 +1,63 @@
+package benchmark;
+
+import authoring.AuthoringTools;
+import gameObjects.crud.GameObjectsCRUDInterface;
+import gameObjects.tile.TileClass;
+import grids.PointImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exporting a project for the engine and saving it for the editor, and issuing the ID of a new instance
+ * in a project that already holds size x size tiles (the instance is deleted again afterwards)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthoringBenchmark {
+    @Param({"8", "32", "128"})
+    public int size;
+
+    private AuthoringTools myTools;
+    private GameObjectsCRUDInterface myDB;
+    private TileClass myTileClass;
+
+    @Setup
+    public void createProject() throws Throwable {
+        myTools = BenchmarkGames.create(size);
+        myDB = myTools.entityDB();
+        myTileClass = myDB.getTileClass(BenchmarkGames.TILE_CLASS);
+    }
+
+    @Benchmark
+    public String toEngineXML() {
+        return myTools.toEngineXML();
+    }
+
+    @Benchmark
+    public String toAuthoringXML() {
+        return myTools.toAuthoringXML();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int issueInstanceID() throws Throwable {
+        var id = myTileClass.createInstance(new PointImpl(0, 0)).getInstanceId();
+        myDB.deleteGameObjectInstance(id);
+        return id;
+    }
+}
@@ -0,0 +1,89 @@
+package benchmark;
+
+import authoring.AuthoringTools;
+import gameObjects.player.PlayerClass;
+import gameplay.GameSession;
+import gameplay.HeadlessView;
+import gameplay.Initializer;
+import grids.PointImpl;
+import groovy.api.BlockGraph;
+import groovy.api.Ports;
+import phase.api.GameEvent;
+
+/**
+ * Synthetic games for the benchmarks, built through AuthoringTools the way a designer would build them:
+ * a size x size board of tiles with every fourth tile taken by a piece of one of two players, a phase that
+ * selects one of your pieces and passes the turn, and a four-in-a-row win condition.
+ */
+public class BenchmarkGames {
+    public static final String TILE_CLASS = "square";
+    public static final String ENTITY_CLASS = "piece";
+    public static final String[] PLAYERS = {"A", "B"};
+    public static final String SELECT_GUARD =
+            "GameMethods.$return(GameMethods.isEntity($clicked) && GameMethods.getCurrentPlayer().isMyEntity($clicked))";
+    public static final String SELECT_EXECUTION = "selected = $clicked\nGameMethods.toNextPlayer()\nGameMethods.$goto('A')";
+    public static final String WIN_CONDITION = "if (GameMethods.check4('piece')) { GameMethods.endGame('four in a row') }";
+
+    private BenchmarkGames() {
+    }
+
+    public static AuthoringTools create(int size) throws Throwable {
+        var tools = new AuthoringTools(size, size);
+        var db = tools.entityDB();
+        var factory = tools.factory();
+        db.setBGMpath("");
+
+        var tiles = db.createTileClass(TILE_CLASS);
+        tiles.getImagePathList().add("square.png");
+        tiles.setImageSelector(factory.createDefaultImageSelector());
+        var pieces = db.createEntityClass(ENTITY_CLASS);
+        pieces.addImagePath("piece.png");
+        pieces.getPropertiesMap().put("hp", "5");
+        pieces.setImageSelector(factory.createDefaultImageSelector());
+        for (var entityClass : db.getEntityClasses()) {
+            if (entityClass.getImageSelector() == null) entityClass.setImageSelector(factory.createDefaultImageSelector());
+        }
+        for (var tileClass : db.getTileClasses()) {
+            if (tileClass.getImageSelector() == null) tileClass.setImageSelector(factory.createDefaultImageSelector());
+        }
+
+        var players = new PlayerClass[PLAYERS.length];
+        for (int i = 0; i < PLAYERS.length; i++) players[i] = db.createPlayerClass(PLAYERS[i]);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                tiles.createInstance(new PointImpl(x, y));
+                if ((x + y) % 4 == 0) players[(x / 2 + y) % PLAYERS.length].addGameObjectInstances(pieces.createInstance(new PointImpl(x, y)));
+            }
+        }
+
+        var phaseDB = tools.phaseDB();
+        var graph = phaseDB.createPhaseGraph("A").get();
+        var selected = phaseDB.createPhase(0, 0, "selected").get();
+        graph.addNode(selected);
+        var select = phaseDB.createTransition(graph.source(), GameEvent.mouseClick(), selected);
+        graph.addEdge(select);
+        setScript(tools, select.guard(), SELECT_GUARD);
+        setScript(tools, selected.exec(), SELECT_EXECUTION);
+        setScript(tools, phaseDB.winCondition(), WIN_CONDITION);
+        return tools;
+    }
+
+    /**
+     * Starts a headless, untraced session of an engine XML, bound to the calling thread
+     */
+    public static GameSession start(String engineXML) {
+        var initializer = new Initializer(new HeadlessView());
+        initializer.setTracing(false);
+        initializer.loadXML(engineXML);
+        initializer.initGameData();
+        return initializer.getSession();
+    }
+
+    private static void setScript(AuthoringTools tools, BlockGraph graph, String code) throws Throwable {
+        var factory = tools.factory();
+        graph.findTarget(graph.source(), Ports.FLOW_OUT).forEach(graph::removeNode); // the block the graph came with
+        var block = factory.rawBlock(0, 0, code);
+        graph.addNode(block);
+        graph.addEdge(factory.createEdge(graph.source(), Ports.FLOW_OUT, block));
+    }
+}
@@ -0,0 +1,30 @@
+package benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar; takes the usual JMH command line, e.g. "Spatial -p size=8,16".
+ * XStream reflects into JDK classes, so the forked JVMs get the packages it needs opened.
+ */
+public class Benchmarks {
+    private static final String[] OPENED_PACKAGES = {
+            "java.base/java.lang", "java.base/java.util", "java.base/java.lang.reflect", "java.base/java.text",
+            "java.base/java.io", "java.base/java.util.concurrent", "java.base/java.nio", "java.desktop/java.awt.font"
+    };
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        var jvmArgs = new String[OPENED_PACKAGES.length * 2];
+        for (int i = 0; i < OPENED_PACKAGES.length; i++) {
+            jvmArgs[2 * i] = "--add-opens";
+            jvmArgs[2 * i + 1] = OPENED_PACKAGES[i] + "=ALL-UNNAMED";
+        }
+        var options = new OptionsBuilder().parent(new CommandLineOptions(args))
+                .jvmArgsAppend(jvmArgs) // every call replaces the arguments of the one before
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,101 @@
+package benchmark;
+
+import conversion.engine.BinaryGamePackage;
+import gameplay.BinaryGameParser;
+import gameplay.GameParser;
+import gameplay.StreamingXMLParser;
+import gameplay.XMLParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a game with each of the engine's parsers, and starting a headless session of it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameLoadingBenchmark {
+    @Param({"8", "32", "128"})
+    public int size;
+
+    private String myXML;
+    private File myXMLFile, myPackageFile;
+
+    @Setup
+    public void createGame() throws Throwable {
+        myXML = BenchmarkGames.create(size).toEngineXML();
+        myXMLFile = File.createTempFile("benchmark", ".xml");
+        Files.writeString(myXMLFile.toPath(), myXML);
+        myPackageFile = File.createTempFile("benchmark", BinaryGamePackage.EXTENSION);
+        try (var out = new FileOutputStream(myPackageFile)) {
+            BinaryGamePackage.write(myXML, Map.of(), out);
+        }
+    }
+
+    @TearDown
+    public void deleteFiles() throws IOException {
+        Files.deleteIfExists(myXMLFile.toPath());
+        Files.deleteIfExists(myPackageFile.toPath());
+    }
+
+    @Benchmark
+    public void xmlParser(Blackhole blackhole) {
+        var parser = new XMLParser();
+        parser.loadXML(myXML);
+        readAll(parser, blackhole);
+    }
+
+    @Benchmark
+    public void streamingParser(Blackhole blackhole) {
+        var parser = new StreamingXMLParser();
+        parser.loadFile(myXMLFile);
+        readAll(parser, blackhole);
+    }
+
+    @Benchmark
+    public void binaryPackage(Blackhole blackhole) {
+        var parser = new BinaryGameParser();
+        parser.loadFile(myPackageFile);
+        readAll(parser, blackhole);
+    }
+
+    @Benchmark
+    public Object headlessStart() {
+        var session = BenchmarkGames.start(myXML);
+        session.unbind();
+        return session;
+    }
+
+    private static void readAll(GameParser parser, Blackhole blackhole) {
+        blackhole.consume(parser.getDimension());
+        blackhole.consume(parser.getPlayers());
+        blackhole.consume(parser.getEntities());
+        blackhole.consume(parser.getEntityPrototypes());
+        blackhole.consume(parser.getTiles());
+        blackhole.consume(parser.getPhases());
+        blackhole.consume(parser.getNodes());
+        blackhole.consume(parser.getEdges());
+        blackhole.consume(parser.getTurn());
+    }
+}
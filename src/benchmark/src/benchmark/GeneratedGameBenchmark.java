@@ -0,0 +1,78 @@
+package benchmark;
+
+import authoring.GameGenerator;
+import gameplay.HeadlessView;
+import gameplay.Initializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Projects from GameGenerator at load-test scale: building one in the authoring backend, and starting a headless
+ * session of its binary package. A width of 1000 (a million tiles) needs a few GB of heap, e.g. -jvmArgsAppend -Xmx4g.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GeneratedGameBenchmark {
+    @Param({"100", "316"})
+    public int width;
+
+    @Param({"10", "1000"})
+    public int entityClasses;
+
+    private File myPackageFile;
+
+    private GameGenerator generator() {
+        return new GameGenerator().grid(width, width).tileClasses(8).entityClasses(entityClasses).instancesPerClass(10)
+                .players(4).phaseGraphs(4).phaseDepth(3).fanOut(4).scriptComplexity(4).seed(width);
+    }
+
+    @Setup
+    public void writePackage() throws IOException {
+        myPackageFile = File.createTempFile("generated", ".vgp");
+        try (var out = new BufferedOutputStream(new FileOutputStream(myPackageFile))) {
+            generator().generate().toEngineBinaryPackage(out);
+        }
+    }
+
+    @TearDown
+    public void deletePackage() throws IOException {
+        Files.deleteIfExists(myPackageFile.toPath());
+    }
+
+    @Benchmark
+    public Object generate() {
+        return generator().generate();
+    }
+
+    @Benchmark
+    public Object headlessStart() {
+        var initializer = new Initializer(new HeadlessView());
+        initializer.setTracing(false);
+        initializer.loadBinaryPackage(myPackageFile);
+        initializer.initGameData();
+        var session = initializer.getSession();
+        session.unbind();
+        return session;
+    }
+}
@@ -0,0 +1,49 @@
+package benchmark;
+
+import gameplay.EntityPrototype;
+import gameplay.GameSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building an entity from its prototype, which is what GameMethods.createEntity does before registering it
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrototypeBenchmark {
+    private GameSession mySession;
+    private EntityPrototype myPrototype;
+    private int myNextID;
+
+    @Setup
+    public void startGame() throws Throwable {
+        mySession = BenchmarkGames.start(BenchmarkGames.create(8).toEngineXML());
+        myPrototype = mySession.getEntityPrototypes().get(BenchmarkGames.ENTITY_CLASS);
+    }
+
+    @TearDown
+    public void stopGame() {
+        mySession.unbind();
+    }
+
+    @Benchmark
+    public Object build() {
+        var id = myNextID++;
+        return myPrototype.build(id, id & 7, (id >> 3) & 7);
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import gameplay.Entity;
+import gameplay.GameData;
+import gameplay.GameSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running the game's Groovy scripts through the session's script cache, as edges and nodes do.
+ * The node script passes the turn and goes back to the start of the phase, so it can run over and over.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScriptBenchmark {
+    @Param({"8", "32", "128"})
+    public int size;
+
+    private GameSession mySession;
+    private Entity[] myEntities;
+    private int myNext;
+
+    @Setup
+    public void startGame() throws Throwable {
+        mySession = BenchmarkGames.start(BenchmarkGames.create(size).toEngineXML());
+        myEntities = mySession.getEntities().values().toArray(new Entity[0]);
+    }
+
+    @TearDown
+    public void stopGame() {
+        mySession.unbind();
+    }
+
+    private void click() {
+        GameData.shell().setVariable("$clicked", myEntities[myNext++ % myEntities.length]);
+    }
+
+    @Benchmark
+    public Object guard() {
+        click();
+        GameData.evaluate(BenchmarkGames.SELECT_GUARD);
+        return GameData.shell().getVariable("$return");
+    }
+
+    @Benchmark
+    public Object node() {
+        click();
+        return GameData.evaluate(BenchmarkGames.SELECT_EXECUTION);
+    }
+
+    @Benchmark
+    public Object winCondition() {
+        return GameData.evaluate(BenchmarkGames.WIN_CONDITION);
+    }
+}
@@ -0,0 +1,80 @@
+package benchmark;
+
+import gameplay.GameMethods;
+import gameplay.GameSession;
+import gameplay.Tile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The board queries scripts make on every click. The session is bound to the benchmark thread,
+ * which is why the state is per thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialQueryBenchmark {
+    private static final int POSITIONS = 1024;
+
+    @Param({"8", "32", "128"})
+    public int size;
+
+    private GameSession mySession;
+    private Tile[] myTiles;
+    private double[] myX, myY;
+    private int myNext;
+
+    @Setup
+    public void startGame() throws Throwable {
+        mySession = BenchmarkGames.start(BenchmarkGames.create(size).toEngineXML());
+        var tiles = new ArrayList<Tile>();
+        mySession.getTileGrid().forEach(tiles::add);
+        var random = new Random(size);
+        myTiles = new Tile[POSITIONS];
+        myX = new double[POSITIONS];
+        myY = new double[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            myTiles[i] = tiles.get(random.nextInt(tiles.size()));
+            myX[i] = random.nextInt(size);
+            myY[i] = random.nextInt(size);
+        }
+    }
+
+    @TearDown
+    public void stopGame() {
+        mySession.unbind();
+    }
+
+    @Benchmark
+    public Object getTileAt() {
+        var i = myNext++ & (POSITIONS - 1);
+        return GameMethods.getTileAt(myX[i], myY[i]);
+    }
+
+    @Benchmark
+    public Object getEntityOver() {
+        return GameMethods.getEntityOver(myTiles[myNext++ & (POSITIONS - 1)]);
+    }
+
+    @Benchmark
+    public boolean check4() {
+        return GameMethods.check4(BenchmarkGames.ENTITY_CLASS);
+    }
+}
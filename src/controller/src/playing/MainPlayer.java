@@ -1,8 +1,11 @@
 package playing;
 
 import authoringInterface.View;
-import gameplay.GameData;
+import exceptions.ErrorMessage;
+import exceptions.ExtendedException;
+import gameplay.GameSnapshot;
 import gameplay.Initializer;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
@@ -12,11 +15,13 @@ import javafx.stage.Stage;
 import social.User;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileWriter;
+import java.io.UncheckedIOException;
 import java.util.Optional;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletionException;
 
 public class MainPlayer {
+    private static final int SAVE_BUTTON_HEIGHT = 50;
 
     private Initializer myInitializer;
     private Stage myStage;
@@ -24,6 +29,8 @@ public class MainPlayer {
     private File myFile;
     private String myReferencePath;
     private String myName;
+    private GameSnapshot mySavedGame;
+    private ResourceBundle myErrors = ResourceBundle.getBundle("Errors");
 
     public MainPlayer(User user, String referencePath, String gameName) {
         myName = gameName;
@@ -38,20 +45,17 @@ public class MainPlayer {
         alert.getButtonTypes().setAll(loadButton, newGameButton, cancelButton);
         Optional<ButtonType> result = alert.showAndWait();
         if (result.get() == loadButton) {
+            myFile = getNewGameFile();
             if (myUser != null) {
-                String xmlString = myUser.getGameState(myReferencePath);
-                if (xmlString.equals("")) {
-                    myFile = getNewGameFile();
-                } else {
+                String savedState = myUser.getGameState(myReferencePath);
+                if (!savedState.equals("")) {
                     try {
-                        myFile = new File(getClass().getClassLoader().getResource("GameProgress.xml").getFile());
-                        FileWriter fileWriter = new FileWriter(myFile);
-                        fileWriter.write(xmlString);
-                        fileWriter.close();
-                    } catch (Exception e) { }
+                        mySavedGame = GameSnapshot.fromBase64(savedState);
+                    } catch (IllegalArgumentException | UncheckedIOException e) { // e.g. progress saved in the old XML format
+                        e.printStackTrace();
+                        showUnreadableSave();
+                    }
                 }
-            } else { // myUser is null
-                myFile = getNewGameFile();
             }
         } else if (result.get() == newGameButton) {
             myFile = getNewGameFile();
@@ -76,22 +80,69 @@ public class MainPlayer {
         if (myUser != null) myUser.tweet(String.format("Currently playing %s!", myName));
         System.out.println("myFile is " + myFile);
         myInitializer = new Initializer(myFile);
+        if (mySavedGame != null) {
+            myInitializer.loadGame(mySavedGame).whenComplete((loaded, e) -> {
+                if (e != null) Platform.runLater(() -> loadFailed(e));
+            });
+        }
         myStage = new Stage();
         myInitializer.setScreenSize(700, 500);
-        Scene newScene = new Scene(myInitializer.getRoot(), View.GAME_WIDTH, View.GAME_HEIGHT);
-        /*Button saveButton = new Button("Save state");
-        saveButton.setLayoutY(View.GAME_HEIGHT);
-        saveButton.setMinHeight(50);
-        saveButton.setMinWidth(View.GAME_WIDTH);
-        saveButton.setOnMouseClicked(e -> {
-            try {
-                // TODO: saveGameData Needs to be fixed
-                myUser.saveGameState(myReferencePath, GameData.saveGameData());
-            } catch (Exception ex) {
-            }
-        });
-        myInitializer.getRoot().getChildren().add(saveButton);*/
+        Scene newScene;
+        if (myUser != null) {
+            Button saveButton = new Button("Save state");
+            saveButton.setLayoutY(View.GAME_HEIGHT);
+            saveButton.setMinHeight(SAVE_BUTTON_HEIGHT);
+            saveButton.setMinWidth(View.GAME_WIDTH);
+            saveButton.setOnMouseClicked(e -> saveGame());
+            myInitializer.getRoot().getChildren().add(saveButton);
+            newScene = new Scene(myInitializer.getRoot(), View.GAME_WIDTH, View.GAME_HEIGHT + SAVE_BUTTON_HEIGHT);
+        } else {
+            newScene = new Scene(myInitializer.getRoot(), View.GAME_WIDTH, View.GAME_HEIGHT);
+        }
+        if (myInitializer.getStartupProfile().isEnabled()) newScene.addPostLayoutPulseListener(myInitializer::firstFrameShown);
         myStage.setScene(newScene);
+        myStage.setOnCloseRequest(e -> myInitializer.close());
         myStage.show();
     }
+
+    /**
+     * Keeps the previous save if the game holds something a snapshot can't store, and says so;
+     * the snapshot is taken and encoded on the game's logic thread, the result handled back on the FX thread
+     */
+    private void saveGame() {
+        myInitializer.saveGame().thenApply(GameSnapshot::toBase64).whenComplete((saved, e) -> Platform.runLater(() -> {
+            if (e == null) {
+                myUser.saveGameState(myReferencePath, saved);
+                return;
+            }
+            var cause = unwrap(e);
+            if (!(cause instanceof IllegalArgumentException)) throw new CompletionException(cause);
+            cause.printStackTrace();
+            new ErrorMessage(new ExtendedException(myErrors.getString("SaveError"), cause.getMessage()));
+        }));
+    }
+
+    /**
+     * What actually went wrong on the game's logic thread
+     */
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    /**
+     * A save from another version of the game can't be restored; anything else is rethrown on the FX thread
+     */
+    private void loadFailed(Throwable e) {
+        var cause = unwrap(e);
+        if (!(cause instanceof IllegalArgumentException || cause instanceof UncheckedIOException)) {
+            throw new CompletionException(cause);
+        }
+        cause.printStackTrace();
+        showUnreadableSave();
+    }
+
+    private void showUnreadableSave() {
+        new ErrorMessage(new ExtendedException(myErrors.getString("UnreadableSave"), myErrors.getString(
+                "UnreadableSaveWarning")));
+    }
 }
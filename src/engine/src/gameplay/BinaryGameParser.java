@@ -0,0 +1,303 @@
+package gameplay;
+
+import conversion.engine.BinaryGamePackage;
+import conversion.engine.BinaryGamePackage.Section;
+import conversion.engine.ValueCodec;
+import grids.Point;
+import grids.PointImpl;
+import javafx.scene.input.KeyCode;
+import phase.api.GameEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static conversion.engine.BinaryGamePackage.*;
+
+/**
+ * Reads a game exported with AuthoringTools.toEngineBinaryPackage, memory-mapping the file instead of reading it.
+ * <p>
+ * Nothing is decoded up front: each getter decodes its own records on first use, and strings and string lists
+ * are decoded once and shared by every object (and session) that uses them.
+ */
+public class BinaryGameParser implements GameParser {
+    private ByteBuffer myBuffer;
+    private int[] mySections;
+    private String[] myStrings;
+    private List<List<String>> myLists; // null for lists not decoded yet
+    private ValueCodec myCodec;
+    private ScriptPackage myScripts;
+
+    private Map<String, Player> myPlayers;
+    private Map<Integer, Entity> myEntities;
+    private Map<String, EntityPrototype> myEntityPrototypes;
+    private Map<Integer, Tile> myTiles;
+    private Map<String, Phase> myPhases;
+    private Map<String, Node> myNodes;
+    private Set<Edge> myEdges;
+    private Turn myTurn;
+
+    public static boolean isPackage(File file) {
+        return file.getName().endsWith(BinaryGamePackage.EXTENSION);
+    }
+
+    @Override
+    public void loadFile(File file) {
+        try (var channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            myBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()); // stays valid after closing
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (myBuffer.getInt(0) != MAGIC) throw new IllegalArgumentException(file.getName() + " is not a binary game package");
+        if (myBuffer.getInt(4) != VERSION) throw new IllegalArgumentException("Unsupported package version " + myBuffer.getInt(4));
+        mySections = new int[Section.values().length];
+        for (int i = 0; i < mySections.length; i++) mySections[i] = myBuffer.getInt((6 + i) * Integer.BYTES);
+        myStrings = new String[count(Section.STRINGS)];
+        myLists = new ArrayList<>(Collections.nCopies(count(Section.LISTS), null));
+        myCodec = new ValueCodec();
+        myScripts = null;
+        reload();
+    }
+
+    /**
+     * Forgets the objects handed out; they're decoded again from the mapped file on demand
+     */
+    @Override
+    public void reload() {
+        myPlayers = null;
+        myEntities = null;
+        myEntityPrototypes = null;
+        myTiles = null;
+        myPhases = null;
+        myNodes = null;
+        myEdges = null;
+        myTurn = null;
+    }
+
+    /**
+     * The scripts the package was exported with, defined straight from the mapped file
+     */
+    public ScriptPackage scripts() {
+        if (myScripts == null) {
+            var classes = new HashMap<String, ByteBuffer>();
+            var start = section(Section.CLASSES) + Integer.BYTES;
+            var count = count(Section.CLASSES);
+            var data = start + count * CLASS_INTS * Integer.BYTES;
+            for (int i = 0; i < count; i++) {
+                var record = start + i * CLASS_INTS * Integer.BYTES;
+                var offset = data + myBuffer.getInt(record + 4);
+                classes.put(string(myBuffer.getInt(record)), myBuffer.slice(offset, myBuffer.getInt(record + 8)));
+            }
+            myScripts = new ScriptPackage(classes);
+        }
+        return myScripts;
+    }
+
+    @Override
+    public Point getDimension() {
+        return new PointImpl(myBuffer.getInt(8), myBuffer.getInt(12));
+    }
+
+    @Override
+    public String getBGMpath() {
+        return string(myBuffer.getInt(16));
+    }
+
+    @Override
+    public String getWinCondition() {
+        return string(myBuffer.getInt(20));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Player> getPlayers() {
+        if (myPlayers == null) {
+            myPlayers = new HashMap<>();
+            forEachRecord(Section.PLAYERS, PLAYER_INTS, record -> {
+                var stats = new HashMap<String, Double>();
+                props(record[1], record[2]).forEach((key, value) -> stats.put(key, ((Number) value).doubleValue()));
+                var ids = new HashSet<Integer>();
+                if (record[3] >= 0) ids.addAll((Collection<Integer>) value(record[3], record[4]));
+                myPlayers.put(string(record[0]), new Player(string(record[0]), stats, ids));
+            });
+        }
+        return myPlayers;
+    }
+
+    @Override
+    public Map<Integer, Entity> getEntities() {
+        if (myEntities == null) {
+            myEntities = new HashMap<>();
+            forEachRecord(Section.ENTITIES, OBJECT_INTS, r -> myEntities.put(r[0], new Entity(
+                    r[0], string(r[1]), string(r[2]), r[3], r[4], r[5], r[6], list(r[7]), string(r[8]), props(r[9], r[10]))));
+        }
+        return myEntities;
+    }
+
+    @Override
+    public Map<String, EntityPrototype> getEntityPrototypes() {
+        if (myEntityPrototypes == null) {
+            myEntityPrototypes = new HashMap<>();
+            forEachRecord(Section.PROTOTYPES, PROTOTYPE_INTS, r -> myEntityPrototypes.put(string(r[0]), new EntityPrototype(
+                    string(r[0]), r[1], r[2], list(r[3]), string(r[4]), props(r[5], r[6]))));
+        }
+        return myEntityPrototypes;
+    }
+
+    @Override
+    public Map<Integer, Tile> getTiles() {
+        if (myTiles == null) {
+            myTiles = new HashMap<>(count(Section.TILES) * 4 / 3 + 1);
+            forEachRecord(Section.TILES, OBJECT_INTS, r -> myTiles.put(r[0], new Tile(
+                    r[0], string(r[1]), string(r[2]), r[3], r[4], r[5], r[6], list(r[7]), string(r[8]), props(r[9], r[10]))));
+        }
+        return myTiles;
+    }
+
+    @Override
+    public Map<String, Node> getNodes() {
+        if (myNodes == null) readGraph();
+        return myNodes;
+    }
+
+    @Override
+    public Set<Edge> getEdges() {
+        if (myEdges == null) readGraph();
+        return myEdges;
+    }
+
+    @Override
+    public Map<String, Phase> getPhases() {
+        if (myPhases == null) readGraph();
+        return myPhases;
+    }
+
+    @Override
+    public Turn getTurn() {
+        if (myTurn == null) readGraph();
+        return myTurn;
+    }
+
+    /**
+     * Nodes, edges, phases and the turn are few and live in one section, so they're read together
+     */
+    private void readGraph() {
+        myNodes = new HashMap<>();
+        myEdges = new HashSet<>();
+        myPhases = new HashMap<>();
+        var position = section(Section.GRAPH);
+        var count = myBuffer.getInt(position);
+        position += Integer.BYTES;
+        for (int i = 0; i < count; i++, position += NODE_INTS * Integer.BYTES) {
+            var r = ints(position, NODE_INTS);
+            myNodes.put(string(r[1]), new Node(string(r[0]), string(r[1]), string(r[2])));
+        }
+        count = myBuffer.getInt(position);
+        position += Integer.BYTES;
+        for (int i = 0; i < count; i++, position += EDGE_INTS * Integer.BYTES) {
+            var r = ints(position, EDGE_INTS);
+            myEdges.add(new Edge(string(r[0]), string(r[1]), string(r[2]), trigger(r[3], string(r[4])), string(r[5])));
+        }
+        count = myBuffer.getInt(position);
+        position += Integer.BYTES;
+        for (int i = 0; i < count; i++, position += PHASE_INTS * Integer.BYTES) {
+            var r = ints(position, PHASE_INTS);
+            var phase = new Phase(string(r[0]), new HashSet<>(list(r[2])));
+            phase.restore(string(r[1]));
+            myPhases.put(phase.getName(), phase);
+        }
+        var r = ints(position, 3);
+        myTurn = new Turn(string(r[0]), r[1] < 0 ? new ArrayList<>() : new ArrayList<>(list(r[1])), r[2]);
+    }
+
+    private static GameEvent trigger(int type, String code) {
+        if (type == KEY_PRESS) return GameEvent.keyPress(KeyCode.valueOf(code));
+        if (type == MOUSE_DRAG) return GameEvent.mouseDrag();
+        return GameEvent.mouseClick();
+    }
+
+    private interface RecordReader {
+        void read(int[] record);
+    }
+
+    private void forEachRecord(Section section, int ints, RecordReader reader) {
+        var start = section(section) + Integer.BYTES;
+        var count = count(section);
+        var record = new int[ints];
+        for (int i = 0; i < count; i++) {
+            var position = start + i * ints * Integer.BYTES;
+            for (int j = 0; j < ints; j++) record[j] = myBuffer.getInt(position + j * Integer.BYTES);
+            reader.read(record);
+        }
+    }
+
+    private int[] ints(int position, int count) {
+        var ints = new int[count];
+        for (int i = 0; i < count; i++) ints[i] = myBuffer.getInt(position + i * Integer.BYTES);
+        return ints;
+    }
+
+    private int section(Section section) {
+        return mySections[section.ordinal()];
+    }
+
+    private int count(Section section) {
+        return myBuffer.getInt(section(section));
+    }
+
+    private String string(int index) {
+        if (index < 0) return null;
+        if (myStrings[index] == null) {
+            var table = section(Section.STRINGS);
+            var position = table + myBuffer.getInt(table + (1 + index) * Integer.BYTES);
+            var bytes = new byte[myBuffer.getInt(position)];
+            myBuffer.get(position + Integer.BYTES, bytes);
+            myStrings[index] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return myStrings[index];
+    }
+
+    private List<String> list(int index) {
+        if (myLists.get(index) == null) {
+            var table = section(Section.LISTS);
+            var position = table + myBuffer.getInt(table + (1 + index) * Integer.BYTES);
+            var size = myBuffer.getInt(position);
+            var strings = new ArrayList<String>(size);
+            for (int i = 0; i < size; i++) strings.add(string(myBuffer.getInt(position + (1 + i) * Integer.BYTES)));
+            myLists.set(index, Collections.unmodifiableList(strings));
+        }
+        return myLists.get(index);
+    }
+
+    /**
+     * The record holds the offset of the props in the props section (or -1 if there are none) followed by their length
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> props(int offset, int length) {
+        return offset < 0 ? new HashMap<>() : (Map<String, Object>) value(offset, length);
+    }
+
+    private Object value(int offset, int length) {
+        var bytes = new byte[length];
+        myBuffer.get(section(Section.PROPS) + offset, bytes);
+        try {
+            return myCodec.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package gameplay;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+/**
+ * A set of grid cells packed one bit per cell, row by row, into a long[].
+ * <p>
+ * Every operation works a whole word (64 cells) at a time, so board-wide questions such as
+ * "which cells are next to a black piece" or "which white pieces does this move flank"
+ * cost a handful of shifts and masks instead of a scan over entities.
+ * Operations that combine two bitboards expect them to have the same dimensions.
+ */
+public class Bitboard {
+    public static final int[][] ORTHOGONAL = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    public static final int[][] ALL_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}, {1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private final int myWidth, myHeight;
+    private final long[] myWords;
+    private final long[][] myColumnMasks; // built lazily per dx, shared by every board derived from this one
+
+    public Bitboard(int width, int height) {
+        this(width, height, new long[(width * height + 63) >>> 6], new long[2 * width + 1][]);
+    }
+
+    private Bitboard(int width, int height, long[] words, long[][] columnMasks) {
+        myWidth = width;
+        myHeight = height;
+        myWords = words;
+        myColumnMasks = columnMasks;
+    }
+
+    public int getWidth() {
+        return myWidth;
+    }
+
+    public int getHeight() {
+        return myHeight;
+    }
+
+    public boolean get(int x, int y) {
+        if (!inside(x, y)) return false;
+        var bit = y * myWidth + x;
+        return (myWords[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Sets or clears a single cell in place; cells outside the grid are ignored
+     */
+    public void set(int x, int y, boolean value) {
+        if (!inside(x, y)) return;
+        var bit = y * myWidth + x;
+        if (value) myWords[bit >>> 6] |= 1L << bit;
+        else myWords[bit >>> 6] &= ~(1L << bit);
+    }
+
+    public Bitboard copy() {
+        return derived(myWords.clone());
+    }
+
+    public Bitboard and(Bitboard other) {
+        var words = new long[myWords.length];
+        for (int i = 0; i < words.length; i++) words[i] = myWords[i] & other.myWords[i];
+        return derived(words);
+    }
+
+    public Bitboard or(Bitboard other) {
+        var words = new long[myWords.length];
+        for (int i = 0; i < words.length; i++) words[i] = myWords[i] | other.myWords[i];
+        return derived(words);
+    }
+
+    public Bitboard andNot(Bitboard other) {
+        var words = new long[myWords.length];
+        for (int i = 0; i < words.length; i++) words[i] = myWords[i] & ~other.myWords[i];
+        return derived(words);
+    }
+
+    /**
+     * Every cell of the grid that isn't in this set
+     */
+    public Bitboard not() {
+        var words = new long[myWords.length];
+        for (int i = 0; i < words.length; i++) words[i] = ~myWords[i];
+        return derived(trimmed(words));
+    }
+
+    /**
+     * Moves every cell by (dx, dy); cells pushed off the grid are dropped rather than wrapping to the next row
+     */
+    public Bitboard shift(int dx, int dy) {
+        if (Math.abs(dx) >= myWidth || Math.abs(dy) >= myHeight) return derived(new long[myWords.length]);
+        var words = shiftWords(myWords, dy * myWidth + dx);
+        if (dx != 0) {
+            var columns = columnMask(dx);
+            for (int i = 0; i < words.length; i++) words[i] &= columns[i];
+        }
+        return derived(trimmed(words));
+    }
+
+    /**
+     * Cells adjacent (in the given directions) to at least one cell of this set, excluding the set itself
+     */
+    public Bitboard neighbors(int[][] directions) {
+        var result = derived(new long[myWords.length]);
+        for (var d : directions) result = result.or(shift(d[0], d[1]));
+        return result.andNot(this);
+    }
+
+    public Bitboard neighbors() {
+        return neighbors(ALL_DIRECTIONS);
+    }
+
+    /**
+     * Cells reached by walking from this set in one direction for as long as the cells belong to through,
+     * not counting the starting cells themselves
+     */
+    public Bitboard lineFill(int dx, int dy, Bitboard through) {
+        var result = derived(new long[myWords.length]);
+        var front = shift(dx, dy).and(through);
+        while (!front.isEmpty()) {
+            result = result.or(front);
+            front = front.shift(dx, dy).and(through).andNot(result);
+        }
+        return result;
+    }
+
+    /**
+     * Othello-style captures: for each direction, the unbroken run of opponent cells that starts next to
+     * this set and is closed off by a cell of own
+     */
+    public Bitboard flank(Bitboard own, Bitboard opponent, int[][] directions) {
+        var captured = derived(new long[myWords.length]);
+        for (var d : directions) {
+            var run = lineFill(d[0], d[1], opponent);
+            if (run.isEmpty()) continue;
+            // walk the run back from the own cells that close it, so that only the bracketed part is kept
+            var closers = run.shift(d[0], d[1]).and(own);
+            captured = captured.or(closers.lineFill(-d[0], -d[1], run));
+        }
+        return captured;
+    }
+
+    /**
+     * Empty cells where placing a piece of own would flank at least one opponent cell
+     */
+    public static Bitboard flankingMoves(Bitboard own, Bitboard opponent, Bitboard empty, int[][] directions) {
+        var moves = own.derived(new long[own.myWords.length]);
+        for (var d : directions) {
+            moves = moves.or(own.lineFill(d[0], d[1], opponent).shift(d[0], d[1]).and(empty));
+        }
+        return moves;
+    }
+
+    public boolean isEmpty() {
+        for (var word : myWords) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    public int count() {
+        int count = 0;
+        for (var word : myWords) count += Long.bitCount(word);
+        return count;
+    }
+
+    /**
+     * Visits the cells of the set in row-major order
+     */
+    public void forEach(BiConsumer<Integer, Integer> cellConsumer) {
+        for (int i = 0; i < myWords.length; i++) {
+            var word = myWords[i];
+            while (word != 0) {
+                var bit = (i << 6) + Long.numberOfTrailingZeros(word);
+                cellConsumer.accept(bit % myWidth, bit / myWidth);
+                word &= word - 1;
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Bitboard)) return false;
+        var other = (Bitboard) o;
+        return myWidth == other.myWidth && myHeight == other.myHeight && Arrays.equals(myWords, other.myWords);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * myWidth + myHeight) + Arrays.hashCode(myWords);
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder();
+        for (int y = 0; y < myHeight; y++) {
+            for (int x = 0; x < myWidth; x++) builder.append(get(x, y) ? '#' : '.');
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    private boolean inside(int x, int y) {
+        return 0 <= x && x < myWidth && 0 <= y && y < myHeight;
+    }
+
+    /**
+     * Clears the bits past the last cell, which ~ and left shifts may have set
+     */
+    private long[] trimmed(long[] words) {
+        var tail = (myWidth * myHeight) & 63;
+        if (tail != 0) words[words.length - 1] &= (1L << tail) - 1;
+        return words;
+    }
+
+    private Bitboard derived(long[] words) {
+        return new Bitboard(myWidth, myHeight, words, myColumnMasks);
+    }
+
+    /**
+     * Cells in the columns that survive a horizontal shift by dx without wrapping
+     */
+    private long[] columnMask(int dx) {
+        if (myColumnMasks[dx + myWidth] != null) return myColumnMasks[dx + myWidth];
+        var from = dx > 0 ? dx : 0;
+        var to = dx > 0 ? myWidth : myWidth + dx;
+        var mask = new long[myWords.length];
+        for (int y = 0; y < myHeight; y++) {
+            for (int x = from; x < to; x++) {
+                var bit = y * myWidth + x;
+                mask[bit >>> 6] |= 1L << bit;
+            }
+        }
+        myColumnMasks[dx + myWidth] = mask;
+        return mask;
+    }
+
+    /**
+     * Shifts the whole array as one big little-endian integer: positive amounts move bits towards higher indices
+     */
+    private static long[] shiftWords(long[] words, int amount) {
+        var shifted = new long[words.length];
+        var wordShift = Math.abs(amount) >>> 6;
+        var bitShift = Math.abs(amount) & 63;
+        if (amount >= 0) {
+            for (int i = words.length - 1; i >= wordShift; i--) {
+                var word = words[i - wordShift] << bitShift;
+                if (bitShift != 0 && i - wordShift - 1 >= 0) word |= words[i - wordShift - 1] >>> (64 - bitShift);
+                shifted[i] = word;
+            }
+        } else {
+            for (int i = 0; i + wordShift < words.length; i++) {
+                var word = words[i + wordShift] >>> bitShift;
+                if (bitShift != 0 && i + wordShift + 1 < words.length) word |= words[i + wordShift + 1] << (64 - bitShift);
+                shifted[i] = word;
+            }
+        }
+        return shifted;
+    }
+}
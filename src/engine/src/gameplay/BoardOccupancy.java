@@ -0,0 +1,66 @@
+package gameplay;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * One bitboard per entity class, plus one for every occupied cell, kept in step with the spatial index.
+ */
+public class BoardOccupancy implements OccupancyListener {
+    private int myWidth, myHeight;
+    private Bitboard myOccupied;
+    private Map<String, Bitboard> myClasses;
+
+    public BoardOccupancy(int width, int height) {
+        myWidth = width;
+        myHeight = height;
+        myOccupied = new Bitboard(width, height);
+        myClasses = new HashMap<>();
+    }
+
+    @Override
+    public void occupantChanged(int x, int y, String oldClass, String newClass) {
+        if (oldClass != null) of(oldClass).set(x, y, false);
+        if (newClass != null) of(newClass).set(x, y, true);
+        myOccupied.set(x, y, newClass != null);
+    }
+
+    /**
+     * A snapshot of the cells occupied by the class, unaffected by later moves
+     */
+    public Bitboard occupiedBy(String className) {
+        return of(className).copy();
+    }
+
+    public Bitboard occupied() {
+        return myOccupied.copy();
+    }
+
+    public Bitboard empty() {
+        return myOccupied.not();
+    }
+
+    /**
+     * Cells occupied by anything other than the class
+     */
+    public Bitboard occupiedByOthers(String className) {
+        return myOccupied.andNot(of(className));
+    }
+
+    public Bitboard cell(int x, int y) {
+        var cell = new Bitboard(myWidth, myHeight);
+        cell.set(x, y, true);
+        return cell;
+    }
+
+    /**
+     * Cells holding pieces of other classes that a piece of className at (x, y) flanks along the given directions
+     */
+    public Bitboard flankedBy(int x, int y, String className, int[][] directions) {
+        return cell(x, y).flank(occupiedBy(className), occupiedByOthers(className), directions);
+    }
+
+    private Bitboard of(String className) {
+        return myClasses.computeIfAbsent(className, name -> new Bitboard(myWidth, myHeight));
+    }
+}
@@ -0,0 +1,55 @@
+package gameplay;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Live instances of every entity class, kept up to date as entities are created, removed and replaced,
+ * so that counting or listing the members of a class never has to scan all entities.
+ */
+public class ClassIndex {
+    private Set<String> myEntityClasses;
+    private Map<String, Set<Entity>> myInstances;
+
+    public ClassIndex(Collection<String> entityClasses, Collection<Entity> entities) {
+        myEntityClasses = new HashSet<>(entityClasses);
+        myInstances = new HashMap<>();
+        entities.forEach(this::add);
+    }
+
+    public void add(Entity entity) {
+        myEntityClasses.add(entity.getName());
+        instances(entity.getName()).add(entity);
+    }
+
+    public void remove(Entity entity) {
+        instances(entity.getName()).remove(entity);
+    }
+
+    public boolean isEntityClass(String className) {
+        return myEntityClasses.contains(className);
+    }
+
+    /**
+     * The instances of a class as they are now, in creation order; later creations and removals don't show up in it,
+     * so a script can remove entities while iterating over it
+     */
+    public List<Entity> instancesOf(String className) {
+        var instances = myInstances.get(className);
+        return instances == null ? List.of() : List.copyOf(instances);
+    }
+
+    public int count(String className) {
+        var instances = myInstances.get(className);
+        return instances == null ? 0 : instances.size();
+    }
+
+    private Set<Entity> instances(String className) {
+        return myInstances.computeIfAbsent(className, name -> new LinkedHashSet<>());
+    }
+}
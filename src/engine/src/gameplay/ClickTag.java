@@ -1,5 +1,7 @@
 package gameplay;
 
+import java.util.Objects;
+
 public class ClickTag {
     private Class myType;
     private int myID;
@@ -16,4 +18,16 @@ public class ClickTag {
     public int getID() {
         return myID;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ClickTag)) return false;
+        var other = (ClickTag) o;
+        return myID == other.myID && Objects.equals(myType, other.myType);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(myType, myID);
+    }
 }
@@ -0,0 +1,173 @@
+package gameplay;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.DomDriver;
+
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Properties of an entity built from a prototype.
+ * <p>
+ * Until a key is written, reads go straight to the prototype's frozen defaults, so building an entity
+ * costs nothing per property. Immutable values (numbers, strings, booleans, characters, enums) are shared for good;
+ * anything else is deep-copied into the entity the first time it's read, because scripts are free to modify it
+ * in place. Lists, sets, maps and arrays are copied directly, other objects through XStream
+ * as the prototype used to copy all of its properties.
+ * Iterating the map (or asking for its size) copies whatever is still shared.
+ */
+public class CopyOnWriteProperties extends AbstractMap<String, Object> {
+    private static final XStream SERIALIZER = new XStream(new DomDriver());
+
+    private Map<String, Object> myShared; // never written to
+    private Map<String, Object> myOwn;
+    private Set<String> myRemoved;
+
+    public CopyOnWriteProperties() {
+        this(Collections.emptyMap());
+    }
+
+    public CopyOnWriteProperties(Map<String, Object> shared) {
+        myShared = shared;
+        myOwn = new LinkedHashMap<>();
+        myRemoved = new LinkedHashSet<>();
+    }
+
+    /**
+     * A deep, read-only copy of a prototype's properties, fit to be shared by its instances
+     */
+    public static Map<String, Object> freeze(Map<String, Object> props) {
+        var frozen = new LinkedHashMap<String, Object>();
+        props.forEach((key, value) -> frozen.put(key, copyValue(value)));
+        return Collections.unmodifiableMap(frozen);
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (myOwn.containsKey(key) || myRemoved.contains(key)) return myOwn.get(key);
+        var value = myShared.get(key);
+        if (isMutable(value)) {
+            value = copyValue(value);
+            myOwn.put((String) key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return myOwn.containsKey(key) || (!myRemoved.contains(key) && myShared.containsKey(key));
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        var previous = rawGet(key);
+        myRemoved.remove(key);
+        myOwn.put(key, value);
+        return previous;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        var previous = rawGet(key);
+        myOwn.remove(key);
+        if (myShared.containsKey(key)) myRemoved.add((String) key);
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        materialize();
+        return myOwn.size();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        materialize();
+        return myOwn.entrySet();
+    }
+
+    /**
+     * Whether the key still reads through to the prototype
+     */
+    public boolean isShared(String key) {
+        return !myOwn.containsKey(key) && !myRemoved.contains(key) && myShared.containsKey(key);
+    }
+
+    /**
+     * The prototype's defaults this map reads through to, along with what it wrote and removed on top of them
+     */
+    Map<String, Object> shared() {
+        return myShared;
+    }
+
+    Map<String, Object> own() {
+        return myOwn;
+    }
+
+    Set<String> removed() {
+        return myRemoved;
+    }
+
+    /**
+     * The current value without copying it out of the prototype, for callers about to drop it
+     */
+    private Object rawGet(Object key) {
+        if (myOwn.containsKey(key) || myRemoved.contains(key)) return myOwn.get(key);
+        return myShared.get(key);
+    }
+
+    private void materialize() {
+        if (myShared.isEmpty()) return;
+        var own = new LinkedHashMap<String, Object>();
+        myShared.forEach((key, value) -> {
+            if (!myRemoved.contains(key)) own.put(key, myOwn.containsKey(key) ? myOwn.get(key) : copyValue(value));
+        });
+        myOwn.forEach(own::putIfAbsent);
+        myOwn = own;
+        myShared = Collections.emptyMap();
+        myRemoved.clear();
+    }
+
+    private static boolean isMutable(Object value) {
+        return !(value == null || value instanceof String || value instanceof Boolean || value instanceof Character
+                || value instanceof Enum || value instanceof Integer || value instanceof Long || value instanceof Double
+                || value instanceof Float || value instanceof Short || value instanceof Byte
+                || value instanceof BigInteger || value instanceof BigDecimal);
+    }
+
+    @SuppressWarnings("unchecked")
+    static Object copyValue(Object value) {
+        if (value instanceof List) {
+            var copy = new ArrayList<>();
+            ((List<Object>) value).forEach(v -> copy.add(copyValue(v)));
+            return copy;
+        }
+        if (value instanceof Set) {
+            var copy = new LinkedHashSet<>();
+            ((Set<Object>) value).forEach(v -> copy.add(copyValue(v)));
+            return copy;
+        }
+        if (value instanceof Map) {
+            var copy = new LinkedHashMap<>();
+            ((Map<Object, Object>) value).forEach((k, v) -> copy.put(k, copyValue(v)));
+            return copy;
+        }
+        if (value != null && value.getClass().isArray()) {
+            var length = Array.getLength(value);
+            var copy = Array.newInstance(value.getClass().getComponentType(), length);
+            for (int i = 0; i < length; i++) Array.set(copy, i, copyValue(Array.get(value, i)));
+            return copy;
+        }
+        if (isMutable(value)) return SERIALIZER.fromXML(SERIALIZER.toXML(value));
+        return value;
+    }
+}
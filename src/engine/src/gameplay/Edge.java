@@ -17,13 +17,21 @@ public class Edge implements ArgumentListener {
         this.myGuard = guard;
     }
 
+    Edge(String phaseName, String startNodeName, String endNodeName, GameEvent trigger, String guard) {
+        this(phaseName, startNodeName, endNodeName, guard);
+        this.myTrigger = trigger;
+    }
+
     private boolean checkValidity() {
         if (myGuard.isEmpty()) return false;
         try {
-            System.out.printf("-------------trying guard %s -> %s ------------\n", myStartNodeName, myEndNodeName);
-            System.out.println(myGuard);
-            GameData.shell().evaluate(myGuard);
-            System.out.println("result: " + GameData.shell().getVariable("$return"));
+            var tracing = GameData.isTracing();
+            if (tracing) {
+                System.out.printf("-------------trying guard %s -> %s ------------\n", myStartNodeName, myEndNodeName);
+                System.out.println(myGuard);
+            }
+            GameData.evaluate(myGuard);
+            if (tracing) System.out.println("result: " + GameData.shell().getVariable("$return"));
             return (boolean) GameData.shell().getVariable("$return");
         } catch (Exception e) {
             e.printStackTrace();
@@ -36,6 +44,22 @@ public class Edge implements ArgumentListener {
         return myStartNodeName;
     }
 
+    public String getMyEndNodeName() {
+        return myEndNodeName;
+    }
+
+    public String getPhaseName() {
+        return myPhaseName;
+    }
+
+    public GameEvent getTrigger() {
+        return myTrigger;
+    }
+
+    public String getGuard() {
+        return myGuard;
+    }
+
     @Override
     public String trigger(Event event) {
         if (myTrigger.matches(event) && checkValidity()) {
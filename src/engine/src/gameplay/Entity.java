@@ -2,20 +2,11 @@ package gameplay;
 
 import com.thoughtworks.xstream.annotations.XStreamOmitField;
 import grids.PointImpl;
-import javafx.beans.property.SimpleDoubleProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.event.EventHandler;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.input.MouseEvent;
-
-import java.io.InputStream;
-import java.util.ArrayList;
+
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
-public class Entity extends PropertyHolder<Entity> implements GameObject, EventHandler<MouseEvent> {
+public class Entity extends PropertyHolder<Entity> implements GameObject {
     private int myID;
     private String name;
     private String instanceName;
@@ -25,12 +16,10 @@ public class Entity extends PropertyHolder<Entity> implements GameObject, EventH
     private PointImpl myCoord; // ugh interfaces are hard to use with XStream
 
     @XStreamOmitField
-    private transient SimpleIntegerProperty imgIndex;
-    private transient SimpleDoubleProperty xCoord, yCoord;
-    @XStreamOmitField
-    private transient List<Image> myImages;
+    private transient int imgIndex;
+    private transient double xCoord, yCoord;
     @XStreamOmitField
-    private transient ImageView myImageView;
+    private transient ObjectView myView;
 
     public Entity(
             int myID,
@@ -52,53 +41,40 @@ public class Entity extends PropertyHolder<Entity> implements GameObject, EventH
         setupView();
     }
 
+    /**
+     * An entity read from a game file; like the ones XStream builds, its view is set up when the game starts
+     */
+    Entity(int id, String name, String instanceName, int width, int height, int x, int y,
+           List<String> imagePaths, String imageSelector, Map<String, Object> properties) {
+        this.myID = id;
+        this.name = name;
+        this.instanceName = instanceName;
+        this.myWidth = width;
+        this.myHeight = height;
+        this.myCoord = new PointImpl(x, y);
+        this.myImagePaths = imagePaths;
+        this.myImageSelector = imageSelector;
+        this.props = properties;
+    }
+
     /**
      * Fills out the transient parts
      */
     public void setupView() {
-        loadImages(true);
-        myImageView = new ImageView();
-        myImageView.setPreserveRatio(false);
-        myImageView.setOnMouseClicked(this);
-
-        imgIndex = new SimpleIntegerProperty(-1);
-        imgIndex.addListener((e, oldVal, newVal) -> myImageView.setImage(myImages.get(newVal.intValue())));
-
-        this.xCoord = new SimpleDoubleProperty(myCoord.getX());
-        this.yCoord = new SimpleDoubleProperty(myCoord.getY());
+        trackProps();
+        myView = GameData.view().createView(this, myImagePaths);
+        imgIndex = -1;
+        xCoord = myCoord.getX();
+        yCoord = myCoord.getY();
+        myView.relocate(xCoord, yCoord);
     }
 
     /**
-     * Adjusts the size of this tile in pixels with respect to screen dimensions
-     * TODO: test whether "addListener" replaces the old one
+     * Adjusts the size of this entity in pixels with respect to screen dimensions
      */
     public void adjustViewSize(double screenWidth, double screenHeight) {
-        myImageView.setX((screenWidth * xCoord.get()) / GameMethods.gridWidth());
-        myImageView.setY((screenHeight * yCoord.get()) / GameMethods.gridHeight());
-        myImageView.setFitWidth(screenWidth * myWidth / GameMethods.gridWidth());
-        myImageView.setFitHeight(screenHeight * myHeight / GameMethods.gridHeight());
-
-        loadImages(false);
-
-        xCoord.addListener((e, oldVal, newVal) -> {
-            myImageView.setX(screenWidth * newVal.doubleValue() / GameMethods.gridWidth());
-        });
-
-        yCoord.addListener((e, oldVal, newVal) -> {
-            myImageView.setY(screenHeight * newVal.doubleValue() / GameMethods.gridHeight());
-        });
-
-        updateView();
-    }
-
-    private void loadImages(boolean useNaturalImageSize) {
-        myImages = new ArrayList<>();
-        for (var path : myImagePaths) {
-            Image img;
-            if(useNaturalImageSize) img = new Image(Objects.requireNonNull(PathUtility.getResourceAsStream(path)));
-            else img = new Image(Objects.requireNonNull(PathUtility.getResourceAsStream(path)), myImageView.getFitWidth(), myImageView.getFitHeight(), false, true);
-            myImages.add(img);
-        }
+        myView.resize(screenWidth, screenHeight);
+        if (GameData.view().showsImages()) updateView();
     }
 
     /**
@@ -108,18 +84,36 @@ public class Entity extends PropertyHolder<Entity> implements GameObject, EventH
     public void updateView() {
         if (!myImageSelector.isEmpty()) {
             GameData.shell().setVariable("$this", this);
-            GameData.shell().evaluate(myImageSelector);
-            imgIndex.set(Integer.parseInt(GameData.shell().getVariable("$return").toString()));
-        } else imgIndex.set(0);
+            GameData.evaluate(myImageSelector);
+            imgIndex = Integer.parseInt(GameData.shell().getVariable("$return").toString());
+        } else imgIndex = 0;
+        myView.showImage(imgIndex);
     }
 
     public void setLocation(double x, double y) {
-        this.xCoord.set(x);
-        this.yCoord.set(y);
+        restoreLocation(x, y);
+        GameData.entityMoved(this);
+    }
+
+    /**
+     * Moves the entity without telling the session, which rebuilds its indexes after restoring a snapshot
+     */
+    void restoreLocation(double x, double y) {
+        this.xCoord = x;
+        this.yCoord = y;
+        myView.relocate(x, y);
+    }
+
+    /**
+     * An entity as this one was read from the game file, with its own props; its view isn't set up yet
+     */
+    Entity copy() {
+        return new Entity(myID, name, instanceName, myWidth, myHeight, myCoord.getX(), myCoord.getY(),
+                myImagePaths, myImageSelector, copyProps());
     }
 
-    public ImageView getImageView() {
-        return myImageView;
+    public ObjectView getView() {
+        return myView;
     }
 
     public int getID() {
@@ -132,12 +126,24 @@ public class Entity extends PropertyHolder<Entity> implements GameObject, EventH
 
     public String getInstanceName() { return instanceName; }
 
+    void setInstanceName(String instanceName) {
+        this.instanceName = instanceName;
+    }
+
+    List<String> getImagePaths() {
+        return myImagePaths;
+    }
+
+    public String getImageSelector() {
+        return myImageSelector;
+    }
+
     public double getX() {
-        return xCoord.get();
+        return xCoord;
     }
 
     public double getY() {
-        return yCoord.get();
+        return yCoord;
     }
 
     @Override
@@ -149,10 +155,4 @@ public class Entity extends PropertyHolder<Entity> implements GameObject, EventH
     public double getHeight() {
         return myHeight;
     }
-
-    @Override
-    public void handle(MouseEvent event) {
-        System.out.println("MouseEvent from entity of id " + myID);
-        GameData.addArgument(event, new ClickTag(Entity.class, myID));
-    }
 }
@@ -1,7 +1,6 @@
 package gameplay;
 
-import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.io.xml.DomDriver;
+import com.thoughtworks.xstream.annotations.XStreamOmitField;
 
 import java.util.List;
 import java.util.Map;
@@ -22,16 +21,52 @@ public class EntityPrototype extends PropertyHolder<EntityPrototype> {
     private String myImageSelector; // Groovy codee
     private int myWidth, myHeight;
 
+    @XStreamOmitField
+    private transient Map<String, Object> mySharedProps; // frozen copy of props handed to the instances
+
+    EntityPrototype(String name, int width, int height, List<String> imagePaths, String imageSelector, Map<String, Object> properties) {
+        this.name = name;
+        this.myWidth = width;
+        this.myHeight = height;
+        this.myImagePaths = imagePaths;
+        this.myImageSelector = imageSelector;
+        this.props = properties;
+    }
+
+    EntityPrototype copy() {
+        return new EntityPrototype(name, myWidth, myHeight, myImagePaths, myImageSelector, copyProps());
+    }
+
     public Entity build(int id, int x, int y) {
         return new Entity(id, x, y, myWidth, myHeight, name, freshMap(), myImagePaths, myImageSelector);
     }
 
+    /**
+     * Properties for a new instance; they read through to the prototype's values until the instance writes them
+     */
     public Map<String, Object> freshMap() {
-        var serializer = new XStream(new DomDriver());
-        return (Map<String, Object>) serializer.fromXML(serializer.toXML(props));
+        return new CopyOnWriteProperties(sharedProps());
+    }
+
+    Map<String, Object> sharedProps() {
+        if (mySharedProps == null) mySharedProps = CopyOnWriteProperties.freeze(props);
+        return mySharedProps;
+    }
+
+    /**
+     * Changing a default only affects the entities built afterwards, the way the per-build copy used to
+     */
+    @Override
+    public void set(String key, Object value) {
+        super.set(key, value);
+        mySharedProps = null;
     }
 
     public String name() {
         return name;
     }
+
+    public String getImageSelector() {
+        return myImageSelector;
+    }
 }
@@ -0,0 +1,244 @@
+package gameplay;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ButtonType;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Draws the game on a JavaFX Pane and forwards clicks on the sprites to the engine.
+ * <p>
+ * When the game runs on a GameLoop, clicks are queued on the loop, and the changes its thread makes
+ * are collected into batches that are applied to the scene once per frame; so the window never shows half a turn
+ * and keeps drawing while scripts run. Changes made on the FX thread itself (e.g. while the game starts) apply at once.
+ */
+public class FxGameView implements GameView {
+    private Pane myRoot;
+    private MediaPlayer myMediaPlayer;
+    private GameLoop myLoop;
+    private List<Runnable> myBatch;
+    private Queue<List<Runnable>> myBatches;
+    private AnimationTimer myFrames;
+    private volatile double myWidth, myHeight; // the pane's size, kept for the logic thread, which mustn't read the scene
+
+    public FxGameView() {
+        myRoot = new Pane();
+        myRoot.widthProperty().addListener((e, o, n) -> myWidth = n.doubleValue());
+        myRoot.heightProperty().addListener((e, o, n) -> myHeight = n.doubleValue());
+        myBatch = new ArrayList<>();
+        myBatches = new ConcurrentLinkedQueue<>();
+        myFrames = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                for (var batch = myBatches.poll(); batch != null; batch = myBatches.poll()) batch.forEach(Runnable::run);
+            }
+        };
+        myFrames.start();
+    }
+
+    /**
+     * Sends clicks (and restarts) to the loop instead of running the game on the FX thread
+     */
+    public void setLoop(GameLoop loop) {
+        myLoop = loop;
+    }
+
+    /**
+     * Stops drawing frames; the view can't be used afterwards
+     */
+    public void dispose() {
+        myFrames.stop();
+    }
+
+    private void publish(Runnable change) {
+        if (Platform.isFxApplicationThread()) change.run();
+        else myBatch.add(change);
+    }
+
+    @Override
+    public void endBatch() {
+        if (myBatch.isEmpty()) return;
+        myBatches.add(myBatch);
+        myBatch = new ArrayList<>();
+    }
+
+    public Pane getRoot() {
+        return myRoot;
+    }
+
+    @Override
+    public ObjectView createView(GameObject object, List<String> imagePaths) {
+        var tag = new ClickTag(object instanceof Tile ? Tile.class : Entity.class, object.getID());
+        return new FxObjectView(this, GameSession.current(), object, imagePaths, tag);
+    }
+
+    @Override
+    public void show(ObjectView view) {
+        var imageView = ((FxObjectView) view).myImageView;
+        publish(() -> myRoot.getChildren().add(imageView));
+    }
+
+    @Override
+    public void hide(ObjectView view) {
+        var imageView = ((FxObjectView) view).myImageView;
+        publish(() -> myRoot.getChildren().remove(imageView));
+    }
+
+    @Override
+    public void clear() {
+        publish(() -> myRoot.getChildren().clear());
+    }
+
+    @Override
+    public void resize(double screenWidth, double screenHeight) {
+        publish(() -> {
+            myRoot.setPrefWidth(screenWidth);
+            myRoot.setPrefHeight(screenHeight);
+        });
+    }
+
+    @Override
+    public double getWidth() {
+        return myWidth;
+    }
+
+    @Override
+    public double getHeight() {
+        return myHeight;
+    }
+
+    @Override
+    public void playMusic(String path) {
+        publish(() -> startMusic(path));
+    }
+
+    private void startMusic(String path) {
+        try {
+            var media = new Media(PathUtility.getResourceAsFile(path).toURI().toString());
+            myMediaPlayer = new MediaPlayer(media);
+            myMediaPlayer.setOnReady(() -> {
+                myMediaPlayer.setCycleCount(MediaPlayer.INDEFINITE);
+                myMediaPlayer.play();
+            });
+        } catch(Exception e) {
+            myMediaPlayer = null;
+        }
+    }
+
+    @Override
+    public void stopMusic() {
+        publish(() -> {
+            if (myMediaPlayer != null) myMediaPlayer.dispose();
+            myMediaPlayer = null;
+        });
+    }
+
+    /**
+     * The dialog waits for the player, which isn't allowed while a frame is drawn, so it opens right after
+     */
+    @Override
+    public void endGame(String message) {
+        publish(() -> Platform.runLater(() -> askRestart(message)));
+    }
+
+    private void askRestart(String message) {
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Confirmation Dialog");
+        alert.setHeaderText(message);
+        alert.setContentText("Restart?");
+        Optional<ButtonType> result = alert.showAndWait();
+        if (result.isPresent() && result.get() == ButtonType.OK) {
+            if (myLoop != null) myLoop.submit(GameData::restartGame);
+            else GameData.restartGame();
+        }
+    }
+
+    @Override
+    public boolean showsImages() {
+        return true;
+    }
+
+    private static class FxObjectView implements ObjectView {
+        private FxGameView myView;
+        private GameObject myObject;
+        private List<String> myImagePaths;
+        private List<Image> myImages;
+        private ImageView myImageView;
+        private int myImageIndex;
+        private double myX, myY;
+        private double myCellWidth, myCellHeight; // in pixels, 0 until the screen size is known
+
+        private FxObjectView(FxGameView view, GameSession session, GameObject object, List<String> imagePaths, ClickTag tag) {
+            myView = view;
+            myObject = object;
+            myImagePaths = imagePaths;
+            myImageIndex = -1;
+            myImageView = new ImageView();
+            myImageView.setPreserveRatio(false);
+            myImageView.setOnMouseClicked(event -> {
+                if (view.myLoop != null) view.myLoop.click(tag);
+                else session.addArgument(event, tag);
+            });
+            loadImages(true, 0, 0);
+        }
+
+        @Override
+        public void showImage(int imageIndex) {
+            if (imageIndex == myImageIndex) return;
+            myImageIndex = imageIndex;
+            var image = myImages.get(imageIndex);
+            myView.publish(() -> myImageView.setImage(image));
+        }
+
+        @Override
+        public void relocate(double x, double y) {
+            myX = x;
+            myY = y;
+            var pixelX = myCellWidth * x;
+            var pixelY = myCellHeight * y;
+            myView.publish(() -> {
+                myImageView.setX(pixelX);
+                myImageView.setY(pixelY);
+            });
+        }
+
+        @Override
+        public void resize(double screenWidth, double screenHeight) {
+            myCellWidth = screenWidth / GameMethods.gridWidth();
+            myCellHeight = screenHeight / GameMethods.gridHeight();
+            var fitWidth = myCellWidth * myObject.getWidth();
+            var fitHeight = myCellHeight * myObject.getHeight();
+            myView.publish(() -> {
+                myImageView.setFitWidth(fitWidth);
+                myImageView.setFitHeight(fitHeight);
+            });
+            relocate(myX, myY);
+            loadImages(false, fitWidth, fitHeight);
+            if (myImageIndex >= 0) {
+                var image = myImages.get(myImageIndex);
+                myView.publish(() -> myImageView.setImage(image));
+            }
+        }
+
+        private void loadImages(boolean useNaturalImageSize, double fitWidth, double fitHeight) {
+            myImages = new ArrayList<>();
+            for (var path : myImagePaths) {
+                Image img;
+                if(useNaturalImageSize) img = ImageCache.get(path);
+                else img = ImageCache.get(path, fitWidth, fitHeight, true);
+                myImages.add(img);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package gameplay;
+
+import javafx.scene.input.KeyCode;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a game's logic on a thread of its own, so that scripts taking longer than a frame don't freeze the window.
+ * <p>
+ * The window only queues inputs. Clicks (ClickTags) and key presses (KeyTags) wait in a queue that grows as needed,
+ * so none of them is lost while a long script runs; keys are delivered on release, so every KeyTag is a real press.
+ * Inputs are played in order, each in one go, and after each one the view is told the model is consistent again
+ * (GameView.endBatch()). An input or action that throws is handed to the thread's UncaughtExceptionHandler,
+ * as JavaFX does with its event handlers, and the loop goes on with the next one.
+ * <p>
+ * Once stop() was called and the queue ran dry, the thread is finished: later inputs are dropped,
+ * and actions run on the caller's thread instead.
+ */
+public class GameLoop {
+    private final Supplier<GameSession> mySession;
+    private final GameView myView;
+    private final Deque<Object> myPending = new ArrayDeque<>();
+    private final Thread myThread;
+    private long myDropped;
+    private boolean myStopped, myFinished;
+
+    /**
+     * Plays inputs on whatever session is current in the supplier, so a game can be restarted from the loop
+     */
+    public GameLoop(Supplier<GameSession> session, GameView view) {
+        mySession = session;
+        myView = view;
+        myThread = new Thread(this::run, "game-logic");
+        myThread.setDaemon(true);
+        myThread.start();
+    }
+
+    public void click(ClickTag tag) {
+        offer(tag);
+    }
+
+    public void press(KeyCode code) {
+        offer(new KeyTag(code));
+    }
+
+    /**
+     * Queues an input; returns false if it was dropped because the thread had finished
+     */
+    public synchronized boolean offer(Object input) {
+        if (myFinished) {
+            myDropped++;
+            return false;
+        }
+        myPending.add(input);
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Runs the action on the logic thread after the inputs queued before it; actions are never dropped,
+     * so once the thread is finished the action runs right here
+     */
+    public void submit(Runnable action) {
+        if (!enqueue(action)) play(action);
+    }
+
+    private synchronized boolean enqueue(Runnable action) {
+        if (myFinished) return false;
+        myPending.add(action);
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Runs the action on the logic thread after the inputs queued before it, without waiting for it;
+     * the future is cancelled if the thread finishes first
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> action) {
+        var task = new SuppliedTask<>(action);
+        submit(task);
+        return task.myResult;
+    }
+
+    /**
+     * Runs the action on the logic thread and waits for its result; not for the FX thread, which would freeze meanwhile
+     */
+    public <T> T call(Supplier<T> action) {
+        if (Thread.currentThread() == myThread) return action.get();
+        try {
+            return supply(action).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (CancellationException e) {
+            throw new IllegalStateException("The game loop stopped before running the action", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Lets the logic thread finish once the inputs and actions already queued have run
+     */
+    public synchronized void stop() {
+        myStopped = true;
+        notifyAll();
+    }
+
+    /**
+     * Inputs dropped because they came after the thread had finished
+     */
+    public synchronized long getDropped() {
+        return myDropped;
+    }
+
+    public synchronized int getPending() {
+        return myPending.size();
+    }
+
+    private synchronized Object next() throws InterruptedException {
+        while (myPending.isEmpty()) {
+            if (myStopped) {
+                myFinished = true;
+                return null;
+            }
+            wait();
+        }
+        return myPending.poll();
+    }
+
+    private void run() {
+        try {
+            for (var next = next(); next != null; next = next()) play(next);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            finish();
+        }
+    }
+
+    private void play(Object next) {
+        var session = mySession.get();
+        try {
+            if (next instanceof ClickTag) session.click((ClickTag) next);
+            else if (next instanceof KeyTag) session.press(((KeyTag) next).code());
+            else session.run((Runnable) next);
+        } catch (RuntimeException e) { // a failing script shouldn't stop the game from taking input
+            var thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        } finally {
+            myView.endBatch();
+        }
+    }
+
+    /**
+     * Marks the thread finished, however it ended, and cancels what it left queued so that no call() waits forever
+     */
+    private synchronized void finish() {
+        myFinished = true;
+        for (var left : myPending) {
+            if (left instanceof SuppliedTask) ((SuppliedTask<?>) left).myResult.cancel(false);
+        }
+        myPending.clear();
+    }
+
+    /**
+     * An action whose result, or failure, completes a future instead of going to the exception handler
+     */
+    private static class SuppliedTask<T> implements Runnable {
+        private final Supplier<T> myAction;
+        private final CompletableFuture<T> myResult = new CompletableFuture<>();
+
+        private SuppliedTask(Supplier<T> action) {
+            myAction = action;
+        }
+
+        @Override
+        public void run() {
+            try {
+                myResult.complete(myAction.get());
+            } catch (RuntimeException e) {
+                myResult.completeExceptionally(e);
+            } catch (Error e) { // ends the loop, but whoever waits for the result still hears of it
+                myResult.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+}
@@ -1,15 +1,10 @@
 package gameplay;
 
-import javafx.util.Pair;
-
 import com.thoughtworks.xstream.annotations.XStreamOmitField;
 
 import java.lang.annotation.Repeatable;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.Random;
 
 import static gameplay.GameData.*;
 
@@ -25,11 +20,11 @@ public class GameMethods {
      * Grid
      */
     public static int gridWidth() {
-        return GRID_WIDTH;
+        return GameSession.current().getGridWidth();
     }
 
     public static int gridHeight() {
-        return GRID_HEIGHT;
+        return GameSession.current().getGridHeight();
     }
 
     /**
@@ -63,21 +58,21 @@ public class GameMethods {
      * Entity
      */
     public static boolean isEntity(GameObject object) {
-        return GameData.ENTITY_PROTOTYPES.keySet().contains(object.getName());
+        return GameSession.current().classIndex().isEntityClass(object.getName());
     }
 
     public static Entity getEntity(int entityID) {
-        return ENTITIES.get(entityID);
+        return getEntities().get(entityID);
     }
 
     public static Entity createEntity(String entityName, int x, int y, String ownerName) {
-        var nextID = ENTITIES.keySet().stream().max(Comparator.comparingInt(a -> a)).orElse(0) + 1;
-        var newEntity = ENTITY_PROTOTYPES.get(entityName).build(nextID, x, y);
-        newEntity.adjustViewSize(ROOT.getWidth(), ROOT.getHeight());
-        ENTITIES.put(nextID, newEntity);
-    PLAYERS.get(ownerName).addEntity(nextID);
+        var nextID = GameData.allocateEntityID();
+        var newEntity = GameSession.current().getEntityPrototypes().get(entityName).build(nextID, x, y);
+        newEntity.adjustViewSize(view().getWidth(), view().getHeight());
+        GameData.addEntity(newEntity);
+        GameSession.current().getPlayers().get(ownerName).addEntity(nextID);
         newEntity.setLocation(x, y);
-        ROOT.getChildren().add(newEntity.getImageView());
+        view().show(newEntity.getView());
         return newEntity;
     }
 
@@ -86,9 +81,10 @@ public class GameMethods {
     }
 
     public static void removeEntity(Entity entity) {
-        ROOT.getChildren().remove(entity.getImageView());
-        ENTITIES.remove(entity.getID());
-        PLAYERS.values().forEach(p -> p.getMyEntities().remove(entity.getID()));
+        view().hide(entity.getView());
+        GameData.removeEntity(entity);
+        var owner = GameData.getOwner(entity.getID());
+        if (owner != null) owner.removeEntity(entity.getID());
     }
 
     public static void moveEntity(Entity entity, double x, double y) {
@@ -100,53 +96,37 @@ public class GameMethods {
     }
 
     public static Entity getEntityOver(Tile tile) {
-        for(var e : ENTITIES.values()) {
-            boolean verdictX =
-                (tile.getX() <= e.getX() && e.getX() < tile.getX() + tile.getWidth()) ||
-                    (e.getX() <= tile.getX() && tile.getX() < e.getX() + e.getWidth());
-            boolean verdictY =
-                (tile.getY() <= e.getY() && e.getY() < tile.getY() + tile.getHeight()) ||
-                    (e.getY() <= tile.getY() && tile.getY() < e.getY() + e.getHeight());
-            if(verdictX && verdictY) return e;
-        } return null;
+        return GameSession.current().entityIndex().entityOver(tile.getX(), tile.getY(), tile.getWidth(), tile.getHeight());
     }
     /**
      * Tile
      */
     public static boolean isTile(GameObject object) {
-        return !ENTITY_PROTOTYPES.keySet().contains(object.getName());
+        return !GameSession.current().classIndex().isEntityClass(object.getName());
     }
 
     public static Tile getTile(int tileID) {
-        return TILES.get(tileID);
+        return getTiles().get(tileID);
     }
 
     public static boolean hasNoIntersectingEntities(int tileID) {
-        return hasNoIntersectingEntities(TILES.get(tileID));
+        return hasNoIntersectingEntities(getTiles().get(tileID));
     }
 
     public static boolean hasNoIntersectingEntities(Tile tile) {
-        return ENTITIES.values().stream().noneMatch(e -> {
-            boolean verdictX =
-                    (tile.getX() <= e.getX() && e.getX() < tile.getX() + tile.getWidth()) ||
-                            (e.getX() <= tile.getX() && tile.getX() < e.getX() + e.getWidth());
-            boolean verdictY =
-                    (tile.getY() <= e.getY() && e.getY() < tile.getY() + tile.getHeight()) ||
-                            (e.getY() <= tile.getY() && tile.getY() < e.getY() + e.getHeight());
-            return verdictX && verdictY;
-        });
+        return !GameSession.current().entityIndex().hasEntityOver(tile.getX(), tile.getY(), tile.getWidth(), tile.getHeight());
     }
 
     public static boolean hasNoEntityAt(int x, int y) {
-        return ENTITIES.values().stream().noneMatch(e -> {
-            boolean verdictX = (e.getX() <= x && x < e.getX() + e.getWidth());
-            boolean verdictY = (e.getY() <= y && y < e.getY() + e.getHeight());
-            return verdictX && verdictY;
-        });
+        return !GameSession.current().entityIndex().hasEntityAt(x, y);
     }
 
     public static Tile getTileAt(double x, double y) {
-        return TILES.values().stream().filter(t -> t.getX() == x && t.getY() == y).findFirst().orElse(null);
+        return getTileGrid().tileAt(x, y);
+    }
+
+    public static Iterable<Tile> allTiles() {
+        return getTileGrid();
     }
 
     public static Tile getTileUnder(Entity entity) {
@@ -157,11 +137,11 @@ public class GameMethods {
      * Player/Turn
      */
     public static Player getCurrentPlayer() {
-        return PLAYERS.get(TURN.getCurrentPlayerName());
+        return GameSession.current().getPlayers().get(getTurn().getCurrentPlayerName());
     }
 
     public static void setCurrentPlayer(String playerName) {
-        TURN.setCurrentPlayer(playerName);
+        getTurn().setCurrentPlayer(playerName);
     }
 
     public static Double getCurrentPlayerStats(String stat) {
@@ -169,40 +149,53 @@ public class GameMethods {
     }
 
     public static String getCurrentPlayerName() {
-        return TURN.getCurrentPlayerName();
+        return getTurn().getCurrentPlayerName();
     }
 
     public static String getNextPlayerName() {
-        System.out.println("next play: " + TURN.nextPlayerName());
-        return TURN.nextPlayerName();
+        if (isTracing()) System.out.println("next play: " + getTurn().nextPlayerName());
+        return getTurn().nextPlayerName();
     }
 
-    public static Player getPlayer(String playername) { return PLAYERS.get(playername); }
+    public static Player getPlayer(String playername) { return GameSession.current().getPlayers().get(playername); }
 
     public static String toNextPlayer() {
-        return TURN.toNextPlayer();
+        return getTurn().toNextPlayer();
     }
 
     public static void setPlayerOrder(List<String> newOrder) {
-        TURN.setPlayerOrder(newOrder);
+        getTurn().setPlayerOrder(newOrder);
     }
 
     public static boolean hasNoEntities(String playerName) {
-        return PLAYERS.get(playerName).getMyEntities().size() == 0;
+        return GameSession.current().getPlayers().get(playerName).getMyEntities().size() == 0;
+    }
+
+    public static Player getOwner(Entity entity) {
+        return GameData.getOwner(entity.getID());
     }
 
     public static boolean isEntityOf(String playerName, Entity entity) {
-        return PLAYERS.get(playerName).getMyEntities().contains(entity.getID());
+        return GameSession.current().getPlayers().get(playerName).getMyEntities().contains(entity.getID());
     }
 
     public static void endGame(String endingMessage) {
-        TURN.endGame(endingMessage);
+        getTurn().endGame(endingMessage);
     }
 
     public static int numberOfInstances(String entityName) {
-        var count = (int) ENTITIES.values().stream().filter(e -> e.getName().equals(entityName)).count();
-        System.out.println("Instance Count: " + count);
-        return count;
+        return GameSession.current().classIndex().count(entityName);
+    }
+
+    /**
+     * The entities of a class right now, in creation order; safe to iterate while creating or removing entities
+     */
+    public static List<Entity> instancesOf(String entityName) {
+        return GameSession.current().classIndex().instancesOf(entityName);
+    }
+
+    public static boolean hasInstances(String entityName) {
+        return GameSession.current().classIndex().count(entityName) > 0;
     }
 
     /**
@@ -218,8 +211,9 @@ public class GameMethods {
     public static double distance(GameObject a, GameObject b) {
         double dx = a.getX() - b.getX();
         double dy = a.getY() - b.getY();
-        System.out.println("Distance: " + Math.sqrt(dx * dx + dy * dy));
-        return Math.sqrt(dx * dx + dy * dy);
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        if (isTracing()) System.out.println("Distance: " + distance);
+        return distance;
     }
 
     public static void $print(Object obj) { System.out.println("[DEBUG]: "+ obj); }
@@ -237,91 +231,86 @@ public class GameMethods {
     public static boolean not(boolean bool) { return !bool; }
 
     public static void updateViews() {
-        ENTITIES.values().forEach(Entity::updateView);
-        TILES.values().forEach(Tile::updateView);
+        GameData.updateViews();
     }
 
     public static void DO_LOT_OF_THINGS() { }
 
-    private static Map<Pair<Integer, Integer>, Integer> createMap(){
-        Map<Pair<Integer, Integer>, Integer> map = new HashMap<>();
-        ENTITIES.entrySet().forEach(a -> {
-            var id = a.getKey();
-            var entity = a.getValue();
-            var x = roundDouble(entity.getX());
-            var y = roundDouble(entity.getY());
-            map.put(new Pair<>(x, y), id);
+    /**
+     * Othello flank: turns every run of other pieces along a row or column that a is closing off
+     * with another piece of its own class
+     */
+    public static void checkNeighbor(GameObject a, String currentPlayer){
+        var x = (int) Math.round(a.getX());
+        var y = (int) Math.round(a.getY());
+        var type = a.getName();
+        var replacement = type.equals("r_black") ? "r_black" : "r_white";
+        GameSession.current().board().flankedBy(x, y, type, Bitboard.ORTHOGONAL).forEach((cx, cy) -> {
+            var victim = GameSession.current().entityIndex().entityOver(cx, cy, 1, 1);
+            var entityID = victim.getID();
+            removeEntity(victim);
+            replaceEntity(replacement, cx, cy, currentPlayer, entityID);
         });
-        return map;
     }
 
-    private static Map<Pair<Integer, Integer>, String> intMap(Map<Pair<Integer, Integer>, Integer> entityMap){
-        Map<Pair<Integer, Integer>, String> map = new HashMap<>();
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (!hasNoEntityAt(i, j)){
-                    map.put(new Pair<>(i, j), ENTITIES.get(entityMap.get(new Pair<>(i,j))).getName());
-                }
-            }
-        }
-        return map;
+    /**
+     * Cells currently occupied by instances of the class
+     */
+    public static Bitboard occupancy(String className) {
+        return GameSession.current().board().occupiedBy(className);
     }
 
-    public static void checkNeighbor(GameObject a, String currentPlayer){
-        var entityMap = createMap();
-        System.out.println("entityMap: " + entityMap);
-        var numMap = intMap(entityMap);
-        System.out.println("numMap: " + numMap);
-        var x = (int) Math.round(a.getX());
-        var y = (int) Math.round(a.getY());
-        var myId = a.getID();
-        var type = a.getName();
-        System.out.println("ID: " + myId + "current x: " + x + " current y: " + y);
-        numMap.keySet().forEach(e -> {
-            var xx = e.getKey();
-            var yy = e.getValue();
-            if (numMap.get(e).equals(type)){
-                if (x == xx && y != yy) {
-                    System.out.println("current xx: " + xx + " current yy: " + yy);
-                    var minY = Math.min(y, yy);
-                    var maxY = Math.max(y, yy);
-                    boolean flanked = true;
-                    for (int i = minY + 1; i < maxY; i++) {
-                        if (hasNoEntityAt(x, i)) flanked = false;
-                    }
-                    if (flanked) {
-                        System.out.println("flank detected along Y");
-                        for (int j = minY + 1; j < maxY; j++) {
-                            System.out.println("trying to create an entity at: " + x + ", " + j);
-                            System.out.println("entity map: " + ENTITIES);
-                            var entityID = entityMap.get(new Pair<>(x,j));
-                            removeEntity(ENTITIES.get(entityID));
-                            if (type.equals("r_black")) replaceEntity("r_black", x, j, currentPlayer, entityID);
-                            else replaceEntity("r_white", x, j, currentPlayer, entityID);
-                        }
-                    }
-                } else if (y == yy && x != xx) {
-                    System.out.println("current xx: " + xx + " current yy: " + yy);
-                    var minX = Math.min(x, xx);
-                    var maxX = Math.max(x, xx);
-                    boolean flanked = true;
-                    for (int i = minX + 1; i < maxX; i++) {
-                        if (hasNoEntityAt(i, y)) flanked = false;
-                    }
-                    if (flanked) {
-                        System.out.println("flanked detected along X");
-                        for (int j = minX + 1; j < maxX; j++) {
-                            var id = entityMap.get(new Pair<>(j,y));
-                            removeEntity(ENTITIES.get(id));
-                            System.out.println("trying to create an entity at: " + j + ", " + y );
-                            if (type.equals("r_black")) replaceEntity("r_black", j, y, currentPlayer, id);
-                            else replaceEntity("r_white", j, y, currentPlayer, id);
-                        }
-                    }
-                }
-            }
+    public static Bitboard emptyCells() {
+        return GameSession.current().board().empty();
+    }
+
+    /**
+     * Cells holding pieces of other classes that a piece of className at (x, y) flanks, in all 8 directions
+     */
+    public static Bitboard flankedBy(int x, int y, String className) {
+        return GameSession.current().board().flankedBy(x, y, className, Bitboard.ALL_DIRECTIONS);
+    }
+
+    /**
+     * Empty cells where a piece of className would flank at least one other piece, i.e. Othello's legal moves
+     */
+    public static Bitboard flankingMoves(String className) {
+        var board = GameSession.current().board();
+        return Bitboard.flankingMoves(board.occupiedBy(className), board.occupiedByOthers(className), board.empty(),
+                Bitboard.ALL_DIRECTIONS);
+    }
+
+    /**
+     * Cells touching (diagonals included) an instance of the class, not counting the instances themselves
+     */
+    public static Bitboard neighborsOf(String className) {
+        return GameSession.current().board().occupiedBy(className).neighbors();
+    }
+
+    /**
+     * Cells reached walking from (x, y) in direction (dx, dy) for as long as they're occupied by the class
+     */
+    public static Bitboard lineFill(int x, int y, int dx, int dy, String className) {
+        var board = GameSession.current().board();
+        return board.cell(x, y).lineFill(dx, dy, board.occupiedBy(className));
+    }
+
+    public static List<Entity> entitiesIn(Bitboard cells) {
+        var entities = new ArrayList<Entity>();
+        cells.forEach((x, y) -> {
+            var entity = GameSession.current().entityIndex().entityOver(x, y, 1, 1);
+            if (entity != null) entities.add(entity);
         });
-        System.out.println("Board Size + " + ENTITIES.keySet().size());
+        return entities;
+    }
+
+    public static List<Tile> tilesIn(Bitboard cells) {
+        var tiles = new ArrayList<Tile>();
+        cells.forEach((x, y) -> {
+            var tile = getTileAt(x, y);
+            if (tile != null) tiles.add(tile);
+        });
+        return tiles;
     }
 
     public static int roundDouble(double i){
@@ -333,17 +322,17 @@ public class GameMethods {
     }
 
     private static Entity replaceEntity(String entityName, int x, int y, String ownerName, int nextID) {
-        var newEntity = ENTITY_PROTOTYPES.get(entityName).build(nextID, x, y);
-        newEntity.adjustViewSize(ROOT.getWidth(), ROOT.getHeight());
-        ENTITIES.put(nextID, newEntity);
-        PLAYERS.get(ownerName).addEntity(nextID);
+        var newEntity = GameSession.current().getEntityPrototypes().get(entityName).build(nextID, x, y);
+        newEntity.adjustViewSize(view().getWidth(), view().getHeight());
+        GameData.addEntity(newEntity);
+        GameSession.current().getPlayers().get(ownerName).addEntity(nextID);
         newEntity.setLocation(x, y);
-        ROOT.getChildren().add(newEntity.getImageView());
+        view().show(newEntity.getView());
         return newEntity;
     }
 
     public static int boardSize(){
-        return ENTITIES.keySet().size();
+        return getEntities().keySet().size();
     }
 
     public static Tile getEmptyTileBelow(Tile t) {
@@ -354,52 +343,14 @@ public class GameMethods {
     }
 
     public static boolean check4(String entityName) {
-        var entities = new Entity[gridHeight()][gridWidth()];
-        for (int i = 0 ; i < gridHeight() ; i ++) {
-            for(int j = 0 ; j < gridWidth() ; j ++) {
-                entities[i][j] = getEntityOver(getTileAt(j, i));
-            }
-        }
-
-        // horizontal check
-        for (int i = 0 ; i < gridHeight() ; i ++) {
-            int counter = 0;
-            for (int j = 0 ; j < gridWidth() ; j ++) {
-                counter = entities[i][j] != null && entities[i][j].getName().equals(entityName) ? counter + 1 : 0;
-                if(counter == 4) return true;
-            }
-        }
-        // vertical check
-        for (int j = 0 ; j < gridWidth() ; j ++) {
-            int counter = 0;
-            for (int i = 0 ; i < gridHeight() ; i ++) {
-                counter = entities[i][j] != null && entities[i][j].getName().equals(entityName) ? counter + 1 : 0;
-                if(counter == 4) return true;
-            }
-        }
-        // diagonal check1
-        for (int k = -gridHeight() ; k < gridWidth() ; k ++) {
-            int counter = 0;
-            for(int i = 0 ; i < gridWidth() ; i ++) {
-                if(0 <= i-k && i-k < gridHeight()) {
-                    counter = entities[i - k][i] != null && entities[i - k][i].getName().equals(entityName) ? counter + 1 : 0;
-                    if (counter == 4) return true;
-                }
-            }
-        }
-
-        // diagonal check2
-        for (int k = 0 ; k < gridWidth()+gridHeight()-1 ; k ++) {
-            int counter = 0;
-            for(int i = 0 ; i < gridWidth() ; i ++) {
-                if(0 <= k-i && k-i < gridHeight()) {
-                    counter = entities[k-i][i] != null && entities[k-i][i].getName().equals(entityName) ? counter + 1 : 0;
-                    if (counter == 4) return true;
-                }
-            }
-        }
+        return hasInARow(entityName, 4);
+    }
 
-        return false;
+    /**
+     * Whether runLength cells in a straight line (horizontal, vertical or diagonal) are all occupied by the given class
+     */
+    public static boolean hasInARow(String className, int runLength) {
+        return GameSession.current().lines().hasInARow(className, runLength);
     }
 
     public static int countClassAround(Tile tile, String className) {
@@ -418,7 +369,7 @@ public class GameMethods {
     }
 
     public static int randInt(int upperBound) {
-        return new Random().nextInt(upperBound);
+        return GameSession.current().random().nextInt(upperBound);
     }
 
 
@@ -1,9 +1,7 @@
 package gameplay;
 
-import javafx.scene.image.ImageView;
-
 public interface GameObject {
-    ImageView getImageView();
+    ObjectView getView();
 
     int getID();
 
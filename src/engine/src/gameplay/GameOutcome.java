@@ -0,0 +1,76 @@
+package gameplay;
+
+import java.util.Map;
+
+/**
+ * How one simulated game went
+ */
+public class GameOutcome {
+    private long mySeed;
+    private String myEndMessage;
+    private int myTurns, myInputs;
+    private long myNanos;
+    private long myFingerprint;
+    private Map<String, LatencyHistogram> myDispatchLatency;
+
+    public GameOutcome(long seed, String endMessage, int turns, int inputs, long nanos, long fingerprint,
+                       Map<String, LatencyHistogram> dispatchLatency) {
+        mySeed = seed;
+        myEndMessage = endMessage;
+        myTurns = turns;
+        myInputs = inputs;
+        myNanos = nanos;
+        myFingerprint = fingerprint;
+        myDispatchLatency = dispatchLatency;
+    }
+
+    /**
+     * Seed of the policy's random choices, enough to replay the game
+     */
+    public long getSeed() {
+        return mySeed;
+    }
+
+    /**
+     * The message the game ended with, or null if the policy gave up or the input limit was hit first
+     */
+    public String getEndMessage() {
+        return myEndMessage;
+    }
+
+    public boolean isFinished() {
+        return myEndMessage != null;
+    }
+
+    public int getTurns() {
+        return myTurns;
+    }
+
+    public int getInputs() {
+        return myInputs;
+    }
+
+    public long getNanos() {
+        return myNanos;
+    }
+
+    /**
+     * GameSession.fingerprint() of the final state; two runs of the same game ended identically if these match
+     */
+    public long getFingerprint() {
+        return myFingerprint;
+    }
+
+    /**
+     * GameSession.getDispatchLatency() at the end of the game
+     */
+    public Map<String, LatencyHistogram> getDispatchLatency() {
+        return myDispatchLatency;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("#%d: %s after %d turns (%d inputs, %.2f ms)",
+                mySeed, isFinished() ? myEndMessage : "unfinished", myTurns, myInputs, myNanos / 1e6);
+    }
+}
@@ -0,0 +1,41 @@
+package gameplay;
+
+import grids.Point;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads an exported game into the pieces a GameSession is made of
+ */
+public interface GameParser {
+    void loadFile(File file);
+
+    /**
+     * Makes the getters hand out fresh objects again, for starting another session of the game that was loaded
+     */
+    void reload();
+
+    Point getDimension();
+
+    String getBGMpath();
+
+    Map<String, Player> getPlayers();
+
+    Map<Integer, Entity> getEntities();
+
+    Map<String, EntityPrototype> getEntityPrototypes();
+
+    Map<Integer, Tile> getTiles();
+
+    Map<String, Phase> getPhases();
+
+    Map<String, Node> getNodes();
+
+    Set<Edge> getEdges();
+
+    Turn getTurn();
+
+    String getWinCondition();
+}
@@ -0,0 +1,39 @@
+package gameplay;
+
+import java.util.Random;
+
+/**
+ * java.util.Random with its state out in the open, so that a snapshot can capture it.
+ * Draws the exact same sequence as a Random with the same seed (nextGaussian aside).
+ */
+public class GameRandom extends Random {
+    private static final long serialVersionUID = 1L;
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    private long myState;
+
+    public GameRandom(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        myState = (seed ^ MULTIPLIER) & MASK; // called from Random's constructor, before our fields are initialized
+    }
+
+    @Override
+    protected int next(int bits) {
+        myState = (myState * MULTIPLIER + ADDEND) & MASK;
+        return (int) (myState >>> (48 - bits));
+    }
+
+    long getState() {
+        return myState;
+    }
+
+    void setState(long state) {
+        myState = state & MASK;
+    }
+}
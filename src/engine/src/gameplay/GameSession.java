@@ -0,0 +1,603 @@
+package gameplay;
+
+import grids.Point;
+import groovy.lang.Binding;
+import groovy.lang.GroovyShell;
+import groovy.lang.Script;
+import javafx.event.Event;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Everything one running game owns: its board, players, phase graph, turn and Groovy shell.
+ * <p>
+ * Scripts reach the engine through static GameMethods, so each thread has a current session
+ * that those calls resolve against. A session is made current by bind(), or by run()/call() for the duration
+ * of a single call, which is how a server can interleave many sessions on a pool of threads.
+ */
+public class GameSession {
+    private static final ThreadLocal<GameSession> CURRENT = new ThreadLocal<>();
+
+    int myGridWidth, myGridHeight;
+    Map<String, Player> myPlayers;
+    Map<Integer, Entity> myEntities;
+    SpatialIndex myEntityIndex;
+    LineDetector myLines;
+    BoardOccupancy myBoard;
+    Map<Integer, Player> myEntityOwners;
+    int myNextEntityID;
+    Map<String, EntityPrototype> myEntityPrototypes;
+    ClassIndex myClassIndex;
+    Map<Integer, Tile> myTiles;
+    TileGrid myTileGrid;
+    Map<String, Phase> myPhases;
+    Map<String, Node> myNodes;
+    Set<Edge> myEdges;
+    Map<String, OutgoingEdges> myOutgoingEdges;
+    String myWinCondition;
+    Turn myTurn;
+    ViewTracker myViews;
+    GameView myView;
+    List<ArgumentListener> myArgumentListeners;
+    OutgoingEdges myCurrentEdges;
+    String myListeningNode;
+    Initializer myInitializer;
+    Map<String, LatencyHistogram> myDispatchLatency = new TreeMap<>();
+
+    GroovyShell myShell;
+    ScriptCache myScripts;
+    boolean myTracing = true;
+    long mySeed;
+    GameRandom myRandom;
+    InputJournal myJournal;
+
+    public GameSession(
+            Point grid_dimension, String bgmPath,
+            Map<String, Player> players, Map<Integer, Entity> entities,
+            Map<String, EntityPrototype> entityPrototypes,
+            Map<Integer, Tile> tiles, TileGrid tileGrid, Map<String, Phase> phases,
+            String winCondition, Map<String, Node> nodes,
+            Set<Edge> edges, Turn turn, GameView view, Initializer initializer
+    ) {
+        myGridWidth = grid_dimension.getX();
+        myGridHeight = grid_dimension.getY();
+
+        myView = view;
+        myView.playMusic(bgmPath);
+
+        myPlayers = players;
+        myEntityOwners = new HashMap<>();
+        players.values().forEach(p -> p.getMyEntities().forEach(id -> myEntityOwners.put(id, p)));
+        myEntities = entities;
+        myNextEntityID = 1 + Math.max(
+                entities.keySet().stream().mapToInt(Integer::intValue).max().orElse(0),
+                myEntityOwners.keySet().stream().mapToInt(Integer::intValue).max().orElse(0)
+        );
+        myEntityIndex = new SpatialIndex(myGridWidth, myGridHeight);
+        myEntityPrototypes = entityPrototypes;
+        myClassIndex = new ClassIndex(entityPrototypes.keySet(), entities.values());
+        myTiles = tiles;
+        myTileGrid = tileGrid;
+        myPhases = phases;
+        myWinCondition = winCondition;
+        myNodes = nodes;
+        myEdges = edges;
+        myOutgoingEdges = OutgoingEdges.index(edges);
+        myTurn = turn;
+        myViews = new ViewTracker(entities.values(), tileGrid);
+        myArgumentListeners = new ArrayList<>();
+        myCurrentEdges = OutgoingEdges.NONE;
+        myInitializer = initializer;
+
+        var shared = new Binding();
+        shared.setVariable("GameMethods", GameMethods.class);
+        myShell = new GroovyShell(shared);
+        myScripts = new ScriptCache(myShell);
+        setSeed(new Random().nextLong());
+    }
+
+    /**
+     * The session GameMethods calls on this thread resolve against
+     */
+    public static GameSession current() {
+        var session = CURRENT.get();
+        if (session == null) throw new IllegalStateException("No game session is bound to this thread");
+        return session;
+    }
+
+    static GameSession currentOrNull() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes this the current session of the calling thread until another one is bound
+     */
+    public void bind() {
+        CURRENT.set(this);
+    }
+
+    /**
+     * Stops this from being the current session of the calling thread, if it is
+     */
+    public void unbind() {
+        if (CURRENT.get() == this) CURRENT.remove();
+    }
+
+    /**
+     * Runs the action with this as the current session, then restores whatever was current before
+     * (unless the action bound another session itself, as restarting a game does)
+     */
+    public void run(Runnable action) {
+        call(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T call(Supplier<T> action) {
+        var previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (CURRENT.get() == this) {
+                if (previous == null) CURRENT.remove();
+                else CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Makes this session reuse (and contribute to) classes compiled by other sessions of the same game
+     */
+    void shareCompiledScripts(Map<String, Class<? extends Script>> compiledClasses) {
+        myScripts = new ScriptCache(myShell, compiledClasses);
+    }
+
+    /**
+     * Reseeds the generator behind GameMethods.randInt and starts a new journal;
+     * only meaningful before the game starts, since replays start from a freshly loaded game
+     */
+    public void setSeed(long seed) {
+        mySeed = seed;
+        myRandom = new GameRandom(seed);
+        myJournal = new InputJournal(seed);
+    }
+
+    public long getSeed() {
+        return mySeed;
+    }
+
+    public Random random() {
+        return myRandom;
+    }
+
+    /**
+     * Every input since the game was loaded
+     */
+    public InputJournal getJournal() {
+        return myJournal;
+    }
+
+    /**
+     * Whether nodes and edges print what they run; batch simulations turn this off
+     */
+    public boolean isTracing() {
+        return myTracing;
+    }
+
+    public void setTracing(boolean tracing) {
+        myTracing = tracing;
+    }
+
+    /**
+     * Compiles every script the game can run up front so that none of them hits the Groovy compiler mid-game;
+     * scripts that come precompiled in a game package are loaded from it instead
+     */
+    void precompileScripts(ScriptPackage scriptPackage) {
+        if (scriptPackage != null) myScripts.usePackage(scriptPackage);
+        myNodes.values().forEach(node -> myScripts.precompile(node.getExecution()));
+        myEdges.forEach(edge -> myScripts.precompile(edge.getGuard()));
+        myEntityPrototypes.values().forEach(prototype -> myScripts.precompile(prototype.getImageSelector()));
+        myEntities.values().forEach(entity -> myScripts.precompile(entity.getImageSelector()));
+        myTiles.values().forEach(tile -> myScripts.precompile(tile.getImageSelector()));
+        myScripts.precompile(myWinCondition);
+    }
+
+    /**
+     * Times every script this session runs, named after the node, edge or class it belongs to
+     */
+    public void profileScripts(ScriptProfiler profiler) {
+        myScripts.setProfiler(profiler);
+        myNodes.values().forEach(node -> myScripts.describe(node.getExecution(), "node " + node.getPhaseName() + "/" + node.getName()));
+        myEdges.forEach(edge -> myScripts.describe(edge.getGuard(),
+                "guard " + edge.getPhaseName() + "/" + edge.getMyStartNodeName() + "->" + edge.getMyEndNodeName()));
+        myEntityPrototypes.values().forEach(prototype -> myScripts.describe(prototype.getImageSelector(), "selector " + prototype.name()));
+        myEntities.values().forEach(entity -> myScripts.describe(entity.getImageSelector(), "selector " + entity.getName()));
+        myTiles.values().forEach(tile -> myScripts.describe(tile.getImageSelector(), "selector " + tile.getName()));
+        myScripts.describe(myWinCondition, "winCondition");
+    }
+
+    public GroovyShell shell() {
+        return myShell;
+    }
+
+    /**
+     * Runs a piece of Groovy code through the compiled-script cache
+     */
+    public Object evaluate(String script) {
+        return myScripts.evaluate(script);
+    }
+
+    public ScriptCache scripts() {
+        return myScripts;
+    }
+
+    public Map<Integer, Entity> getEntities() {
+        return myEntities;
+    }
+
+    /**
+     * Registers an entity in the game along with the lookup structures that follow it around
+     */
+    public void addEntity(Entity entity) {
+        var previous = myEntities.put(entity.getID(), entity);
+        if (previous != null && previous != entity) {
+            myEntityIndex.remove(previous);
+            myClassIndex.remove(previous);
+            myViews.untrack(previous);
+        }
+        myEntityIndex.add(entity);
+        myClassIndex.add(entity);
+        myViews.track(entity);
+    }
+
+    public void removeEntity(Entity entity) {
+        myEntities.remove(entity.getID());
+        myEntityIndex.remove(entity);
+        myClassIndex.remove(entity);
+        myViews.untrack(entity);
+    }
+
+    /**
+     * Entities only know their coordinates once their views are set up,
+     * so the initializer calls this after setupView() instead of the constructor doing it
+     */
+    void indexEntities() {
+        myEntityIndex = new SpatialIndex(myGridWidth, myGridHeight);
+        myLines = new LineDetector(myGridWidth, myGridHeight);
+        myBoard = new BoardOccupancy(myGridWidth, myGridHeight);
+        myEntityIndex.addListener(myLines);
+        myEntityIndex.addListener(myBoard);
+        myEntities.values().forEach(myEntityIndex::add);
+    }
+
+    /**
+     * IDs are handed out monotonically and never reused, so removing entities can't cause collisions
+     */
+    public int allocateEntityID() {
+        return myNextEntityID++;
+    }
+
+    public Player getOwner(int entityID) {
+        return myEntityOwners.get(entityID);
+    }
+
+    void ownerChanged(int entityID, Player owner) {
+        var previous = myEntityOwners.put(entityID, owner);
+        if (previous != null && previous != owner) previous.forgetEntity(entityID);
+        if (entityID >= myNextEntityID) myNextEntityID = entityID + 1;
+    }
+
+    void ownerDropped(int entityID, Player owner) {
+        myEntityOwners.remove(entityID, owner);
+    }
+
+    void entityMoved(Entity entity) {
+        if (myEntityIndex != null) myEntityIndex.move(entity);
+        markDirty(entity);
+    }
+
+    /**
+     * Flags an object whose image selector has to be re-run on the next refreshViews()
+     */
+    void markDirty(Object object) {
+        if (myViews != null) myViews.markDirty(object);
+    }
+
+    public Phase getPhase(String phaseName) {
+        return myPhases.get(phaseName);
+    }
+
+    public Node getNode(String nodeName) {
+        return myNodes.get(nodeName);
+    }
+
+    public Map<Integer, Tile> getTiles() {
+        return myTiles;
+    }
+
+    public TileGrid getTileGrid() {
+        return myTileGrid;
+    }
+
+    public Player getPlayer(int playerID) {
+        return myPlayers.get(playerID);
+    }
+
+    public Map<String, Player> getPlayers() {
+        return myPlayers;
+    }
+
+    public Map<String, EntityPrototype> getEntityPrototypes() {
+        return myEntityPrototypes;
+    }
+
+    public int getGridWidth() {
+        return myGridWidth;
+    }
+
+    public int getGridHeight() {
+        return myGridHeight;
+    }
+
+    public String getWinCondition() {
+        return myWinCondition;
+    }
+
+    SpatialIndex entityIndex() {
+        return myEntityIndex;
+    }
+
+    ClassIndex classIndex() {
+        return myClassIndex;
+    }
+
+    LineDetector lines() {
+        return myLines;
+    }
+
+    BoardOccupancy board() {
+        return myBoard;
+    }
+
+    public GameView view() {
+        return myView;
+    }
+
+    public void addArgument(MouseEvent event, ClickTag tag) {
+        run(() -> {
+            myJournal.recordClick(tag);
+            var target = (tag.getType().equals(Tile.class) ? myTiles : myEntities).get(tag.getID());
+            myShell.setVariable("$clicked", target);
+            markDirty(target); // scripts often change $clicked.props in place, which the props can't see
+            notifyArgumentListeners(event);
+        });
+    }
+
+    public void addArgument(KeyEvent event, KeyTag tag) { // todo: connect this with the window
+        run(() -> {
+            myJournal.recordKey(tag.code());
+            myShell.setVariable("$pressed", tag.code());
+            notifyArgumentListeners(event);
+        });
+    }
+
+    /**
+     * Feeds a click on a tile or entity to the game as if it came from the screen, for games running headless
+     */
+    public void click(ClickTag tag) {
+        addArgument(clickEvent(), tag);
+    }
+
+    /**
+     * Whether clicking the tile or entity would take one of the edges currently listening;
+     * guards are evaluated but no node is executed, and $clicked is left as it was
+     */
+    public boolean acceptsClick(ClickTag tag) {
+        return call(() -> {
+            var binding = myShell.getContext();
+            var wasBound = binding.hasVariable("$clicked");
+            var previous = wasBound ? binding.getVariable("$clicked") : null;
+            try {
+                binding.setVariable("$clicked", (tag.getType().equals(Tile.class) ? myTiles : myEntities).get(tag.getID()));
+                return !dispatch(clickEvent()).equals(ArgumentListener.DONT_PASS);
+            } finally {
+                if (wasBound) binding.setVariable("$clicked", previous);
+                else binding.removeVariable("$clicked");
+            }
+        });
+    }
+
+    /**
+     * Every tile and then every entity (in ID order) whose click would currently be accepted
+     */
+    public List<ClickTag> legalClicks() {
+        var clicks = new ArrayList<ClickTag>();
+        new TreeSet<>(myTiles.keySet()).forEach(id -> clicks.add(new ClickTag(Tile.class, id)));
+        new TreeSet<>(myEntities.keySet()).forEach(id -> clicks.add(new ClickTag(Entity.class, id)));
+        clicks.removeIf(tag -> !acceptsClick(tag));
+        return clicks;
+    }
+
+    private static MouseEvent clickEvent() {
+        return new MouseEvent(
+                MouseEvent.MOUSE_CLICKED, 0, 0, 0, 0, MouseButton.PRIMARY, 1,
+                false, false, false, false, true, false, false, true, false, false, null
+        );
+    }
+
+    /**
+     * Feeds a key press (delivered on release, like the window does) to the game
+     */
+    public void press(KeyCode code) {
+        addArgument(new KeyEvent(KeyEvent.KEY_RELEASED, "", "", code, false, false, false, false), new KeyTag(code));
+    }
+
+
+    public void updateViews() {
+        if (!myView.showsImages()) return;
+        myEntities.values().forEach(Entity::updateView);
+        myTileGrid.forEach(Tile::updateView);
+    }
+
+    /**
+     * Only re-runs the image selectors of the objects touched since the last refresh
+     * and of those whose selectors depend on global state
+     */
+    public void refreshViews() {
+        if (myView.showsImages()) myViews.refresh();
+    }
+
+    public Turn getTurn() {
+        return myTurn;
+    }
+
+    public int getNextEntityID() {
+        return myNextEntityID;
+    }
+
+    public void addArgumentListener(ArgumentListener argumentListener) {
+        myArgumentListeners.add(argumentListener);
+    }
+
+    public void clearArgumentListeners() {
+        myArgumentListeners.clear();
+        myCurrentEdges = OutgoingEdges.NONE;
+        myListeningNode = null;
+    }
+
+    /**
+     * Makes the edges leaving the given node the ones that listen to the next input
+     */
+    public void listenToEdgesFrom(String nodeName) {
+        myListeningNode = nodeName;
+        myCurrentEdges = nodeName == null ? OutgoingEdges.NONE : getOutgoingEdges(nodeName);
+    }
+
+    public OutgoingEdges getOutgoingEdges(String nodeName) {
+        return myOutgoingEdges.getOrDefault(nodeName, OutgoingEdges.NONE);
+    }
+
+    // I really liked your way of having everything pipelined and tried to keep it,
+    // but the consequent execution() from the destination node
+    // clears/reinitialize the ArgumentListeners. That leads to ConcurrentModificationException
+    // So I had to explicitly separate the validity check and execution
+    private void notifyArgumentListeners(Event event) {
+        var start = System.nanoTime();
+        var destination = dispatch(event);
+        myDispatchLatency.computeIfAbsent(event.getEventType().getName(), k -> new LatencyHistogram())
+                .record(System.nanoTime() - start);
+        if (!destination.equals(ArgumentListener.DONT_PASS)) myNodes.get(destination).execute();
+    }
+
+    /**
+     * The node the event leads to, or DONT_PASS. Only the edges whose trigger can match the event are asked,
+     * in OutgoingEdges order, and the first guard that passes decides; the remaining guards are never run.
+     * Listeners added by scripts are only asked when no edge passes.
+     */
+    private String dispatch(Event event) {
+        for (Edge edge : myCurrentEdges.candidatesFor(event)) {
+            var destination = edge.trigger(event);
+            if (!destination.equals(ArgumentListener.DONT_PASS)) return destination;
+        }
+        for (ArgumentListener argumentListener : myArgumentListeners) {
+            var destination = argumentListener.trigger(event);
+            if (!destination.equals(ArgumentListener.DONT_PASS)) return destination;
+        }
+        return ArgumentListener.DONT_PASS;
+    }
+
+    /**
+     * Event type (e.g. MOUSE_CLICKED) -> how long choosing the edge for each such input took, guards included
+     * but not the node it led to
+     */
+    public Map<String, LatencyHistogram> getDispatchLatency() {
+        return Collections.unmodifiableMap(myDispatchLatency);
+    }
+
+    /**
+     * A hash of the board, ownership, properties and turn, for checking that a replay ended where the original did
+     */
+    public long fingerprint() {
+        long hash = 17;
+        for (var id : new TreeSet<>(myEntities.keySet())) {
+            var entity = myEntities.get(id);
+            var owner = getOwner(id);
+            hash = 31 * hash + id;
+            hash = 31 * hash + entity.getName().hashCode();
+            hash = 31 * hash + Double.hashCode(entity.getX());
+            hash = 31 * hash + Double.hashCode(entity.getY());
+            hash = 31 * hash + (owner == null ? 0 : owner.getName().hashCode());
+            hash = 31 * hash + stableHash(entity.props);
+        }
+        for (var id : new TreeSet<>(myTiles.keySet())) hash = 31 * hash + stableHash(myTiles.get(id).props);
+        hash = 31 * hash + myTurn.getCurrentPlayerName().hashCode();
+        return 31 * hash + myTurn.getTurnCount();
+    }
+
+    /**
+     * Like hashCode(), but the same from one run to the next: game objects hash by ID and enums by name
+     */
+    private static int stableHash(Object value) {
+        if (value == null) return 0;
+        if (value instanceof GameObject) return 31 * ((GameObject) value).getID() + ((GameObject) value).getName().hashCode();
+        if (value instanceof Enum) return ((Enum<?>) value).name().hashCode();
+        if (value instanceof Map) {
+            int hash = 0;
+            for (var entry : ((Map<?, ?>) value).entrySet()) hash += stableHash(entry.getKey()) ^ stableHash(entry.getValue());
+            return hash;
+        }
+        if (value instanceof Set) {
+            int hash = 0;
+            for (var element : (Set<?>) value) hash += stableHash(element);
+            return hash;
+        }
+        if (value instanceof Collection) {
+            int hash = 1;
+            for (var element : (Collection<?>) value) hash = 31 * hash + stableHash(element);
+            return hash;
+        }
+        if (value instanceof Number || value instanceof CharSequence || value instanceof Boolean || value instanceof Character) {
+            return value.hashCode();
+        }
+        return value.getClass().getName().hashCode();
+    }
+
+    public Collection<Edge> getEdges() {
+        return myEdges;
+    }
+
+    /**
+     * Freezes the whole state of the game; cheap enough to take before every move of a search.
+     * Throws UnsupportedValueException, naming the entity, tile or variable, if a script stored a value
+     * GameValueCodec can't write.
+     */
+    public GameSnapshot snapshot() {
+        return GameSnapshot.capture(this);
+    }
+
+    /**
+     * Puts the game back where the snapshot was taken, which has to be from a session of the same game.
+     * Inputs journaled since then are forgotten.
+     */
+    public void restore(GameSnapshot snapshot) {
+        run(() -> snapshot.restoreInto(this));
+    }
+
+    public void restartGame() {
+        myView.stopMusic();
+        myInitializer.resetRoot();
+        myInitializer.initGameData();
+        myInitializer.setScreenSize(700, 500);
+    }
+
+    public void stopMusic() {
+        myView.stopMusic();
+    }
+}
@@ -0,0 +1,353 @@
+package gameplay;
+
+import conversion.engine.UnsupportedValueException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static conversion.engine.ValueCodec.*;
+
+/**
+ * The complete state of a running game, frozen: entities, tiles, players, the turn, where every phase is,
+ * which edges are listening, the script variables and the random number generator.
+ * Restoring it puts a session of the same game back exactly where it was, which is what saving and continuing,
+ * undo, and trying out moves in an AI search all need.
+ * <p>
+ * The binary form is a header (magic, version, grid and tile count to check the game) followed by the sections
+ * in the order capture() writes them; props and variables use GameValueCodec.
+ * Entities built from a prototype only store the props they changed, so snapshots stay small.
+ */
+public class GameSnapshot {
+    private static final int MAGIC = 0x56475353; // "VGSS"
+    private static final int VERSION = 1;
+    private static final String METHODS_VARIABLE = "GameMethods";
+    private static final byte PLAIN_PROPS = 0, PROTOTYPE_PROPS = 1;
+
+    private byte[] myBytes;
+
+    private GameSnapshot(byte[] bytes) {
+        myBytes = bytes;
+    }
+
+    public static GameSnapshot fromBytes(byte[] bytes) {
+        var snapshot = new GameSnapshot(bytes.clone());
+        try {
+            snapshot.readHeader(snapshot.input());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return snapshot;
+    }
+
+    /**
+     * For storing a snapshot where only text fits, like a user's saved progress
+     */
+    public static GameSnapshot fromBase64(String text) {
+        return fromBytes(Base64.getDecoder().decode(text));
+    }
+
+    public byte[] toBytes() {
+        return myBytes.clone();
+    }
+
+    public String toBase64() {
+        return Base64.getEncoder().encodeToString(myBytes);
+    }
+
+    public int size() {
+        return myBytes.length;
+    }
+
+    static GameSnapshot capture(GameSession session) {
+        var bytes = new ByteArrayOutputStream(4096);
+        var out = new DataOutputStream(bytes);
+        var codec = new GameValueCodec(id -> null, id -> null, name -> null);
+        try {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            writeVarInt(out, session.myGridWidth);
+            writeVarInt(out, session.myGridHeight);
+            writeVarInt(out, session.myTiles.size());
+
+            out.writeLong(session.mySeed);
+            out.writeLong(session.myRandom.getState());
+            writeVarInt(out, session.myJournal.size());
+            writeVarInt(out, session.myJournal.length());
+            out.writeInt(session.myJournal.checksum(session.myJournal.length()));
+            writeVarInt(out, session.myNextEntityID);
+
+            var turn = session.myTurn;
+            writeNullableString(out, turn.getCurrentPhaseName());
+            writeStrings(out, turn.getPlayersOrder());
+            writeVarInt(out, turn.getPlayerIndex());
+            writeVarInt(out, turn.getTurnCount());
+            writeNullableString(out, session.myListeningNode);
+
+            writeVarInt(out, session.myPhases.size());
+            for (var entry : session.myPhases.entrySet()) {
+                writeString(out, entry.getKey());
+                writeNullableString(out, entry.getValue().getCurrentNodeName());
+            }
+
+            writeVarInt(out, session.myPlayers.size());
+            for (var player : session.myPlayers.values()) {
+                writeString(out, player.getName());
+                writeVarInt(out, player.getStats().size());
+                for (var stat : player.getStats().entrySet()) {
+                    writeString(out, stat.getKey());
+                    out.writeDouble(stat.getValue());
+                }
+                writeVarInt(out, player.getMyEntities().size());
+                for (var id : player.getMyEntities()) writeVarInt(out, id);
+            }
+
+            // entities come before any props, so that props referring to entities can be resolved on the way back
+            var entities = session.myEntities.values();
+            writeVarInt(out, entities.size());
+            for (var entity : entities) {
+                writeVarInt(out, entity.getID());
+                writeString(out, entity.getName());
+                writeNullableString(out, entity.getInstanceName());
+                writeVarInt(out, (int) entity.getWidth());
+                writeVarInt(out, (int) entity.getHeight());
+                writeStrings(out, entity.getImagePaths());
+                writeString(out, entity.getImageSelector());
+                out.writeDouble(entity.getX());
+                out.writeDouble(entity.getY());
+            }
+            for (var entity : entities) {
+                try {
+                    writeProps(out, codec, entity.untrackedProps(), session.myEntityPrototypes.get(entity.getName()));
+                } catch (UnsupportedValueException e) {
+                    throw new UnsupportedValueException("Entity " + entity.getID() + " (" + entity.getName() + ")", e);
+                }
+            }
+            for (var tile : session.myTiles.values()) {
+                writeVarInt(out, tile.getID());
+                try {
+                    codec.writeMap(out, tile.untrackedProps());
+                } catch (UnsupportedValueException e) {
+                    throw new UnsupportedValueException("Tile " + tile.getID() + " (" + tile.getName() + ")", e);
+                }
+            }
+
+            var gameVariables = new LinkedHashMap<String, Object>();
+            variables(session).forEach((name, value) -> {
+                if (isGameVariable(name)) gameVariables.put(name, value);
+            });
+            writeVarInt(out, gameVariables.size());
+            for (var variable : gameVariables.entrySet()) {
+                codec.write(out, variable.getKey());
+                try {
+                    codec.write(out, variable.getValue());
+                } catch (UnsupportedValueException e) {
+                    throw new UnsupportedValueException("Script variable " + variable.getKey(), e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new GameSnapshot(bytes.toByteArray());
+    }
+
+    /**
+     * Only called by GameSession.restore(), with the session bound
+     */
+    void restoreInto(GameSession session) {
+        try {
+            var in = input();
+            var header = readHeader(in);
+            if (header[0] != session.myGridWidth || header[1] != session.myGridHeight || header[2] != session.myTiles.size()) {
+                throw new IllegalArgumentException("Snapshot was taken from a different game");
+            }
+
+            var seed = in.readLong();
+            var state = in.readLong();
+            var journalSize = readVarInt(in);
+            var journalLength = readVarInt(in);
+            var journalChecksum = in.readInt();
+            restoreRandom(session, seed, state, journalSize, journalLength, journalChecksum);
+            session.myNextEntityID = readVarInt(in);
+
+            var phaseName = readNullableString(in);
+            var order = readStrings(in);
+            session.myTurn.restore(phaseName, order, readVarInt(in), readVarInt(in));
+            session.listenToEdgesFrom(readNullableString(in));
+
+            var phases = readVarInt(in);
+            for (int i = 0; i < phases; i++) {
+                var phase = session.myPhases.get(readString(in));
+                var node = readNullableString(in);
+                if (phase != null) phase.restore(node);
+            }
+
+            var players = readVarInt(in);
+            for (int i = 0; i < players; i++) {
+                var player = session.myPlayers.get(readString(in));
+                var stats = new HashMap<String, Double>();
+                var statCount = readVarInt(in);
+                for (int j = 0; j < statCount; j++) stats.put(readString(in), in.readDouble());
+                var ids = new ArrayList<Integer>();
+                var idCount = readVarInt(in);
+                for (int j = 0; j < idCount; j++) ids.add(readVarInt(in));
+                if (player != null) player.restore(stats, ids);
+            }
+            session.myEntityOwners.clear();
+            session.myPlayers.values().forEach(p -> p.getMyEntities().forEach(id -> session.myEntityOwners.put(id, p)));
+
+            var created = restoreEntities(in, session);
+            var codec = new GameValueCodec(session.myEntities::get, session.myTiles::get, session.myPlayers::get);
+            for (var entity : session.myEntities.values()) entity.setProps(readProps(in, codec, session.myEntityPrototypes.get(entity.getName())));
+            for (int i = 0; i < header[2]; i++) {
+                var tile = session.myTiles.get(readVarInt(in));
+                var props = codec.readMap(in, new LinkedHashMap<String, Object>());
+                if (tile != null) tile.setProps(props);
+            }
+
+            var variables = variables(session);
+            variables.keySet().removeIf(GameSnapshot::isGameVariable);
+            variables.putAll(codec.readMap(in, new LinkedHashMap<>()));
+
+            session.indexEntities();
+            session.myClassIndex = new ClassIndex(session.myEntityPrototypes.keySet(), session.myEntities.values());
+            session.myViews = new ViewTracker(session.myEntities.values(), session.myTileGrid);
+            var view = session.myView;
+            for (var entity : created) {
+                entity.adjustViewSize(view.getWidth(), view.getHeight());
+                view.show(entity.getView());
+            }
+            session.updateViews();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Entities that are still around (same ID and class) are moved back in place and keep their views;
+     * the others are rebuilt, and the ones the snapshot doesn't know are taken off the screen.
+     * Returns the rebuilt ones, which still have to be shown once their props are back.
+     */
+    private List<Entity> restoreEntities(DataInput in, GameSession session) throws IOException {
+        var previous = new HashMap<>(session.myEntities);
+        var restored = new LinkedHashMap<Integer, Entity>();
+        var created = new ArrayList<Entity>();
+        var count = readVarInt(in);
+        for (int i = 0; i < count; i++) {
+            var id = readVarInt(in);
+            var name = readString(in);
+            var instanceName = readNullableString(in);
+            var width = readVarInt(in);
+            var height = readVarInt(in);
+            var imagePaths = readStrings(in);
+            var imageSelector = readString(in);
+            var x = in.readDouble();
+            var y = in.readDouble();
+
+            var entity = previous.remove(id);
+            if (entity == null || !entity.getName().equals(name)) {
+                if (entity != null) session.myView.hide(entity.getView());
+                entity = new Entity(id, (int) x, (int) y, width, height, name, Map.of(), imagePaths, imageSelector);
+                entity.setInstanceName(instanceName);
+                created.add(entity);
+            }
+            entity.restoreLocation(x, y);
+            restored.put(id, entity);
+        }
+        previous.values().forEach(entity -> session.myView.hide(entity.getView()));
+        session.myEntities.clear();
+        session.myEntities.putAll(restored);
+        return created;
+    }
+
+    /**
+     * The session's journal is kept (rewound to the snapshot) only if it is the game the snapshot was taken from:
+     * same seed, and the inputs recorded up to the snapshot are the same ones
+     */
+    private static void restoreRandom(GameSession session, long seed, long state, int journalSize, int journalLength, int journalChecksum) {
+        var journal = session.myJournal;
+        if (journal.getSeed() == seed && journal.size() >= journalSize && journal.length() >= journalLength
+                && journal.checksum(journalLength) == journalChecksum) {
+            journal.rewind(journalSize, journalLength); // going back in the same game
+        } else {
+            session.myJournal = new InputJournal(seed); // a replay of this journal has to start from the snapshot
+        }
+        session.mySeed = seed;
+        session.myRandom = new GameRandom(seed);
+        session.myRandom.setState(state);
+    }
+
+    /**
+     * Props still reading through to their prototype's defaults are written as the difference from them
+     */
+    private static void writeProps(DataOutput out, GameValueCodec codec, Map<String, Object> props, EntityPrototype prototype) throws IOException {
+        if (props instanceof CopyOnWriteProperties && prototype != null
+                && ((CopyOnWriteProperties) props).shared() == prototype.sharedProps()) {
+            var cow = (CopyOnWriteProperties) props;
+            out.writeByte(PROTOTYPE_PROPS);
+            codec.writeMap(out, cow.own());
+            writeStrings(out, new ArrayList<>(cow.removed()));
+        } else {
+            out.writeByte(PLAIN_PROPS);
+            codec.writeMap(out, props);
+        }
+    }
+
+    private static Map<String, Object> readProps(DataInput in, GameValueCodec codec, EntityPrototype prototype) throws IOException {
+        var kind = in.readByte();
+        if (kind == PLAIN_PROPS) return codec.readMap(in, new LinkedHashMap<>());
+        if (kind != PROTOTYPE_PROPS) throw new IOException("Unknown props kind " + kind);
+        var props = prototype == null ? new CopyOnWriteProperties() : prototype.freshMap();
+        codec.readMap(in, props);
+        readStrings(in).forEach(props::remove);
+        return props;
+    }
+
+    /**
+     * Variables scripts left in the binding; the engine's own ($this, $clicked ...) only live for one call
+     */
+    private static boolean isGameVariable(String name) {
+        return !name.startsWith("$") && !name.equals(METHODS_VARIABLE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> variables(GameSession session) {
+        return session.myShell.getContext().getVariables();
+    }
+
+    private DataInputStream input() {
+        return new DataInputStream(new ByteArrayInputStream(myBytes));
+    }
+
+    /**
+     * Returns the grid width, height and tile count the snapshot was taken with
+     */
+    private int[] readHeader(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a game snapshot");
+        var version = in.readByte();
+        if (version != VERSION) throw new IOException("Unsupported snapshot version " + version);
+        return new int[]{readVarInt(in), readVarInt(in), readVarInt(in)};
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof GameSnapshot && Arrays.equals(myBytes, ((GameSnapshot) other).myBytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(myBytes);
+    }
+}
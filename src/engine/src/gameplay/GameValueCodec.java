@@ -0,0 +1,51 @@
+package gameplay;
+
+import conversion.engine.ValueCodec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * ValueCodec that also writes entities and tiles, as references by ID, and players, as references by name
+ */
+public class GameValueCodec extends ValueCodec {
+    private static final byte ENTITY = FIRST_REFERENCE_TAG, TILE = FIRST_REFERENCE_TAG + 1, PLAYER = FIRST_REFERENCE_TAG + 2;
+
+    private IntFunction<? extends GameObject> myEntities, myTiles;
+    private Function<String, Player> myPlayers;
+
+    /**
+     * The functions turn IDs and names read back into the entities, tiles and players they referred to
+     */
+    public GameValueCodec(IntFunction<? extends GameObject> entities, IntFunction<? extends GameObject> tiles,
+                          Function<String, Player> players) {
+        myEntities = entities;
+        myTiles = tiles;
+        myPlayers = players;
+    }
+
+    @Override
+    protected int referenceTag(Object value) {
+        if (value instanceof Entity) return ENTITY;
+        if (value instanceof Tile) return TILE;
+        if (value instanceof Player) return PLAYER;
+        return -1;
+    }
+
+    @Override
+    protected void writeReference(DataOutput out, Object value) throws IOException {
+        if (value instanceof Player) writeString(out, ((Player) value).getName());
+        else writeVarInt(out, ((GameObject) value).getID());
+    }
+
+    @Override
+    protected Object readReference(int tag, DataInput in) throws IOException {
+        if (tag == ENTITY) return myEntities.apply(readVarInt(in));
+        if (tag == TILE) return myTiles.apply(readVarInt(in));
+        if (tag == PLAYER) return myPlayers.apply(readString(in));
+        return super.readReference(tag, in);
+    }
+}
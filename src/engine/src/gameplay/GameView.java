@@ -0,0 +1,49 @@
+package gameplay;
+
+import java.util.List;
+
+/**
+ * Everything the game model needs from whatever presents the game to the players:
+ * sprites for entities and tiles, background music and the end-of-game dialog.
+ * <p>
+ * FxGameView draws on a JavaFX Pane; HeadlessView does nothing, so that games can be run without a display.
+ */
+public interface GameView {
+    /**
+     * Makes the sprite of a tile or entity; it isn't displayed until passed to show()
+     */
+    ObjectView createView(GameObject object, List<String> imagePaths);
+
+    void show(ObjectView view);
+
+    void hide(ObjectView view);
+
+    /**
+     * Removes every sprite
+     */
+    void clear();
+
+    void resize(double screenWidth, double screenHeight);
+
+    double getWidth();
+
+    double getHeight();
+
+    void playMusic(String path);
+
+    void stopMusic();
+
+    void endGame(String message);
+
+    /**
+     * Whether image selectors have to run at all; a view that draws nothing can skip them
+     */
+    boolean showsImages();
+
+    /**
+     * Called by the GameLoop after each input, once the model is consistent again.
+     * A view that defers its changes to another thread may show everything it was told up to here.
+     */
+    default void endBatch() {
+    }
+}
@@ -0,0 +1,88 @@
+package gameplay;
+
+import java.util.List;
+
+/**
+ * A view that displays nothing, plays nothing and asks nothing, for running games on machines without a display.
+ * It only remembers the message the game ended with.
+ */
+public class HeadlessView implements GameView {
+    private static final ObjectView NO_VIEW = new ObjectView() {
+        @Override
+        public void showImage(int imageIndex) {
+        }
+
+        @Override
+        public void relocate(double x, double y) {
+        }
+
+        @Override
+        public void resize(double screenWidth, double screenHeight) {
+        }
+    };
+
+    private double myWidth, myHeight;
+    private String myEndMessage;
+
+    @Override
+    public ObjectView createView(GameObject object, List<String> imagePaths) {
+        return NO_VIEW;
+    }
+
+    @Override
+    public void show(ObjectView view) {
+    }
+
+    @Override
+    public void hide(ObjectView view) {
+    }
+
+    @Override
+    public void clear() {
+    }
+
+    @Override
+    public void resize(double screenWidth, double screenHeight) {
+        myWidth = screenWidth;
+        myHeight = screenHeight;
+    }
+
+    @Override
+    public double getWidth() {
+        return myWidth;
+    }
+
+    @Override
+    public double getHeight() {
+        return myHeight;
+    }
+
+    @Override
+    public void playMusic(String path) {
+    }
+
+    @Override
+    public void stopMusic() {
+    }
+
+    @Override
+    public void endGame(String message) {
+        myEndMessage = message;
+    }
+
+    @Override
+    public boolean showsImages() {
+        return false;
+    }
+
+    public boolean isOver() {
+        return myEndMessage != null;
+    }
+
+    /**
+     * The message passed to GameMethods.endGame, or null while the game is still going
+     */
+    public String getEndMessage() {
+        return myEndMessage;
+    }
+}
@@ -0,0 +1,124 @@
+package gameplay;
+
+import javafx.scene.image.Image;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide cache of decoded images, keyed by path and requested size,
+ * so that every tile of the same class shares one Image instead of decoding its own copy.
+ * <p>
+ * Entries are softly referenced: the GC is free to drop images nobody displays anymore when memory gets tight,
+ * and they are simply decoded again the next time they're asked for.
+ */
+public class ImageCache {
+    private static final Map<Key, Entry> CACHE = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<Image> CLEARED = new ReferenceQueue<>();
+    private static final LongAdder DECODE_NANOS = new LongAdder();
+    private static final LongAdder DECODES = new LongAdder();
+
+    private ImageCache() {
+    }
+
+    /**
+     * The image at its natural size
+     */
+    public static Image get(String path) {
+        return get(path, 0, 0, false);
+    }
+
+    public static Image get(String path, double width, double height, boolean smooth) {
+        expungeCleared();
+        var key = new Key(path, width, height, smooth);
+        var cached = CACHE.get(key);
+        var image = cached == null ? null : cached.get();
+        if (image == null) {
+            image = decode(key);
+            CACHE.put(key, new Entry(key, image));
+        }
+        return image;
+    }
+
+    public static int size() {
+        expungeCleared();
+        return CACHE.size();
+    }
+
+    /**
+     * Total time spent decoding images so far, for telling image loading apart in startup profiles
+     */
+    public static long decodeNanos() {
+        return DECODE_NANOS.sum();
+    }
+
+    /**
+     * Number of images decoded so far; every other request was answered from the cache
+     */
+    public static long decodes() {
+        return DECODES.sum();
+    }
+
+    public static void clear() {
+        CACHE.clear();
+    }
+
+    private static Image decode(Key key) {
+        var start = System.nanoTime();
+        DECODES.increment();
+        try (var in = Objects.requireNonNull(PathUtility.getResourceAsStream(key.path))) {
+            if (key.width == 0 && key.height == 0 && !key.smooth) return new Image(in);
+            return new Image(in, key.width, key.height, false, key.smooth);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            DECODE_NANOS.add(System.nanoTime() - start);
+        }
+    }
+
+    private static void expungeCleared() {
+        Entry cleared;
+        while ((cleared = (Entry) CLEARED.poll()) != null) CACHE.remove(cleared.key, cleared);
+    }
+
+    private static class Entry extends SoftReference<Image> {
+        private final Key key;
+
+        private Entry(Key key, Image image) {
+            super(image, CLEARED);
+            this.key = key;
+        }
+    }
+
+    private static class Key {
+        private final String path;
+        private final double width, height;
+        private final boolean smooth;
+
+        private Key(String path, double width, double height, boolean smooth) {
+            this.path = path;
+            this.width = width;
+            this.height = height;
+            this.smooth = smooth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            var other = (Key) o;
+            return path.equals(other.path) && Double.compare(width, other.width) == 0 &&
+                    Double.compare(height, other.height) == 0 && smooth == other.smooth;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, width, height, smooth);
+        }
+    }
+}
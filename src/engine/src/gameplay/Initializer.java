@@ -1,50 +1,190 @@
 package gameplay;
 
+import groovy.lang.Script;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.Pane;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public class Initializer {
-    XMLParser myXMLParser;
-    Pane myRoot;
+    XMLGameParser myXMLParser;
+    GameParser myParser; // the parser sessions are built from: myXMLParser unless a binary package was loaded
+    GameView myView;
+    GameSession mySession;
+    Map<String, Class<? extends Script>> myCompiledScripts;
+    boolean myTracing = true;
+    Long mySeed;
     String myFileName;
+    ScriptPackage myScriptPackage;
+    StartupProfile myStartupProfile = new StartupProfile();
+    ScriptProfiler myScriptProfiler = ScriptProfiler.fromProperty();
+    GameLoop myLoop;
 
     public Initializer() {
-        myXMLParser = new XMLParser();
-        myRoot = new Pane();
+        this(new FxGameView());
+    }
+
+    /**
+     * Pass a HeadlessView to run the game without a display.
+     * A game shown on an FxGameView plays its inputs on a GameLoop, away from the FX thread.
+     */
+    public Initializer(GameView view) {
+        myXMLParser = myStartupProfile.time("newParser", StreamingXMLParser::new);
+        myParser = myXMLParser;
+        myView = view;
+        if (view instanceof FxGameView) {
+            myLoop = new GameLoop(this::getSession, view);
+            ((FxGameView) view).setLoop(myLoop);
+        }
     }
 
     public Initializer(File file) {
-        this();
+        this(file, new FxGameView());
+    }
+
+    public Initializer(File file, GameView view) {
+        this(view);
         myFileName = file.getName().substring(0, file.getName().length() - 4);
-        myXMLParser.loadFile(file);
+        myStartupProfile.run("load", () -> {
+            if (BinaryGameParser.isPackage(file)) loadBinaryPackage(file);
+            else if (ScriptPackage.isPackage(file)) loadPackage(file);
+            else {
+                myXMLParser.loadFile(file);
+                myParser = myXMLParser;
+            }
+        });
         initGameData();
     }
 
     public Initializer(String xml) {
-        this();
-        myFileName = "";
-        myXMLParser.loadXML(xml);
+        this(xml, new FxGameView());
+    }
+
+    public Initializer(String xml, GameView view) {
+        this(view);
+        loadXML(xml);
         initGameData();
     }
 
-    public void initGameData() {
-        GameData.setGameData(
-                myXMLParser.getDimension(), myXMLParser.getBGMpath(), myXMLParser.getPlayers(), myXMLParser.getEntities(),
-                myXMLParser.getEntityPrototypes(), myXMLParser.getTiles(),
-                myXMLParser.getPhases(), myXMLParser.getWinCondition(),
-                myXMLParser.getNodes(), myXMLParser.getEdges(), myXMLParser.getTurn(), myRoot, this);
-
-        for (Tile tile : GameData.getTiles().values()) {
-            tile.setupView();
-            myRoot.getChildren().add(tile.getImageView());
-        }
-        for (Entity entity : GameData.getEntities().values()) {
-            entity.setupView();
-            myRoot.getChildren().add(entity.getImageView());
+    /**
+     * Loads a game without starting it, for callers that configure the session before calling initGameData()
+     */
+    public void loadXML(String xml) {
+        myFileName = "";
+        myStartupProfile.run("loadXML", () -> myXMLParser.loadXML(xml));
+        myParser = myXMLParser;
+    }
+
+    /**
+     * Lets the sessions started by this initializer reuse scripts compiled by other sessions of the same game
+     */
+    public void shareCompiledScripts(Map<String, Class<? extends Script>> compiledScripts) {
+        myCompiledScripts = compiledScripts;
+    }
+
+    public void setTracing(boolean tracing) {
+        myTracing = tracing;
+    }
+
+    /**
+     * Profiles the scripts of the sessions started from now on; null turns it off
+     */
+    public void setScriptProfiler(ScriptProfiler profiler) {
+        myScriptProfiler = profiler;
+    }
+
+    /**
+     * Fixes the seed of the next session's random number generator, e.g. to replay a journal
+     */
+    public void setSeed(long seed) {
+        mySeed = seed;
+    }
+
+    private void loadPackage(File file) {
+        try {
+            loadPackage(new ScriptPackage(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        startGame();
+    }
+
+    /**
+     * Loads a game package without starting it
+     */
+    public void loadPackage(ScriptPackage scriptPackage) {
+        myScriptPackage = scriptPackage;
+        myXMLParser.loadXML(myScriptPackage.xml());
+        myParser = myXMLParser;
+    }
+
+    /**
+     * Loads a binary game package (see BinaryGamePackage) without starting it
+     */
+    public void loadBinaryPackage(File file) {
+        var parser = new BinaryGameParser();
+        parser.loadFile(file);
+        myParser = parser;
+        myScriptPackage = parser.scripts();
+    }
+
+    /**
+     * Starts sessions from a game read before, without parsing it again
+     */
+    public void loadParsed(ParsedGame game) {
+        myFileName = "";
+        myParser = game;
+        myScriptPackage = game.scripts();
+    }
+
+    public void initGameData() {
+        myStartupProfile.run("initGameData", () -> {
+            if (mySession != null) { // restarting: the last session still holds the objects read before
+                myStartupProfile.run("reload", myParser::reload);
+            }
+            var parser = myParser;
+            var profile = myStartupProfile;
+            var dimension = profile.time("getDimension", parser::getDimension);
+            var tiles = profile.time("getTiles", parser::getTiles);
+            var players = profile.time("getPlayers", parser::getPlayers);
+            var entities = profile.time("getEntities", parser::getEntities);
+            var prototypes = profile.time("getEntityPrototypes", parser::getEntityPrototypes);
+            var phases = profile.time("getPhases", parser::getPhases);
+            var nodes = profile.time("getNodes", parser::getNodes);
+            var edges = profile.time("getEdges", parser::getEdges);
+            var turn = profile.time("getTurn", parser::getTurn);
+            profile.run("newSession", () -> {
+                mySession = new GameSession(
+                        dimension, parser.getBGMpath(), players, entities, prototypes, tiles,
+                        new TileGrid(dimension, tiles.values()), phases, parser.getWinCondition(),
+                        nodes, edges, turn, myView, this);
+                mySession.bind();
+                mySession.setTracing(myTracing);
+                if (mySeed != null) mySession.setSeed(mySeed);
+                if (myCompiledScripts != null) mySession.shareCompiledScripts(myCompiledScripts);
+            });
+            profile.run("compileScripts", () -> mySession.precompileScripts(myScriptPackage));
+            if (myScriptProfiler != null) mySession.profileScripts(myScriptProfiler);
+
+            profile.run("setupView", () -> {
+                var decoded = ImageCache.decodeNanos();
+                for (Tile tile : mySession.getTileGrid()) {
+                    tile.setupView();
+                    myView.show(tile.getView());
+                }
+                for (Entity entity : mySession.getEntities().values()) {
+                    entity.setupView();
+                    myView.show(entity.getView());
+                }
+                profile.record("imageDecode", ImageCache.decodeNanos() - decoded);
+            });
+            profile.run("indexEntities", mySession::indexEntities);
+            profile.run("startPhase", this::startGame);
+        });
     }
 
     /**
@@ -52,33 +192,112 @@ public class Initializer {
      */
     public String getFileName() { return myFileName; }
 
+    /**
+     * The pane the game is drawn on, or null if it isn't running on an FxGameView
+     */
     public Pane getRoot() {
-        return myRoot;
+        return myView instanceof FxGameView ? ((FxGameView) myView).getRoot() : null;
+    }
+
+    public GameView getView() {
+        return myView;
+    }
+
+    public GameSession getSession() {
+        return mySession;
+    }
+
+    /**
+     * The thread the game's inputs are played on, or null if they are played on the caller's thread
+     */
+    public GameLoop getLoop() {
+        return myLoop;
+    }
+
+    public StartupProfile getStartupProfile() {
+        return myStartupProfile;
+    }
+
+    /**
+     * Called by the launcher once the game has been drawn; prints the startup report if profiling is on
+     */
+    public void firstFrameShown() {
+        if (myStartupProfile.firstFrame()) System.out.print(myStartupProfile.report());
     }
 
     public void keyFilter(KeyEvent ev) {
-        GameData.addArgument(ev, new KeyTag(ev.getCode()));
+        if (myLoop != null) myLoop.press(ev.getCode());
+        else mySession.addArgument(ev, new KeyTag(ev.getCode()));
+    }
+
+    /**
+     * Runs the action where the game's inputs are played, so it never sees the game in the middle of a turn;
+     * the caller doesn't wait for it, so the FX thread goes on drawing meanwhile
+     */
+    private <T> CompletableFuture<T> onLogicThread(Supplier<T> action) {
+        if (myLoop != null) return myLoop.supply(action);
+        try {
+            return CompletableFuture.completedFuture(action.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
     }
 
+    /**
+     * Resizes the game on the logic thread once the inputs queued before have been played;
+     * images of the new size are decoded there too
+     */
     public void setScreenSize(double screenWidth, double screenHeight) {
-        myRoot.setPrefWidth(screenWidth);
-        myRoot.setPrefHeight(screenHeight);
-        GameData.getTiles().values().forEach(e -> e.adjustViewSize(screenWidth, screenHeight));
-        GameData.getEntities().values().forEach(e -> e.adjustViewSize(screenWidth, screenHeight));
-        GameData.updateViews();
+        if (myLoop == null) resizeViews(screenWidth, screenHeight);
+        else myLoop.submit(() -> resizeViews(screenWidth, screenHeight));
+    }
+
+    private void resizeViews(double screenWidth, double screenHeight) {
+        myStartupProfile.run("adjustViewSize", () -> {
+            var decoded = ImageCache.decodeNanos();
+            myView.resize(screenWidth, screenHeight);
+            mySession.run(() -> {
+                mySession.getTileGrid().forEach(e -> e.adjustViewSize(screenWidth, screenHeight));
+                mySession.getEntities().values().forEach(e -> e.adjustViewSize(screenWidth, screenHeight));
+                mySession.updateViews();
+            });
+            myStartupProfile.record("imageDecode", ImageCache.decodeNanos() - decoded);
+        });
     }
 
     public void resetRoot() {
-        myRoot.getChildren().clear();
+        myView.clear();
     }
 
     public void startGame() {
-        myXMLParser.getTurn().startPhase();
+        mySession.run(() -> mySession.getTurn().startPhase());
     }
 
-    public void saveGame() {
-        String xmlString = GameData.saveGameData();
+    /**
+     * Takes a snapshot between two inputs; the future completes on the logic thread
+     */
+    public CompletableFuture<GameSnapshot> saveGame() {
+        return onLogicThread(() -> mySession.snapshot());
+    }
+
+    /**
+     * Continues a game saved from a session of the same game; the future fails if the snapshot doesn't fit it
+     */
+    public CompletableFuture<Void> loadGame(GameSnapshot snapshot) {
+        return onLogicThread(() -> {
+            mySession.restore(snapshot);
+            return null;
+        });
     }
 
-    public void stopMusic() { GameData.stopMusic(); }
+    public void stopMusic() { mySession.stopMusic(); }
+
+    /**
+     * Stops the music, the logic thread and the frames of a game whose window was closed
+     */
+    public void close() {
+        stopMusic();
+        if (myLoop != null) myLoop.stop();
+        if (myView instanceof FxGameView) ((FxGameView) myView).dispose();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+package gameplay;
+
+import javafx.scene.input.KeyCode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static conversion.engine.ValueCodec.readVarInt;
+import static conversion.engine.ValueCodec.writeVarInt;
+
+/**
+ * Every input a session received, in order, along with the seed of its random number generator:
+ * enough to play the game again exactly as it went (see Simulation.replay()).
+ * <p>
+ * The binary form is a header (magic, version, seed) followed by one record per input:
+ * the sequence number as a varint, a type byte, then the tile or entity ID as a varint, or the key's name.
+ * A click costs 3 to 5 bytes.
+ */
+public class InputJournal {
+    private static final int MAGIC = 0x56474A4E; // "VGJN"
+    private static final int VERSION = 1;
+    private static final byte TILE_CLICK = 0, ENTITY_CLICK = 1, KEY_PRESS = 2;
+    private static final int MIN_RECORD_LENGTH = 3;
+
+    private long mySeed;
+    private ByteArrayOutputStream myBytes;
+    private DataOutputStream myOut;
+    private int mySize;
+
+    public InputJournal(long seed) {
+        mySeed = seed;
+        myBytes = new ByteArrayOutputStream();
+        myOut = new DataOutputStream(myBytes);
+    }
+
+    public void recordClick(ClickTag tag) {
+        try {
+            writeVarInt(myOut, mySize++);
+            myOut.writeByte(tag.getType().equals(Tile.class) ? TILE_CLICK : ENTITY_CLICK);
+            writeVarInt(myOut, tag.getID());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void recordKey(KeyCode code) {
+        try {
+            writeVarInt(myOut, mySize++);
+            myOut.writeByte(KEY_PRESS);
+            myOut.writeUTF(code.name());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long getSeed() {
+        return mySeed;
+    }
+
+    public int size() {
+        return mySize;
+    }
+
+    /**
+     * Length of the records so far, in bytes; with size() it marks a point rewind() can go back to
+     */
+    int length() {
+        return myBytes.size();
+    }
+
+    /**
+     * CRC-32 of the first length bytes of the records, to tell whether two journals agree up to a mark
+     */
+    int checksum(int length) {
+        var crc = new CRC32();
+        crc.update(myBytes.toByteArray(), 0, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Forgets the inputs recorded after the mark, as when a session is restored to an earlier snapshot
+     */
+    void rewind(int size, int length) {
+        var kept = Arrays.copyOf(myBytes.toByteArray(), length);
+        myBytes.reset();
+        myBytes.write(kept, 0, length);
+        mySize = size;
+    }
+
+    /**
+     * The recorded inputs as ClickTags and KeyCodes, the form InputPolicy.scripted() takes
+     */
+    public List<Object> inputs() {
+        try {
+            return decode();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Object> decode() throws IOException {
+        var inputs = new ArrayList<>(mySize);
+        var in = new DataInputStream(new ByteArrayInputStream(myBytes.toByteArray()));
+        for (int i = 0; i < mySize; i++) {
+            var sequence = readVarInt(in);
+            if (sequence != i) throw new IOException("Journal out of sequence at input " + i);
+            var type = in.readByte();
+            if (type == TILE_CLICK) inputs.add(new ClickTag(Tile.class, readVarInt(in)));
+            else if (type == ENTITY_CLICK) inputs.add(new ClickTag(Entity.class, readVarInt(in)));
+            else if (type == KEY_PRESS) inputs.add(KeyCode.valueOf(in.readUTF()));
+            else throw new IOException("Unknown input type " + type);
+        }
+        if (in.available() > 0) throw new IOException(in.available() + " bytes left after the last input");
+        return inputs;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        var data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeLong(mySeed);
+        data.writeInt(mySize);
+        myBytes.writeTo(data);
+        data.flush();
+    }
+
+    public byte[] toBytes() {
+        var out = new ByteArrayOutputStream();
+        try {
+            writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads a journal written by writeTo(), checking that the records hold exactly the inputs its header counts
+     */
+    public static InputJournal read(InputStream in) throws IOException {
+        var data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) throw new IOException("Not an input journal");
+        var version = data.readByte();
+        if (version != VERSION) throw new IOException("Unsupported journal version " + version);
+        var journal = new InputJournal(data.readLong());
+        var size = data.readInt();
+        data.transferTo(journal.myBytes);
+        if (size < 0 || size > journal.myBytes.size() / MIN_RECORD_LENGTH) {
+            throw new IOException("Journal claims " + size + " inputs in " + journal.myBytes.size() + " bytes");
+        }
+        journal.mySize = size;
+        journal.decode(); // a journal that doesn't hold exactly its inputs is rejected here, not during a replay
+        return journal;
+    }
+
+    public static InputJournal fromBytes(byte[] bytes) {
+        try {
+            return read(new ByteArrayInputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package gameplay;
+
+import javafx.scene.input.KeyCode;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToDoubleBiFunction;
+
+/**
+ * Stands in for the human players of a simulated game: every call makes exactly one input on the session.
+ * Each simulated game gets its own policy, so implementations may keep state.
+ */
+public interface InputPolicy {
+    /**
+     * Feeds the next input to the session, returning false if there's nothing left to play
+     */
+    boolean play(GameSession session, Random random);
+
+    /**
+     * Clicks a uniformly chosen tile or entity among those the current edges would accept
+     */
+    static InputPolicy random() {
+        return new RandomClicks();
+    }
+
+    /**
+     * Replays a fixed sequence of inputs (ClickTags and KeyCodes), then stops
+     */
+    static InputPolicy scripted(List<?> inputs) {
+        return new Scripted(inputs);
+    }
+
+    /**
+     * Clicks the acceptable tile or entity that scores highest, breaking ties at random
+     */
+    static InputPolicy greedy(ToDoubleBiFunction<GameSession, GameObject> score) {
+        return new Greedy(score);
+    }
+
+    class RandomClicks implements InputPolicy {
+        @Override
+        public boolean play(GameSession session, Random random) {
+            var clicks = session.legalClicks();
+            if (clicks.isEmpty()) return false;
+            session.click(clicks.get(random.nextInt(clicks.size())));
+            return true;
+        }
+    }
+
+    class Scripted implements InputPolicy {
+        private Iterator<?> myInputs;
+
+        public Scripted(List<?> inputs) {
+            myInputs = new ArrayList<>(inputs).iterator();
+        }
+
+        @Override
+        public boolean play(GameSession session, Random random) {
+            if (!myInputs.hasNext()) return false;
+            var input = myInputs.next();
+            if (input instanceof ClickTag) session.click((ClickTag) input);
+            else if (input instanceof KeyCode) session.press((KeyCode) input);
+            else throw new IllegalArgumentException("Not an input: " + input);
+            return true;
+        }
+    }
+
+    class Greedy implements InputPolicy {
+        private ToDoubleBiFunction<GameSession, GameObject> myScore;
+
+        public Greedy(ToDoubleBiFunction<GameSession, GameObject> score) {
+            myScore = score;
+        }
+
+        @Override
+        public boolean play(GameSession session, Random random) {
+            var best = new ArrayList<ClickTag>();
+            var bestScore = Double.NEGATIVE_INFINITY;
+            for (var click : session.legalClicks()) {
+                var target = click.getType().equals(Tile.class) ?
+                        session.getTiles().get(click.getID()) : session.getEntities().get(click.getID());
+                var score = session.call(() -> myScore.applyAsDouble(session, target));
+                if (score > bestScore) {
+                    best.clear();
+                    bestScore = score;
+                }
+                if (score == bestScore) best.add(click);
+            }
+            if (best.isEmpty()) return false;
+            session.click(best.get(random.nextInt(best.size())));
+            return true;
+        }
+    }
+}
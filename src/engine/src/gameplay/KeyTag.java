@@ -2,6 +2,8 @@ package gameplay;
 
 import javafx.scene.input.KeyCode;
 
+import java.util.Objects;
+
 public class KeyTag {
     private KeyCode code;
 
@@ -12,4 +14,14 @@ public class KeyTag {
     public KeyCode code() {
         return code;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof KeyTag && ((KeyTag) o).code == code;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(code);
+    }
 }
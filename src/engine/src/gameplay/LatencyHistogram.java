@@ -0,0 +1,77 @@
+package gameplay;
+
+/**
+ * Counts durations in power-of-two nanosecond buckets, which is precise enough to tell whether something
+ * takes microseconds or milliseconds and cheap enough to record on every input.
+ * Percentiles are reported as the upper bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 48; // up to 2^47 ns, about 39 hours
+
+    private final long[] myCounts = new long[BUCKETS];
+    private long myCount, myTotalNanos, myMaxNanos;
+
+    public synchronized void record(long nanos) {
+        nanos = Math.max(0, nanos);
+        myCounts[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos))]++;
+        myCount++;
+        myTotalNanos += nanos;
+        myMaxNanos = Math.max(myMaxNanos, nanos);
+    }
+
+    /**
+     * Adds the other histogram's records to this one.
+     * The two are never locked at once, so threads merging two histograms into each other can't deadlock.
+     */
+    public void merge(LatencyHistogram other) {
+        long[] counts;
+        long count, totalNanos, maxNanos;
+        synchronized (other) {
+            counts = other.myCounts.clone();
+            count = other.myCount;
+            totalNanos = other.myTotalNanos;
+            maxNanos = other.myMaxNanos;
+        }
+        synchronized (this) {
+            for (int i = 0; i < BUCKETS; i++) myCounts[i] += counts[i];
+            myCount += count;
+            myTotalNanos += totalNanos;
+            myMaxNanos = Math.max(myMaxNanos, maxNanos);
+        }
+    }
+
+    public synchronized long count() {
+        return myCount;
+    }
+
+    public synchronized double meanNanos() {
+        return myCount == 0 ? 0 : (double) myTotalNanos / myCount;
+    }
+
+    public synchronized long maxNanos() {
+        return myMaxNanos;
+    }
+
+    /**
+     * Smallest bucket bound that at least the given fraction (0 to 1) of the records are under
+     */
+    public synchronized long percentileNanos(double fraction) {
+        if (myCount == 0) return 0;
+        var wanted = Math.max(1, (long) Math.ceil(fraction * myCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += myCounts[i];
+            if (seen >= wanted) return Math.min(myMaxNanos, i == 0 ? 0 : (1L << i) - 1);
+        }
+        return myMaxNanos;
+    }
+
+    /**
+     * Count, mean and percentiles in microseconds, e.g. "n=1000 mean=12.3us p50=16.4us p90=32.8us p99=65.5us max=80.1us"
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("n=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus max=%.1fus", myCount, meanNanos() / 1e3,
+                percentileNanos(0.5) / 1e3, percentileNanos(0.9) / 1e3, percentileNanos(0.99) / 1e3, myMaxNanos / 1e3);
+    }
+}
@@ -0,0 +1,99 @@
+package gameplay;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Answers "does class X have k in a row" (horizontally, vertically or diagonally) for Connect-4,
+ * Gomoku or Tic-Tac-Toe style games, without rebuilding the board on every check.
+ * <p>
+ * For every run length that has been asked about, the detector keeps how many length-k windows of the board
+ * are entirely occupied by each class. The first question about a given k counts them once;
+ * after that, a piece being placed or removed only re-examines the 4 * k windows through its cell,
+ * and the question itself is a map lookup.
+ */
+public class LineDetector implements OccupancyListener {
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+    private int myWidth, myHeight;
+    private String[] myCells;
+    private Map<Integer, Map<String, Integer>> myFullWindows; // run length -> class -> fully occupied windows
+
+    public LineDetector(int width, int height) {
+        myWidth = width;
+        myHeight = height;
+        myCells = new String[width * height];
+        myFullWindows = new HashMap<>();
+    }
+
+    public boolean hasInARow(String className, int runLength) {
+        if (runLength <= 0) return true;
+        var windows = myFullWindows.computeIfAbsent(runLength, this::countFullWindows);
+        return windows.getOrDefault(className, 0) > 0;
+    }
+
+    @Override
+    public void occupantChanged(int x, int y, String oldClass, String newClass) {
+        myFullWindows.forEach((runLength, windows) -> forEachWindowThrough(x, y, runLength, (sx, sy, d) ->
+                adjust(windows, fullClass(sx, sy, d, runLength), -1)));
+        myCells[y * myWidth + x] = newClass;
+        myFullWindows.forEach((runLength, windows) -> forEachWindowThrough(x, y, runLength, (sx, sy, d) ->
+                adjust(windows, fullClass(sx, sy, d, runLength), 1)));
+    }
+
+    private Map<String, Integer> countFullWindows(int runLength) {
+        var windows = new HashMap<String, Integer>();
+        for (int y = 0; y < myHeight; y++) {
+            for (int x = 0; x < myWidth; x++) {
+                for (var d : DIRECTIONS) {
+                    if (fits(x, y, d, runLength)) adjust(windows, fullClass(x, y, d, runLength), 1);
+                }
+            }
+        }
+        return windows;
+    }
+
+    /**
+     * Visits the start of every in-grid window of the given length that passes through (x, y)
+     */
+    private void forEachWindowThrough(int x, int y, int runLength, WindowConsumer consumer) {
+        for (var d : DIRECTIONS) {
+            for (int offset = 0; offset < runLength; offset++) {
+                var sx = x - offset * d[0];
+                var sy = y - offset * d[1];
+                if (fits(sx, sy, d, runLength)) consumer.accept(sx, sy, d);
+            }
+        }
+    }
+
+    /**
+     * The class filling the whole window, or null if it's mixed or has an empty cell
+     */
+    private String fullClass(int sx, int sy, int[] d, int runLength) {
+        var first = myCells[sy * myWidth + sx];
+        if (first == null) return null;
+        for (int i = 1; i < runLength; i++) {
+            if (!Objects.equals(first, myCells[(sy + i * d[1]) * myWidth + sx + i * d[0]])) return null;
+        }
+        return first;
+    }
+
+    private boolean fits(int sx, int sy, int[] d, int runLength) {
+        var ex = sx + (runLength - 1) * d[0];
+        var ey = sy + (runLength - 1) * d[1];
+        return inside(sx, sy) && inside(ex, ey);
+    }
+
+    private boolean inside(int x, int y) {
+        return 0 <= x && x < myWidth && 0 <= y && y < myHeight;
+    }
+
+    private static void adjust(Map<String, Integer> windows, String className, int delta) {
+        if (className != null) windows.merge(className, delta, Integer::sum);
+    }
+
+    private interface WindowConsumer {
+        void accept(int sx, int sy, int[] direction);
+    }
+}
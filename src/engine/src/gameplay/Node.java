@@ -6,24 +6,37 @@ public class Node {
     private String myName;
     private String myExecution; // Groovy code
 
+    Node(String phaseName, String name, String execution) {
+        myPhaseName = phaseName;
+        myName = name;
+        myExecution = execution;
+    }
+
     public String getName() {
         return myName;
     }
 
+    public String getPhaseName() {
+        return myPhaseName;
+    }
+
+    public String getExecution() {
+        return myExecution;
+    }
+
     public void execute() {
-        System.out.printf("-----------------On Node %s----------------\n", myName);
-        System.out.println("executing script");
-        System.out.println(myExecution);
+        if (GameData.isTracing()) {
+            System.out.printf("-----------------On Node %s----------------\n", myName);
+            System.out.println("executing script");
+            System.out.println(myExecution);
+        }
         GameData.clearArgumentListeners(); // clear previous listeners
-        GameData.getEdges()
-                .stream()
-                .filter(e -> e.getMyStartNodeName().equals(myName))
-                .forEach(GameData::addArgumentListener); // add new ones
+        GameData.listenToEdgesFrom(myName); // add new ones
         if (myExecution.isEmpty()) return;
         try {
-            GameData.shell().evaluate(myExecution);
-            GameData.shell().evaluate(GameData.WIN_CONDITION);
-            GameData.updateViews();
+            GameData.evaluate(myExecution);
+            GameData.evaluate(GameData.getWinCondition());
+            GameData.refreshViews();
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -0,0 +1,15 @@
+package gameplay;
+
+/**
+ * The sprite of a single tile or entity, positioned in grid coordinates
+ */
+public interface ObjectView {
+    void showImage(int imageIndex);
+
+    void relocate(double x, double y);
+
+    /**
+     * Scales the sprite to a screen of the given size in pixels
+     */
+    void resize(double screenWidth, double screenHeight);
+}
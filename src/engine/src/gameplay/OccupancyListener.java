@@ -0,0 +1,10 @@
+package gameplay;
+
+/**
+ * Notified by the SpatialIndex whenever the class of the entity occupying a grid cell changes.
+ * A cell's occupant is the entity GameMethods.getEntityOver would return for a 1x1 tile at that cell;
+ * a null class means the cell became empty.
+ */
+public interface OccupancyListener {
+    void occupantChanged(int x, int y, String oldClass, String newClass);
+}
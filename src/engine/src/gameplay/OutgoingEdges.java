@@ -0,0 +1,75 @@
+package gameplay;
+
+import javafx.event.Event;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseEvent;
+import phase.api.GameEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The edges leaving one phase node, bucketed by what can trigger them:
+ * clicks in one list and key presses by key code.
+ * An incoming event is then only offered to the edges that can actually match it.
+ * <p>
+ * Edges are kept in a fixed order (destination, trigger, guard) no matter how the game stored them,
+ * so that when several guards would pass, the same edge is taken on every run.
+ */
+public class OutgoingEdges {
+    public static final OutgoingEdges NONE = new OutgoingEdges(List.of());
+    private static final Comparator<Edge> ORDER = Comparator.comparing(Edge::getMyEndNodeName)
+            .thenComparing(edge -> String.valueOf(edge.getTrigger()))
+            .thenComparing(Edge::getGuard, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private List<Edge> myEdges;
+    private List<Edge> myClickEdges;
+    private Map<KeyCode, List<Edge>> myKeyEdges;
+
+    public OutgoingEdges(Collection<Edge> edges) {
+        var sorted = new ArrayList<>(edges);
+        sorted.sort(ORDER);
+        myEdges = List.copyOf(sorted);
+        myClickEdges = new ArrayList<>();
+        myKeyEdges = new HashMap<>();
+        for (var edge : myEdges) {
+            var trigger = edge.getTrigger();
+            if (trigger instanceof GameEvent.MouseClick) myClickEdges.add(edge);
+            else if (trigger instanceof GameEvent.KeyPress) {
+                myKeyEdges.computeIfAbsent(((GameEvent.KeyPress) trigger).getCode(), k -> new ArrayList<>()).add(edge);
+            } // MouseDrag never matches anything
+        }
+    }
+
+    /**
+     * Groups all edges of the game by the node they start from
+     */
+    public static Map<String, OutgoingEdges> index(Collection<Edge> edges) {
+        var grouped = new HashMap<String, List<Edge>>();
+        edges.forEach(e -> grouped.computeIfAbsent(e.getMyStartNodeName(), k -> new ArrayList<>()).add(e));
+        var index = new HashMap<String, OutgoingEdges>();
+        grouped.forEach((node, nodeEdges) -> index.put(node, new OutgoingEdges(nodeEdges)));
+        return index;
+    }
+
+    public List<Edge> all() {
+        return myEdges;
+    }
+
+    /**
+     * Edges whose trigger may match the event, in the order their guards should be checked
+     */
+    public List<Edge> candidatesFor(Event event) {
+        if (event.getEventType().equals(MouseEvent.MOUSE_CLICKED)) return myClickEdges;
+        if (event.getEventType().equals(KeyEvent.KEY_RELEASED)) {
+            return myKeyEdges.getOrDefault(((KeyEvent) event).getCode(), Collections.emptyList());
+        }
+        return Collections.emptyList();
+    }
+}
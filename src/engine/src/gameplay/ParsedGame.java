@@ -0,0 +1,195 @@
+package gameplay;
+
+import grids.Point;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A game read once by another parser, handing every session its own copy of the objects,
+ * so that many sessions of one game (see Simulation) don't parse it over and over.
+ * <p>
+ * Players, entities, prototypes, tiles, phases and the turn are copied on every call, props deeply;
+ * nodes and edges never change during a game and are shared.
+ * The objects read are never handed out themselves, so sessions on other threads can copy them at the same time.
+ */
+public class ParsedGame implements GameParser {
+    private Point myDimension;
+    private String myBGMpath;
+    private String myWinCondition;
+    private Map<String, Player> myPlayers;
+    private Map<Integer, Entity> myEntities;
+    private Map<String, EntityPrototype> myEntityPrototypes;
+    private Map<Integer, Tile> myTiles;
+    private Map<String, Phase> myPhases;
+    private Map<String, Node> myNodes;
+    private Set<Edge> myEdges;
+    private Turn myTurn;
+    private ScriptPackage myScripts;
+
+    /**
+     * Takes the game the parser has loaded, along with its compiled scripts if it came from a package
+     */
+    public ParsedGame(GameParser parser, ScriptPackage scripts) {
+        read(parser, scripts);
+    }
+
+    /**
+     * Reads an engine XML, a game package (.zip) or a binary package, whichever the file is
+     */
+    public static ParsedGame read(File file) throws IOException {
+        if (BinaryGameParser.isPackage(file)) {
+            var parser = new BinaryGameParser();
+            parser.loadFile(file);
+            return new ParsedGame(parser, parser.scripts());
+        }
+        if (ScriptPackage.isPackage(file)) {
+            var scripts = new ScriptPackage(file);
+            return new ParsedGame(xmlParser(scripts.xml()), scripts);
+        }
+        return fromXML(Files.readString(file.toPath()));
+    }
+
+    public static ParsedGame fromXML(String xml) {
+        return new ParsedGame(xmlParser(xml), null);
+    }
+
+    private static GameParser xmlParser(String xml) {
+        var parser = new StreamingXMLParser();
+        parser.loadXML(xml);
+        return parser;
+    }
+
+    /**
+     * Copies are taken right away, on this thread, so the ones kept share nothing with the parser
+     */
+    private void read(GameParser parser, ScriptPackage scripts) {
+        myDimension = parser.getDimension();
+        myBGMpath = parser.getBGMpath();
+        myWinCondition = parser.getWinCondition();
+        myPlayers = copyPlayers(parser.getPlayers());
+        myEntities = copyEntities(parser.getEntities());
+        myEntityPrototypes = copyPrototypes(parser.getEntityPrototypes());
+        myTiles = copyTiles(parser.getTiles());
+        myPhases = copyPhases(parser.getPhases());
+        myNodes = Map.copyOf(parser.getNodes());
+        myEdges = Set.copyOf(parser.getEdges());
+        myTurn = parser.getTurn() == null ? null : parser.getTurn().copy();
+        myScripts = scripts;
+    }
+
+    /**
+     * The compiled scripts of the package the game came from, or null for plain XML
+     */
+    public ScriptPackage scripts() {
+        return myScripts;
+    }
+
+    @Override
+    public void loadFile(File file) {
+        try {
+            var game = read(file);
+            read(game, game.scripts());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Nothing to do: every getter already hands out fresh objects
+     */
+    @Override
+    public void reload() {
+    }
+
+    @Override
+    public Point getDimension() {
+        return myDimension;
+    }
+
+    @Override
+    public String getBGMpath() {
+        return myBGMpath;
+    }
+
+    @Override
+    public Map<String, Player> getPlayers() {
+        return copyPlayers(myPlayers);
+    }
+
+    @Override
+    public Map<Integer, Entity> getEntities() {
+        return copyEntities(myEntities);
+    }
+
+    @Override
+    public Map<String, EntityPrototype> getEntityPrototypes() {
+        return copyPrototypes(myEntityPrototypes);
+    }
+
+    @Override
+    public Map<Integer, Tile> getTiles() {
+        return copyTiles(myTiles);
+    }
+
+    @Override
+    public Map<String, Phase> getPhases() {
+        return copyPhases(myPhases);
+    }
+
+    @Override
+    public Map<String, Node> getNodes() {
+        return new HashMap<>(myNodes);
+    }
+
+    @Override
+    public Set<Edge> getEdges() {
+        return new HashSet<>(myEdges);
+    }
+
+    @Override
+    public Turn getTurn() {
+        return myTurn == null ? null : myTurn.copy();
+    }
+
+    @Override
+    public String getWinCondition() {
+        return myWinCondition;
+    }
+
+    private static Map<String, Player> copyPlayers(Map<String, Player> players) {
+        var copy = new HashMap<String, Player>();
+        players.forEach((name, player) -> copy.put(name, player.copy()));
+        return copy;
+    }
+
+    private static Map<Integer, Entity> copyEntities(Map<Integer, Entity> entities) {
+        var copy = new HashMap<Integer, Entity>();
+        entities.forEach((id, entity) -> copy.put(id, entity.copy()));
+        return copy;
+    }
+
+    private static Map<String, EntityPrototype> copyPrototypes(Map<String, EntityPrototype> prototypes) {
+        var copy = new HashMap<String, EntityPrototype>();
+        prototypes.forEach((name, prototype) -> copy.put(name, prototype.copy()));
+        return copy;
+    }
+
+    private static Map<Integer, Tile> copyTiles(Map<Integer, Tile> tiles) {
+        var copy = new HashMap<Integer, Tile>(tiles.size() * 4 / 3 + 1);
+        tiles.forEach((id, tile) -> copy.put(id, tile.copy()));
+        return copy;
+    }
+
+    private static Map<String, Phase> copyPhases(Map<String, Phase> phases) {
+        var copy = new HashMap<String, Phase>();
+        phases.forEach((name, phase) -> copy.put(name, phase.copy()));
+        return copy;
+    }
+}
@@ -12,6 +12,13 @@ public class Phase {
         this.myNodeNames = nodeNames;
     }
 
+    /**
+     * The phase before it was entered, for another session of the same game
+     */
+    Phase copy() {
+        return new Phase(myStartNodeName, myNodeNames);
+    }
+
     public void step(String nodeName) {
         myCurrentNodeName = nodeName;
         GameData.getNode(myCurrentNodeName).execute();
@@ -21,6 +28,17 @@ public class Phase {
         step(myStartNodeName);
     }
 
+    String getCurrentNodeName() {
+        return myCurrentNodeName;
+    }
+
+    /**
+     * Puts the phase back on a node without executing it, for restoring snapshots
+     */
+    void restore(String currentNodeName) {
+        myCurrentNodeName = currentNodeName;
+    }
+
     public String getName() {
         return myStartNodeName;
     }
@@ -1,5 +1,9 @@
 package gameplay;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
@@ -11,14 +15,35 @@ public class Player {
     private Map<String, Double> myStats;
     private Set<Integer> myEntityIDs;
 
+    Player(String name, Map<String, Double> stats, Set<Integer> entityIDs) {
+        myName = name;
+        myStats = stats;
+        myEntityIDs = entityIDs;
+    }
+
+    /**
+     * An entity has at most one owner; adding it here takes it away from whoever owned it before
+     */
     public void addEntity(int entityID) {
         myEntityIDs.add(entityID);
+        GameData.ownerChanged(entityID, this);
     }
 
     public void removeEntity(int entityID) {
+        if (myEntityIDs.remove(entityID)) GameData.ownerDropped(entityID, this);
+    }
+
+    /**
+     * Used by GameData to keep the ownership index consistent; doesn't report back
+     */
+    void forgetEntity(int entityID) {
         myEntityIDs.remove(entityID);
     }
 
+    Player copy() {
+        return new Player(myName, myStats == null ? null : new HashMap<>(myStats), new HashSet<>(myEntityIDs));
+    }
+
     public void addStat(String key, double value) {
         myStats.put(key, value);
     }
@@ -32,13 +57,26 @@ public class Player {
     }
 
     public Set<Integer> getMyEntities() {
-        return myEntityIDs;
+        return Collections.unmodifiableSet(myEntityIDs);
     }
 
     public void clearMyEntities() {
+        myEntityIDs.forEach(id -> GameData.ownerDropped(id, this));
         myEntityIDs.clear();
     }
 
+    Map<String, Double> getStats() {
+        return myStats == null ? Map.of() : myStats;
+    }
+
+    /**
+     * Puts back stats and entities saved in a snapshot; the session rebuilds its ownership index afterwards
+     */
+    void restore(Map<String, Double> stats, Collection<Integer> entityIDs) {
+        myStats = new HashMap<>(stats);
+        myEntityIDs = new HashSet<>(entityIDs);
+    }
+
     public String getName() {
         return myName;
     }
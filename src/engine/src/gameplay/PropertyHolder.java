@@ -1,5 +1,6 @@
 package gameplay;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public abstract class PropertyHolder<X extends PropertyHolder<X>> {
@@ -10,8 +11,40 @@ public abstract class PropertyHolder<X extends PropertyHolder<X>> {
      */
     protected Map<String, Object> props;
 
+    /**
+     * Wraps the props so that writing them directly, as scripts do, marks this object's view dirty;
+     * called once the object is part of a game, however it was built
+     */
+    void trackProps() {
+        if (!(props instanceof TrackedProperties)) props = new TrackedProperties(this, props);
+    }
+
+    /**
+     * Replaces the props, e.g. with the ones of a snapshot
+     */
+    void setProps(Map<String, Object> properties) {
+        props = new TrackedProperties(this, properties);
+    }
+
+    /**
+     * The props without the wrapper that tracks writes
+     */
+    Map<String, Object> untrackedProps() {
+        return props instanceof TrackedProperties ? ((TrackedProperties) props).unwrap() : props;
+    }
+
+    /**
+     * A deep copy of the props, for an object that starts out the same as this one
+     */
+    Map<String, Object> copyProps() {
+        var copy = new LinkedHashMap<String, Object>();
+        untrackedProps().forEach((key, value) -> copy.put(key, CopyOnWriteProperties.copyValue(value)));
+        return copy;
+    }
+
     public void set(String key, Object value) {
         props.put(key, value);
+        GameData.markDirty(this);
     }
 
     public Object get(String key) {
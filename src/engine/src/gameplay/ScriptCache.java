@@ -0,0 +1,114 @@
+package gameplay;
+
+import conversion.engine.ScriptCompiler;
+import groovy.lang.GroovyShell;
+import groovy.lang.Script;
+import org.codehaus.groovy.runtime.InvokerHelper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * GroovyShell.evaluate(String) parses and compiles its argument into a brand new class on every call.
+ * This cache compiles each distinct source once and runs a fresh instance of the generated class afterwards.
+ * <p>
+ * The instances are bound to the shell's binding rather than an empty one,
+ * because $this, $clicked, $return and the GameMethods handle are all passed through it.
+ */
+public class ScriptCache {
+    private GroovyShell myShell;
+    private ScriptPackage myPackage;
+    private Map<String, Class<? extends Script>> myClasses;
+    private ScriptProfiler myProfiler;
+    private long myHits, myMisses;
+
+    public ScriptCache(GroovyShell shell) {
+        this(shell, new HashMap<>());
+    }
+
+    /**
+     * Compiled classes only depend on the source, so sessions playing the same game can share them;
+     * pass a concurrent map when those sessions run on different threads
+     */
+    public ScriptCache(GroovyShell shell, Map<String, Class<? extends Script>> compiledClasses) {
+        myShell = shell;
+        myClasses = compiledClasses;
+    }
+
+    /**
+     * Takes compiled classes from a game package before falling back to the compiler
+     */
+    public void usePackage(ScriptPackage scriptPackage) {
+        myPackage = scriptPackage;
+    }
+
+    /**
+     * Routes every run through the profiler; pass null to stop profiling
+     */
+    public void setProfiler(ScriptProfiler profiler) {
+        myProfiler = profiler;
+    }
+
+    /**
+     * Tells the profiler what the script belongs to, and which blocks it was made of if the package knows
+     */
+    public void describe(String source, String origin) {
+        if (myProfiler != null) myProfiler.describe(source, origin, myPackage == null ? null : myPackage.sourceMap(source));
+    }
+
+    /**
+     * Compiles the source ahead of time; a script that doesn't compile is reported when it is actually run
+     */
+    public void precompile(String source) {
+        if (source == null || myClasses.containsKey(source)) return;
+        try {
+            var packaged = myPackage == null ? null : myPackage.scriptClass(source);
+            myClasses.putIfAbsent(source, packaged != null ? packaged : compile(source));
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    public Object evaluate(String source) {
+        var script = InvokerHelper.createScript(scriptClass(source), myShell.getContext());
+        return myProfiler == null ? script.run() : myProfiler.run(source, script);
+    }
+
+    private Class<? extends Script> scriptClass(String source) {
+        var scriptClass = myClasses.get(source);
+        if (scriptClass != null) {
+            myHits++;
+            return scriptClass;
+        }
+        myMisses++;
+        scriptClass = compile(source);
+        var raced = myClasses.putIfAbsent(source, scriptClass);
+        return raced != null ? raced : scriptClass;
+    }
+
+    /**
+     * Names the class after the source, as the exporter does, rather than the shell's Script1, Script2 ...
+     * which every session's shell hands out again; the profiler tells scripts apart by class name
+     */
+    private Class<? extends Script> compile(String source) {
+        return myShell.parse(source, ScriptCompiler.classNameFor(source) + ".groovy").getClass();
+    }
+
+    /**
+     * Number of runs that reused an already compiled class
+     */
+    public long hits() {
+        return myHits;
+    }
+
+    /**
+     * Number of runs that had to invoke the Groovy compiler
+     */
+    public long misses() {
+        return myMisses;
+    }
+
+    public int size() {
+        return myClasses.size();
+    }
+}
@@ -0,0 +1,112 @@
+package gameplay;
+
+import conversion.engine.ScriptCompiler;
+import conversion.engine.ScriptSourceMap;
+import groovy.lang.Script;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.ProtectionDomain;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipFile;
+
+import static conversion.engine.ValueCodec.readString;
+import static conversion.engine.ValueCodec.readVarInt;
+
+/**
+ * A game exported through AuthoringTools.toEnginePackage: the engine XML plus every script compiled ahead of time.
+ * The compiled classes are defined straight from the package, so loading them never involves the Groovy compiler.
+ * Binary packages carry their classes too; BinaryGameParser hands them over without the XML.
+ */
+public class ScriptPackage {
+    private String myXML;
+    private Map<String, ByteBuffer> myClasses;
+    private Map<String, ScriptSourceMap> mySourceMaps = new HashMap<>();
+    private ClassLoader myLoader;
+
+    ScriptPackage(Map<String, ByteBuffer> classes) {
+        myClasses = classes;
+        myLoader = new PackageLoader(ScriptPackage.class.getClassLoader());
+    }
+
+    public ScriptPackage(File file) throws IOException {
+        myClasses = new HashMap<>();
+        try (var zip = new ZipFile(file)) {
+            var entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                var entry = entries.nextElement();
+                byte[] bytes;
+                try (var in = zip.getInputStream(entry)) {
+                    bytes = in.readAllBytes();
+                }
+                var name = entry.getName();
+                if (name.equals(ScriptCompiler.GAME_ENTRY)) {
+                    myXML = new String(bytes, StandardCharsets.UTF_8);
+                } else if (name.startsWith(ScriptCompiler.CLASS_DIRECTORY) && name.endsWith(".class")) {
+                    myClasses.put(name.substring(ScriptCompiler.CLASS_DIRECTORY.length(), name.length() - ".class".length()), ByteBuffer.wrap(bytes));
+                } else if (name.equals(ScriptCompiler.SOURCE_MAP_ENTRY)) {
+                    readSourceMaps(bytes);
+                }
+            }
+        }
+        if (myXML == null) throw new IOException(file.getName() + " has no " + ScriptCompiler.GAME_ENTRY);
+        myLoader = new PackageLoader(ScriptPackage.class.getClassLoader());
+    }
+
+    public static boolean isPackage(File file) {
+        return file.getName().endsWith(ScriptCompiler.PACKAGE_EXTENSION);
+    }
+
+    /**
+     * The engine XML, or null for the classes of a binary package
+     */
+    public String xml() {
+        return myXML;
+    }
+
+    private void readSourceMaps(byte[] bytes) throws IOException {
+        var in = new DataInputStream(new ByteArrayInputStream(bytes));
+        var count = readVarInt(in);
+        for (int i = 0; i < count; i++) mySourceMaps.put(readString(in), ScriptSourceMap.read(in));
+    }
+
+    /**
+     * Which blocks the lines of the script come from, or null if it wasn't made of blocks
+     */
+    public ScriptSourceMap sourceMap(String source) {
+        return mySourceMaps.get(ScriptCompiler.classNameFor(source));
+    }
+
+    /**
+     * Returns the precompiled class of the script, or null if the package doesn't carry one
+     */
+    @SuppressWarnings("unchecked")
+    public Class<? extends Script> scriptClass(String source) {
+        var name = ScriptCompiler.classNameFor(source);
+        if (!myClasses.containsKey(name)) return null;
+        try {
+            return (Class<? extends Script>) myLoader.loadClass(name);
+        } catch (ClassNotFoundException | LinkageError e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private class PackageLoader extends ClassLoader {
+        private PackageLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            var bytes = myClasses.get(name);
+            if (bytes == null) throw new ClassNotFoundException(name);
+            return defineClass(name, bytes.duplicate(), (ProtectionDomain) null);
+        }
+    }
+}
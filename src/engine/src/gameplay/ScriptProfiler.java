@@ -0,0 +1,251 @@
+package gameplay;
+
+import conversion.engine.ScriptSourceMap;
+import groovy.lang.Script;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds out which scripts (node executions, edge guards, image selectors, the win condition) a game spends its
+ * time in. Every run is timed and its allocation counted; meanwhile a sampler thread looks at the stacks of the
+ * threads running scripts, and uses the package's ScriptSourceMaps to tell which blocks the sampled lines come from.
+ * <p>
+ * report() lists the scripts by total time; foldedStacks() is the input flamegraph.pl and speedscope take,
+ * with the script's origin as the root frame and the blocks around the sampled line below it.
+ * Time and allocation of a script include scripts it runs itself.
+ */
+public class ScriptProfiler {
+    public static final String PROPERTY = "engine.scriptProfile";
+    private static final long DEFAULT_INTERVAL_MICROS = 10_000;
+    private static final int MAX_ORIGIN_LENGTH = 40;
+    private static ScriptProfiler ourShared;
+
+    private final Map<String, Stats> myStats = new ConcurrentHashMap<>();
+    private final Map<String, String> myScriptClasses = new ConcurrentHashMap<>(); // named after their source by ScriptCache
+    private final Map<Thread, String> myRunning = new ConcurrentHashMap<>();
+    private final Map<String, Long> mySamples = new ConcurrentHashMap<>();
+    private final long myIntervalMicros;
+    private final com.sun.management.ThreadMXBean myThreads;
+    private Thread mySampler;
+
+    public ScriptProfiler() {
+        this(DEFAULT_INTERVAL_MICROS);
+    }
+
+    public ScriptProfiler(long intervalMicros) {
+        myIntervalMicros = intervalMicros;
+        var threads = ManagementFactory.getThreadMXBean();
+        myThreads = threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) threads : null;
+    }
+
+    /**
+     * The profiler shared by every session in the process when it runs with -Dengine.scriptProfile, or null.
+     * Its report is printed when the JVM exits; a value other than "true" names a file for the folded stacks.
+     */
+    public static synchronized ScriptProfiler fromProperty() {
+        var property = System.getProperty(PROPERTY);
+        if (property == null || property.equals("false")) return null;
+        if (ourShared == null) {
+            ourShared = new ScriptProfiler();
+            ourShared.start();
+            var profiler = ourShared;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                profiler.stop();
+                System.out.print(profiler.report());
+                if (!property.equals("true")) {
+                    try (var out = Files.newBufferedWriter(Path.of(property))) {
+                        profiler.writeFoldedStacks(out);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }));
+        }
+        return ourShared;
+    }
+
+    /**
+     * Names the script after what it belongs to, e.g. "node Phase/A"; the map attributes its lines to blocks
+     */
+    public void describe(String source, String origin, ScriptSourceMap sourceMap) {
+        if (source == null || source.isEmpty()) return;
+        var stats = stats(source);
+        stats.myOrigins.add(origin);
+        if (sourceMap != null) stats.mySourceMap = sourceMap;
+    }
+
+    /**
+     * Runs a script on behalf of ScriptCache.evaluate(), counting its time and allocation
+     */
+    public Object run(String source, Script script) {
+        myScriptClasses.putIfAbsent(script.getClass().getName(), source);
+        var thread = Thread.currentThread();
+        var outer = myRunning.put(thread, source);
+        var allocated = allocatedBytes();
+        var start = System.nanoTime();
+        try {
+            return script.run();
+        } finally {
+            var nanos = System.nanoTime() - start;
+            stats(source).record(nanos, allocatedBytes() - allocated);
+            if (outer == null) myRunning.remove(thread);
+            else myRunning.put(thread, outer);
+        }
+    }
+
+    public synchronized void start() {
+        if (mySampler != null) return;
+        mySampler = new Thread(this::sample, "script-profiler");
+        mySampler.setDaemon(true);
+        mySampler.start();
+    }
+
+    public synchronized void stop() {
+        if (mySampler == null) return;
+        mySampler.interrupt();
+        try {
+            mySampler.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        mySampler = null;
+    }
+
+    private void sample() {
+        while (!Thread.currentThread().isInterrupted()) {
+            for (var running : myRunning.entrySet()) {
+                var stack = stack(running.getValue(), running.getKey().getStackTrace());
+                mySamples.merge(stack, 1L, Long::sum);
+            }
+            try {
+                TimeUnit.MICROSECONDS.sleep(myIntervalMicros);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The innermost frame of a script class decides the stack; closures are compiled into classes named Outer$...
+     */
+    private String stack(String running, StackTraceElement[] trace) {
+        for (var element : trace) {
+            var className = element.getClassName();
+            var dollar = className.indexOf('$');
+            var source = myScriptClasses.get(dollar < 0 ? className : className.substring(0, dollar));
+            if (source == null || element.getLineNumber() < 1) continue; // generated frames have no line
+            var stats = stats(source);
+            var frames = stats.mySourceMap == null ? null : stats.mySourceMap.frames(element.getLineNumber());
+            var stack = new StringBuilder(stats.origin());
+            if (frames == null || frames.isEmpty()) stack.append(";line ").append(element.getLineNumber());
+            else frames.forEach(frame -> stack.append(';').append(frame));
+            return stack.toString();
+        }
+        return stats(running).origin() + ";(engine)";
+    }
+
+    private long allocatedBytes() {
+        return myThreads == null ? 0 : myThreads.getCurrentThreadAllocatedBytes();
+    }
+
+    private Stats stats(String source) {
+        return myStats.computeIfAbsent(source, Stats::new);
+    }
+
+    /**
+     * Folded stack -> number of samples, as written by writeFoldedStacks()
+     */
+    public Map<String, Long> samples() {
+        return Map.copyOf(mySamples);
+    }
+
+    /**
+     * Block -> samples taken while one of its lines was running, hottest first; for highlighting in the editor
+     */
+    public Map<String, Long> hotBlocks() {
+        var blocks = new LinkedHashMap<String, Long>();
+        mySamples.entrySet().stream()
+                .filter(entry -> !entry.getKey().endsWith(";(engine)") && !entry.getKey().contains(";line "))
+                .forEach(entry -> blocks.merge(entry.getKey().substring(entry.getKey().lastIndexOf(';') + 1), entry.getValue(), Long::sum));
+        var hottest = new LinkedHashMap<String, Long>();
+        blocks.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> hottest.put(entry.getKey(), entry.getValue()));
+        return hottest;
+    }
+
+    public void writeFoldedStacks(Writer out) throws IOException {
+        for (var entry : new TreeSet<>(mySamples.keySet())) out.write(entry + " " + mySamples.get(entry) + "\n");
+        out.flush();
+    }
+
+    public String foldedStacks() {
+        var out = new StringWriter();
+        try {
+            writeFoldedStacks(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * One line per script that ran, the most expensive first
+     */
+    public String report() {
+        var report = new StringBuilder(String.format("%10s %12s %12s %12s  %s%n", "runs", "total ms", "mean us", "alloc KB", "script"));
+        var scripts = new ArrayList<>(myStats.values());
+        scripts.removeIf(stats -> stats.myRuns.sum() == 0);
+        scripts.sort(Comparator.comparingLong((Stats stats) -> stats.myNanos.sum()).reversed());
+        for (var stats : scripts) {
+            var runs = stats.myRuns.sum();
+            var nanos = stats.myNanos.sum();
+            report.append(String.format("%10d %12.2f %12.2f %12d  %s%n", runs, nanos / 1e6, nanos / 1e3 / runs,
+                    stats.myBytes.sum() / 1024, stats.origin()));
+        }
+        return report.toString();
+    }
+
+    private static class Stats {
+        private final String mySource;
+        private final Set<String> myOrigins = ConcurrentHashMap.newKeySet();
+        private final LongAdder myRuns = new LongAdder(), myNanos = new LongAdder(), myBytes = new LongAdder();
+        private volatile ScriptSourceMap mySourceMap;
+
+        private Stats(String source) {
+            mySource = source;
+        }
+
+        private void record(long nanos, long bytes) {
+            myRuns.increment();
+            myNanos.add(nanos);
+            myBytes.add(bytes);
+        }
+
+        /**
+         * Scripts nobody described are named after their first line
+         */
+        private String origin() {
+            if (!myOrigins.isEmpty()) return String.join(" + ", new TreeSet<>(myOrigins));
+            var line = mySource.strip().lines().findFirst().orElse("");
+            return "script " + (line.length() > MAX_ORIGIN_LENGTH ? line.substring(0, MAX_ORIGIN_LENGTH) + "..." : line);
+        }
+    }
+}
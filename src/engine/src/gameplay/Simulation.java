@@ -0,0 +1,123 @@
+package gameplay;
+
+import groovy.lang.Script;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Plays an exported game over and over without a display, for playtesting balance.
+ * <p>
+ * The game is parsed once into a ParsedGame; every simulated game then gets its own headless GameSession
+ * built from copies of it, while the compiled scripts are shared between all of them.
+ * Game i is driven by a fresh policy and a Random seeded with i, so any single game can be replayed with play();
+ * games recorded elsewhere can be played back from their InputJournal with replay().
+ */
+public class Simulation {
+    public static final int DEFAULT_MAX_INPUTS = 10000;
+
+    private ParsedGame myGame;
+    private Map<String, Class<? extends Script>> myCompiledScripts;
+    private int myMaxInputs;
+
+    public Simulation(String xml) {
+        this(ParsedGame.fromXML(xml));
+    }
+
+    public Simulation(File file) throws IOException {
+        this(ParsedGame.read(file));
+    }
+
+    public Simulation(ParsedGame game) {
+        myGame = game;
+        myCompiledScripts = new ConcurrentHashMap<>();
+        myMaxInputs = DEFAULT_MAX_INPUTS;
+    }
+
+    /**
+     * Games still going after this many inputs are recorded as unfinished
+     */
+    public void setMaxInputs(int maxInputs) {
+        myMaxInputs = maxInputs;
+    }
+
+    public SimulationReport run(int games, Supplier<InputPolicy> policies) {
+        var pool = new ForkJoinPool();
+        try {
+            return run(games, policies, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public SimulationReport run(int games, Supplier<InputPolicy> policies, ForkJoinPool pool) {
+        var start = System.nanoTime();
+        List<GameOutcome> outcomes = pool.submit(() -> LongStream.range(0, games).parallel()
+                .mapToObj(seed -> play(seed, policies.get()))
+                .collect(Collectors.toList())
+        ).join();
+        return new SimulationReport(outcomes, System.nanoTime() - start);
+    }
+
+    /**
+     * Plays a single game on the calling thread; the seed drives both the policy and GameMethods.randInt
+     */
+    public GameOutcome play(long seed, InputPolicy policy) {
+        return play(seed, policy, myMaxInputs, true);
+    }
+
+    /**
+     * Plays back a recorded game as fast as the engine allows, including any inputs made after it ended
+     */
+    public GameOutcome replay(InputJournal journal) {
+        return play(journal.getSeed(), InputPolicy.scripted(journal.inputs()), journal.size(), false);
+    }
+
+    private GameOutcome play(long seed, InputPolicy policy, int maxInputs, boolean stopWhenOver) {
+        var start = System.nanoTime();
+        var view = new HeadlessView();
+        var initializer = new Initializer(view);
+        initializer.shareCompiledScripts(myCompiledScripts);
+        initializer.setTracing(false);
+        initializer.setSeed(seed);
+        initializer.loadParsed(myGame);
+        initializer.initGameData();
+
+        var session = initializer.getSession();
+        try {
+            var random = new Random(seed);
+            var inputs = 0;
+            while (!(stopWhenOver && view.isOver()) && inputs < maxInputs && policy.play(session, random)) inputs++;
+            return new GameOutcome(seed, view.getEndMessage(), session.getTurn().getTurnCount(), inputs,
+                    System.nanoTime() - start, session.fingerprint(), session.getDispatchLatency());
+        } finally {
+            session.unbind();
+        }
+    }
+
+    /**
+     * Usage: Simulation game.xml [games] -- plays the game with random legal clicks and prints the report
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: Simulation <game.xml | game.zip | game.vgp> [games]");
+            return;
+        }
+        try {
+            var simulation = new Simulation(new File(args[0]));
+            var games = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+            System.out.print(simulation.run(games, InputPolicy::random));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
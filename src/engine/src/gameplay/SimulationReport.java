@@ -0,0 +1,68 @@
+package gameplay;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Outcomes of a batch of simulated games, with the aggregates designers look at when balancing
+ */
+public class SimulationReport {
+    private List<GameOutcome> myOutcomes;
+    private long myWallNanos;
+
+    public SimulationReport(List<GameOutcome> outcomes, long wallNanos) {
+        myOutcomes = Collections.unmodifiableList(outcomes);
+        myWallNanos = wallNanos;
+    }
+
+    /**
+     * In seed order, regardless of which thread played them
+     */
+    public List<GameOutcome> getOutcomes() {
+        return myOutcomes;
+    }
+
+    /**
+     * Number of games per end message; unfinished games are counted under null
+     */
+    public Map<String, Integer> countByEnding() {
+        var counts = new TreeMap<String, Integer>((a, b) -> a == null ? (b == null ? 0 : 1) : b == null ? -1 : a.compareTo(b));
+        myOutcomes.forEach(outcome -> counts.merge(outcome.getEndMessage(), 1, Integer::sum));
+        return counts;
+    }
+
+    public double averageTurns() {
+        return myOutcomes.stream().mapToInt(GameOutcome::getTurns).average().orElse(0);
+    }
+
+    public double averageMillis() {
+        return myOutcomes.stream().mapToLong(GameOutcome::getNanos).average().orElse(0) / 1e6;
+    }
+
+    public double gamesPerSecond() {
+        return myWallNanos == 0 ? 0 : myOutcomes.size() * 1e9 / myWallNanos;
+    }
+
+    /**
+     * Event type -> dispatch latency of every input of every game
+     */
+    public Map<String, LatencyHistogram> dispatchLatency() {
+        var merged = new TreeMap<String, LatencyHistogram>();
+        myOutcomes.forEach(outcome -> outcome.getDispatchLatency().forEach(
+                (type, histogram) -> merged.computeIfAbsent(type, k -> new LatencyHistogram()).merge(histogram)));
+        return merged;
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder();
+        builder.append(String.format("%d games in %.1f s (%.0f games/s), %.1f turns and %.2f ms per game%n",
+                myOutcomes.size(), myWallNanos / 1e9, gamesPerSecond(), averageTurns(), averageMillis()));
+        countByEnding().forEach((ending, count) -> builder.append(String.format("  %-30s %6d (%.1f%%)%n",
+                ending == null ? "(unfinished)" : ending, count, 100.0 * count / myOutcomes.size())));
+        dispatchLatency().forEach((type, histogram) -> builder.append(String.format("  dispatch %-21s %s%n", type, histogram)));
+        return builder.toString();
+    }
+}
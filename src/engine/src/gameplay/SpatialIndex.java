@@ -0,0 +1,197 @@
+package gameplay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Buckets entities by the grid cells they cover so that "what is over this tile"
+ * doesn't have to scan every entity in the game.
+ * <p>
+ * An entity spanning [x, x + width) x [y, y + height) is registered in every cell it touches.
+ * Entities that stick out of the grid are additionally kept in a small overflow list,
+ * which is only looked at when a query itself leaves the grid.
+ * <p>
+ * The index also remembers the class occupying each cell and tells its OccupancyListeners when that changes,
+ * which is what the board-level detectors (lines, bitboards ...) are built on.
+ */
+public class SpatialIndex {
+    private static final int X0 = 0, Y0 = 1, X1 = 2, Y1 = 3;
+
+    private int myWidth, myHeight;
+    private List<List<Entity>> myCells; // null for cells nothing has been over yet
+    private List<Entity> myOverflow;
+    private Map<Entity, int[]> myBounds; // cells each entity is currently registered in
+    private String[] myOccupants;
+    private List<OccupancyListener> myListeners;
+
+    public SpatialIndex(int width, int height) {
+        myWidth = width;
+        myHeight = height;
+        myCells = new ArrayList<>(Collections.nCopies(width * height, null));
+        myOverflow = new ArrayList<>();
+        myBounds = new HashMap<>();
+        myOccupants = new String[width * height];
+        myListeners = new ArrayList<>();
+    }
+
+    /**
+     * The listener is first told about every cell that is already occupied
+     */
+    public void addListener(OccupancyListener listener) {
+        myListeners.add(listener);
+        for (int cell = 0; cell < myOccupants.length; cell++) {
+            if (myOccupants[cell] != null) listener.occupantChanged(cell % myWidth, cell / myWidth, null, myOccupants[cell]);
+        }
+    }
+
+    /**
+     * Class of the entity over the cell, or null if it's empty or outside the grid
+     */
+    public String occupantClass(int x, int y) {
+        if (x < 0 || y < 0 || x >= myWidth || y >= myHeight) return null;
+        return myOccupants[y * myWidth + x];
+    }
+
+    public void add(Entity entity) {
+        if (myBounds.containsKey(entity)) return;
+        var bounds = cellRange(entity.getX(), entity.getY(), entity.getWidth(), entity.getHeight());
+        myBounds.put(entity, bounds);
+        forEachCell(bounds, cell -> {
+            if (myCells.get(cell) == null) myCells.set(cell, new ArrayList<>(1));
+            myCells.get(cell).add(entity);
+        });
+        if (!insideGrid(bounds)) myOverflow.add(entity);
+        refreshOccupants(bounds);
+    }
+
+    public void remove(Entity entity) {
+        var bounds = myBounds.remove(entity);
+        if (bounds == null) return;
+        forEachCell(bounds, cell -> myCells.get(cell).remove(entity));
+        if (!insideGrid(bounds)) myOverflow.remove(entity);
+        refreshOccupants(bounds);
+    }
+
+    /**
+     * Re-registers an entity after its coordinates changed; entities that were never added are ignored
+     */
+    public void move(Entity entity) {
+        var bounds = myBounds.get(entity);
+        if (bounds == null) return;
+        var updated = cellRange(entity.getX(), entity.getY(), entity.getWidth(), entity.getHeight());
+        if (sameRange(bounds, updated)) return;
+        remove(entity);
+        add(entity);
+    }
+
+    /**
+     * Returns the entity (lowest ID first) whose box overlaps the given box, or null if there is none
+     */
+    public Entity entityOver(double x, double y, double width, double height) {
+        var bounds = cellRange(x, y, width, height);
+        Entity[] found = {null};
+        forEachCandidate(bounds, e -> {
+            if ((found[0] == null || e.getID() < found[0].getID()) && overlaps(x, y, width, height, e)) found[0] = e;
+        });
+        return found[0];
+    }
+
+    /**
+     * Returns the entity (lowest ID first) that covers the point (x, y), or null if there is none
+     */
+    public Entity entityAt(double x, double y) {
+        var bounds = cellRange(x, y, 0, 0);
+        Entity[] found = {null};
+        forEachCandidate(bounds, e -> {
+            if ((found[0] == null || e.getID() < found[0].getID()) && covers(e, x, y)) found[0] = e;
+        });
+        return found[0];
+    }
+
+    public boolean hasEntityOver(double x, double y, double width, double height) {
+        return entityOver(x, y, width, height) != null;
+    }
+
+    public boolean hasEntityAt(double x, double y) {
+        return entityAt(x, y) != null;
+    }
+
+    /**
+     * Same test that GameMethods used to run against every entity:
+     * the boxes overlap if either one starts within the other, on both axes
+     */
+    static boolean overlaps(double x, double y, double width, double height, Entity e) {
+        boolean verdictX = (x <= e.getX() && e.getX() < x + width) || (e.getX() <= x && x < e.getX() + e.getWidth());
+        boolean verdictY = (y <= e.getY() && e.getY() < y + height) || (e.getY() <= y && y < e.getY() + e.getHeight());
+        return verdictX && verdictY;
+    }
+
+    static boolean covers(Entity e, double x, double y) {
+        boolean verdictX = (e.getX() <= x && x < e.getX() + e.getWidth());
+        boolean verdictY = (e.getY() <= y && y < e.getY() + e.getHeight());
+        return verdictX && verdictY;
+    }
+
+    private void forEachCandidate(int[] bounds, Consumer<Entity> action) {
+        var x0 = Math.max(bounds[X0], 0);
+        var y0 = Math.max(bounds[Y0], 0);
+        var x1 = Math.min(bounds[X1], myWidth - 1);
+        var y1 = Math.min(bounds[Y1], myHeight - 1);
+        for (int j = y0; j <= y1; j++) {
+            for (int i = x0; i <= x1; i++) {
+                var bucket = myCells.get(j * myWidth + i);
+                if (bucket != null) bucket.forEach(action);
+            }
+        }
+        if (!insideGrid(bounds)) myOverflow.forEach(action);
+    }
+
+    private void forEachCell(int[] bounds, IntConsumer action) {
+        var x0 = Math.max(bounds[X0], 0);
+        var y0 = Math.max(bounds[Y0], 0);
+        var x1 = Math.min(bounds[X1], myWidth - 1);
+        var y1 = Math.min(bounds[Y1], myHeight - 1);
+        for (int j = y0; j <= y1; j++) {
+            for (int i = x0; i <= x1; i++) action.accept(j * myWidth + i);
+        }
+    }
+
+    private void refreshOccupants(int[] bounds) {
+        forEachCell(bounds, cell -> {
+            var x = cell % myWidth;
+            var y = cell / myWidth;
+            var occupant = entityOver(x, y, 1, 1);
+            var updated = occupant == null ? null : occupant.getName();
+            var previous = myOccupants[cell];
+            if (Objects.equals(previous, updated)) return;
+            myOccupants[cell] = updated;
+            myListeners.forEach(l -> l.occupantChanged(x, y, previous, updated));
+        });
+    }
+
+    private boolean insideGrid(int[] bounds) {
+        return bounds[X0] >= 0 && bounds[Y0] >= 0 && bounds[X1] < myWidth && bounds[Y1] < myHeight;
+    }
+
+    /**
+     * Cells touched by the half-open box [x, x + width) x [y, y + height);
+     * a degenerate box still touches the cell its corner lies in
+     */
+    private static int[] cellRange(double x, double y, double width, double height) {
+        var x0 = (int) Math.floor(x);
+        var y0 = (int) Math.floor(y);
+        var x1 = Math.max(x0, (int) Math.ceil(x + width) - 1);
+        var y1 = Math.max(y0, (int) Math.ceil(y + height) - 1);
+        return new int[]{x0, y0, x1, y1};
+    }
+
+    private static boolean sameRange(int[] a, int[] b) {
+        return a[X0] == b[X0] && a[Y0] == b[Y0] && a[X1] == b[X1] && a[Y1] == b[Y1];
+    }
+}
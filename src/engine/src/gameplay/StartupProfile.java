@@ -0,0 +1,176 @@
+package gameplay;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Times the steps of launching a game, from loading the file to the first frame on screen.
+ * Steps nest: a step timed while another one runs on the same thread is reported as part of it.
+ * Startup ends with the first frame; steps after it (resizing the window, say) aren't recorded.
+ * <p>
+ * Only records anything when the JVM runs with -Dengine.startupProfile=true; then each step is also committed
+ * as a gameplay.StartupSpan JFR event, and the launcher prints report() once the first frame is drawn.
+ * Steps can be timed from any thread, e.g. the FX thread and the game's logic thread.
+ */
+public class StartupProfile {
+    public static final String PROPERTY = "engine.startupProfile";
+
+    private final boolean myEnabled;
+    private final long myStart;
+    private final List<Step> mySteps = new ArrayList<>(); // guarded by itself
+    private final ThreadLocal<List<Step>> myOpen = ThreadLocal.withInitial(ArrayList::new);
+    private volatile boolean myFirstFrame;
+
+    public StartupProfile() {
+        this(Boolean.getBoolean(PROPERTY));
+    }
+
+    public StartupProfile(boolean enabled) {
+        myEnabled = enabled;
+        myStart = System.nanoTime();
+    }
+
+    public boolean isEnabled() {
+        return myEnabled;
+    }
+
+    /**
+     * Runs the step, recording how long it took
+     */
+    public <T> T time(String name, Supplier<T> step) {
+        if (!isRecording()) return step.get();
+        var recorded = open(name, System.nanoTime());
+        var event = new StartupSpanEvent();
+        event.span = recorded.getPath();
+        event.begin();
+        try {
+            return step.get();
+        } finally {
+            event.commit();
+            close(recorded, System.nanoTime());
+        }
+    }
+
+    public void run(String name, Runnable step) {
+        time(name, () -> {
+            step.run();
+            return null;
+        });
+    }
+
+    /**
+     * Adds a step measured elsewhere (e.g. image decoding spread over many calls) under the step running on this thread
+     */
+    public void record(String name, long nanos) {
+        if (!isRecording()) return;
+        var now = System.nanoTime();
+        close(open(name, now - nanos), now);
+    }
+
+    /**
+     * Marks the first frame; only the first call counts. Returns whether this was it.
+     */
+    public boolean firstFrame() {
+        synchronized (mySteps) {
+            if (!isRecording()) return false;
+            record("firstFrame", 0);
+            myFirstFrame = true;
+            return true;
+        }
+    }
+
+    /**
+     * The steps recorded so far, in the order they started
+     */
+    public List<Step> getSteps() {
+        synchronized (mySteps) {
+            return List.copyOf(mySteps);
+        }
+    }
+
+    /**
+     * One line per step, in the order they started: start and duration in milliseconds since the profile was made
+     */
+    public String report() {
+        var report = new StringBuilder("startup profile (start ms, duration ms, step)\n");
+        for (var step : getSteps()) {
+            report.append(String.format("%10.2f %10.2f  %s%s%n", step.getStartNanos() / 1e6, step.getNanos() / 1e6,
+                    "  ".repeat(step.getDepth()), step.getName()));
+        }
+        return report.toString();
+    }
+
+    private boolean isRecording() {
+        return myEnabled && !myFirstFrame;
+    }
+
+    private Step open(String name, long start) {
+        var open = myOpen.get();
+        var parent = open.isEmpty() ? null : open.get(open.size() - 1);
+        var step = new Step(parent == null ? name : parent.getPath() + "/" + name, name, open.size(), start - myStart);
+        synchronized (mySteps) {
+            mySteps.add(step);
+        }
+        open.add(step);
+        return step;
+    }
+
+    private void close(Step step, long end) {
+        step.myNanos = end - myStart - step.myStartNanos;
+        myOpen.get().remove(step);
+    }
+
+    public static class Step {
+        private final String myPath, myName;
+        private final int myDepth;
+        private final long myStartNanos;
+        private volatile long myNanos = -1; // set by the thread that ran the step
+
+        private Step(String path, String name, int depth, long startNanos) {
+            myPath = path;
+            myName = name;
+            myDepth = depth;
+            myStartNanos = startNanos;
+        }
+
+        /**
+         * The names of the enclosing spans and this one, joined by slashes
+         */
+        public String getPath() {
+            return myPath;
+        }
+
+        public String getName() {
+            return myName;
+        }
+
+        public int getDepth() {
+            return myDepth;
+        }
+
+        public long getStartNanos() {
+            return myStartNanos;
+        }
+
+        /**
+         * -1 while the step is still running
+         */
+        public long getNanos() {
+            return myNanos;
+        }
+    }
+
+    @Name("gameplay.StartupSpan")
+    @Label("Game Startup Span")
+    @Category({"VoogaSalad", "Engine"})
+    static class StartupSpanEvent extends Event {
+        @Label("Span")
+        String span;
+    }
+}
@@ -0,0 +1,210 @@
+package gameplay;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.StreamException;
+import com.thoughtworks.xstream.io.xml.QNameMap;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
+import com.thoughtworks.xstream.io.xml.StaxReader;
+import grids.Point;
+import grids.PointImpl;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads a game in a single pass over the file: XStream unmarshals each top-level element straight off the
+ * StAX stream, so no DOM is built and nothing is parsed twice. Memory is bounded by the objects of the game itself.
+ * <p>
+ * The getters hand out the objects read by the last pass; reload() reads the game again for another session.
+ */
+public class StreamingXMLParser implements XMLGameParser {
+    private XStream mySerializer;
+    private XMLInputFactory myInputFactory;
+    private File myFile;
+    private String myXML;
+
+    private Point myDimension;
+    private String myBGMpath, myWinCondition;
+    private Map<String, Player> myPlayers;
+    private Map<Integer, Entity> myEntities;
+    private Map<String, EntityPrototype> myEntityPrototypes;
+    private Map<Integer, Tile> myTiles;
+    private Map<String, Phase> myPhases;
+    private Map<String, Node> myNodes;
+    private Set<Edge> myEdges;
+    private Turn myTurn;
+
+    public StreamingXMLParser() {
+        mySerializer = new XStream(new StaxDriver());
+        myInputFactory = XMLInputFactory.newInstance();
+        myInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    }
+
+    @Override
+    public void loadXML(String xml) {
+        myXML = xml;
+        myFile = null;
+        reload();
+    }
+
+    @Override
+    public void loadFile(File file) {
+        myFile = file;
+        myXML = null;
+        reload();
+    }
+
+    @Override
+    public void reload() {
+        try {
+            if (myFile != null) {
+                try (InputStream in = new BufferedInputStream(new FileInputStream(myFile))) {
+                    read(new StaxReader(new QNameMap(), myInputFactory.createXMLStreamReader(in)));
+                }
+            } else if (myXML != null) {
+                read(new StaxReader(new QNameMap(), myInputFactory.createXMLStreamReader(new StringReader(myXML))));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (XMLStreamException | StreamException e) { // the file isn't well-formed XML
+            throw new UncheckedIOException(new IOException(e));
+        }
+    }
+
+    /**
+     * The reader starts on the root element; its children are read one at a time and left behind.
+     * Every field is reset first, so nothing of a game read before survives into this one.
+     */
+    private void read(HierarchicalStreamReader reader) {
+        int width = 0, height = 0;
+        myDimension = null;
+        myBGMpath = null;
+        myWinCondition = null;
+        myPlayers = new HashMap<>();
+        myEntities = new HashMap<>();
+        myEntityPrototypes = new HashMap<>();
+        myTiles = new HashMap<>();
+        myPhases = new HashMap<>();
+        myNodes = new HashMap<>();
+        myEdges = new HashSet<>();
+        myTurn = null;
+        while (reader.hasMoreChildren()) {
+            reader.moveDown();
+            switch (reader.getNodeName()) {
+                case "gameplay.Tile":
+                    var tile = (Tile) mySerializer.unmarshal(reader);
+                    myTiles.put(tile.getID(), tile);
+                    break;
+                case "gameplay.Entity":
+                    var entity = (Entity) mySerializer.unmarshal(reader);
+                    myEntities.put(entity.getID(), entity);
+                    break;
+                case "gameplay.EntityPrototype":
+                    var prototype = (EntityPrototype) mySerializer.unmarshal(reader);
+                    myEntityPrototypes.put(prototype.name(), prototype);
+                    break;
+                case "gameplay.Player":
+                    var player = (Player) mySerializer.unmarshal(reader);
+                    myPlayers.put(player.getName(), player);
+                    break;
+                case "gameplay.Phase":
+                    var phase = (Phase) mySerializer.unmarshal(reader);
+                    myPhases.put(phase.getName(), phase);
+                    break;
+                case "gameplay.Node":
+                    var node = (Node) mySerializer.unmarshal(reader);
+                    myNodes.put(node.getName(), node);
+                    break;
+                case "gameplay.Edge":
+                    myEdges.add((Edge) mySerializer.unmarshal(reader));
+                    break;
+                case "gameplay.Turn":
+                    if (myTurn == null) myTurn = (Turn) mySerializer.unmarshal(reader); // only one Turn per game
+                    break;
+                case "grid-width":
+                    width = Integer.parseInt(reader.getValue().trim());
+                    break;
+                case "grid-height":
+                    height = Integer.parseInt(reader.getValue().trim());
+                    break;
+                case "bgmPath":
+                    myBGMpath = reader.getValue();
+                    break;
+                case "winCondition":
+                    myWinCondition = reader.getValue();
+                    break;
+                default: // authoring-side prototypes the engine doesn't use
+            }
+            reader.moveUp();
+        }
+        reader.close();
+        myDimension = new PointImpl(width, height);
+    }
+
+    @Override
+    public Point getDimension() {
+        return myDimension;
+    }
+
+    @Override
+    public String getBGMpath() {
+        return myBGMpath;
+    }
+
+    @Override
+    public Map<String, Player> getPlayers() {
+        return myPlayers;
+    }
+
+    @Override
+    public Map<Integer, Entity> getEntities() {
+        return myEntities;
+    }
+
+    @Override
+    public Map<String, EntityPrototype> getEntityPrototypes() {
+        return myEntityPrototypes;
+    }
+
+    @Override
+    public Map<Integer, Tile> getTiles() {
+        return myTiles;
+    }
+
+    @Override
+    public Map<String, Phase> getPhases() {
+        return myPhases;
+    }
+
+    @Override
+    public Map<String, Node> getNodes() {
+        return myNodes;
+    }
+
+    @Override
+    public Set<Edge> getEdges() {
+        return myEdges;
+    }
+
+    @Override
+    public Turn getTurn() {
+        return myTurn;
+    }
+
+    @Override
+    public String getWinCondition() {
+        return myWinCondition;
+    }
+}
@@ -2,18 +2,11 @@ package gameplay;
 
 import com.thoughtworks.xstream.annotations.XStreamOmitField;
 import grids.PointImpl;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.event.EventHandler;
-import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
-import javafx.scene.input.MouseEvent;
-
-import java.io.InputStream;
-import java.util.ArrayList;
+
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 
-public class Tile extends PropertyHolder<Tile> implements GameObject, EventHandler<MouseEvent> {
+public class Tile extends PropertyHolder<Tile> implements GameObject {
     private int myID;
     private String name;
     private String instanceName;
@@ -23,49 +16,43 @@ public class Tile extends PropertyHolder<Tile> implements GameObject, EventHandl
     private String myImageSelector; // Groovy codee
 
     @XStreamOmitField
-    private transient SimpleIntegerProperty imgIndex;
+    private transient int imgIndex;
 
     @XStreamOmitField
-    private transient List<Image> myImages;
+    private transient ObjectView myView;
 
-    @XStreamOmitField
-    private transient ImageView myImageView;
+    /**
+     * A tile read from a game file; its view is set up when the game starts
+     */
+    Tile(int id, String name, String instanceName, int width, int height, int x, int y,
+         List<String> imagePaths, String imageSelector, Map<String, Object> properties) {
+        this.myID = id;
+        this.name = name;
+        this.instanceName = instanceName;
+        this.myWidth = width;
+        this.myHeight = height;
+        this.myCoord = new PointImpl(x, y);
+        this.myImagePaths = imagePaths;
+        this.myImageSelector = imageSelector;
+        this.props = properties;
+    }
 
     /**
      * Fills out the transient parts
      */
     public void setupView() {
-        loadImages(true);
-        
-        myImageView = new ImageView();
-        myImageView.setPreserveRatio(false);
-        myImageView.setOnMouseClicked(this);
-        imgIndex = new SimpleIntegerProperty(-1);
-        imgIndex.addListener((e, oldVal, newVal) -> myImageView.setImage(myImages.get(newVal.intValue())));
+        trackProps();
+        myView = GameData.view().createView(this, myImagePaths);
+        imgIndex = -1;
+        myView.relocate(myCoord.getX(), myCoord.getY());
     }
 
     /**
      * Adjusts the size of this tile in pixels with respect to screen dimensions
      */
     public void adjustViewSize(double screenWidth, double screenHeight) {
-        myImageView.setX((screenWidth * myCoord.getX()) / GameMethods.gridWidth());
-        myImageView.setY((screenHeight * myCoord.getY()) / GameMethods.gridHeight());
-        myImageView.setFitWidth((screenWidth * myWidth) / GameMethods.gridWidth());
-        myImageView.setFitHeight((screenHeight * myHeight) / GameMethods.gridHeight());
-
-        loadImages(false);
-
-        updateView();
-    }
-
-    private void loadImages(boolean useNaturalImageSize) {
-        myImages = new ArrayList<>();
-        for (var path : myImagePaths) {
-            Image img;
-            if(useNaturalImageSize) img = new Image(Objects.requireNonNull(PathUtility.getResourceAsStream(path)));
-            else img = new Image(Objects.requireNonNull(PathUtility.getResourceAsStream(path)), myImageView.getFitWidth(), myImageView.getFitHeight(), false, true);
-            myImages.add(img);
-        }
+        myView.resize(screenWidth, screenHeight);
+        if (GameData.view().showsImages()) updateView();
     }
 
     /**
@@ -75,14 +62,23 @@ public class Tile extends PropertyHolder<Tile> implements GameObject, EventHandl
     public void updateView() {
         if (!myImageSelector.isEmpty()) {
             GameData.shell().setVariable("$this", this);
-            GameData.shell().evaluate(myImageSelector);
+            GameData.evaluate(myImageSelector);
             var ret = Integer.parseInt(GameData.shell().getVariable("$return").toString());
-            imgIndex.set(ret);
-        } else imgIndex.set(0);
+            imgIndex = ret;
+        } else imgIndex = 0;
+        myView.showImage(imgIndex);
     }
 
-    public ImageView getImageView() {
-        return myImageView;
+    /**
+     * A tile as this one was read from the game file, with its own props; its view isn't set up yet
+     */
+    Tile copy() {
+        return new Tile(myID, name, instanceName, myWidth, myHeight, myCoord.getX(), myCoord.getY(),
+                myImagePaths, myImageSelector, copyProps());
+    }
+
+    public ObjectView getView() {
+        return myView;
     }
 
     public int getID() {
@@ -95,6 +91,10 @@ public class Tile extends PropertyHolder<Tile> implements GameObject, EventHandl
 
     public String getInstanceName() { return instanceName; }
 
+    public String getImageSelector() {
+        return myImageSelector;
+    }
+
     @Override
     public double getX() {
         return myCoord.getX();
@@ -114,10 +114,4 @@ public class Tile extends PropertyHolder<Tile> implements GameObject, EventHandl
     public double getHeight() {
         return myHeight;
     }
-
-    @Override
-    public void handle(MouseEvent event) {
-        System.out.println("MouseEvent on tile of id " + myID);
-        GameData.addArgument(event, new ClickTag(Tile.class, myID));
-    }
 }
\ No newline at end of file
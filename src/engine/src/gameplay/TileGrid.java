@@ -0,0 +1,98 @@
+package gameplay;
+
+import grids.Point;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Dense store of the tiles, addressed by the grid coordinate a tile is anchored at.
+ * <p>
+ * If several tiles share an anchor the one with the lowest ID answers coordinate lookups,
+ * which is what the old stream scan over GameData.TILES ended up returning.
+ * Those shadowed tiles, as well as tiles anchored outside the grid, are kept aside so that
+ * iterating still visits every tile exactly once.
+ */
+public class TileGrid implements Iterable<Tile> {
+    private int myWidth, myHeight;
+    private Tile[] myCells;
+    private List<Tile> myOthers;
+
+    public TileGrid(Point dimension, Collection<Tile> tiles) {
+        myWidth = dimension.getX();
+        myHeight = dimension.getY();
+        myCells = new Tile[myWidth * myHeight];
+        myOthers = new ArrayList<>();
+
+        var sorted = new ArrayList<>(tiles);
+        sorted.sort(Comparator.comparingInt(Tile::getID));
+        for (var tile : sorted) {
+            var x = (int) tile.getX();
+            var y = (int) tile.getY();
+            if (inside(x, y) && myCells[y * myWidth + x] == null) myCells[y * myWidth + x] = tile;
+            else myOthers.add(tile);
+        }
+    }
+
+    /**
+     * Returns the tile anchored exactly at (x, y), or null if there is none
+     */
+    public Tile tileAt(double x, double y) {
+        var i = (int) x;
+        var j = (int) y;
+        if (i != x || j != y) return null;
+        if (inside(i, j)) return myCells[j * myWidth + i];
+        for (var tile : myOthers) {
+            if (tile.getX() == x && tile.getY() == y) return tile;
+        }
+        return null;
+    }
+
+    public int width() {
+        return myWidth;
+    }
+
+    public int height() {
+        return myHeight;
+    }
+
+    /**
+     * Visits the anchored tiles row by row, then the ones kept aside
+     */
+    @Override
+    public Iterator<Tile> iterator() {
+        return new Iterator<>() {
+            private int cell = advance(0);
+            private Iterator<Tile> others = myOthers.iterator();
+
+            private int advance(int from) {
+                while (from < myCells.length && myCells[from] == null) from++;
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return cell < myCells.length || others.hasNext();
+            }
+
+            @Override
+            public Tile next() {
+                if (cell < myCells.length) {
+                    var tile = myCells[cell];
+                    cell = advance(cell + 1);
+                    return tile;
+                }
+                if (!others.hasNext()) throw new NoSuchElementException();
+                return others.next();
+            }
+        };
+    }
+
+    private boolean inside(int x, int y) {
+        return 0 <= x && x < myWidth && 0 <= y && y < myHeight;
+    }
+}
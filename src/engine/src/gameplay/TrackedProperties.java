@@ -0,0 +1,135 @@
+package gameplay;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The props of an entity or tile as scripts see them. Scripts write them directly
+ * (getEntity(id).props.hp = 0) as often as through PropertyHolder.set, so every write
+ * (put, remove, clear, or through an entry) marks the owner's view dirty.
+ * Values changed in place (a list held in a prop) go unnoticed.
+ */
+public class TrackedProperties extends AbstractMap<String, Object> {
+    private PropertyHolder<?> myOwner;
+    private Map<String, Object> myProps;
+
+    TrackedProperties(PropertyHolder<?> owner, Map<String, Object> props) {
+        myOwner = owner;
+        myProps = props;
+    }
+
+    /**
+     * The map being tracked, e.g. to tell whether it still reads through to a prototype
+     */
+    Map<String, Object> unwrap() {
+        return myProps;
+    }
+
+    @Override
+    public Object get(Object key) {
+        return myProps.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return myProps.containsKey(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        GameData.markDirty(myOwner);
+        return myProps.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        if (!myProps.containsKey(key)) return null;
+        GameData.markDirty(myOwner);
+        return myProps.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        GameData.markDirty(myOwner);
+        myProps.clear();
+    }
+
+    @Override
+    public int size() {
+        return myProps.size();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                var entries = myProps.entrySet().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return entries.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Object> next() {
+                        return new TrackedEntry(entries.next());
+                    }
+
+                    @Override
+                    public void remove() {
+                        GameData.markDirty(myOwner);
+                        entries.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return myProps.size();
+            }
+        };
+    }
+
+    private class TrackedEntry implements Entry<String, Object> {
+        private Entry<String, Object> myEntry;
+
+        private TrackedEntry(Entry<String, Object> entry) {
+            myEntry = entry;
+        }
+
+        @Override
+        public String getKey() {
+            return myEntry.getKey();
+        }
+
+        @Override
+        public Object getValue() {
+            return myEntry.getValue();
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            GameData.markDirty(myOwner);
+            return myEntry.setValue(value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return myEntry.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return myEntry.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return myEntry.toString();
+        }
+    }
+}
@@ -1,20 +1,32 @@
 package gameplay;
 
-import javafx.scene.control.Alert;
-import javafx.scene.control.ButtonType;
-
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 public class Turn {
     private String myCurrentPhaseName;
     private int playerIdx;
     private List<String> playersOrder;
+    private transient int myTurnCount;
 
     public Turn(String phaseID, List<String> playersOrder) {
+        this(phaseID, playersOrder, 0);
+    }
+
+    /**
+     * A turn that starts on the player at playerIdx in the order, e.g. as read from a saved game
+     */
+    Turn(String phaseID, List<String> playersOrder, int playerIdx) {
         myCurrentPhaseName = phaseID;
         this.playersOrder = playersOrder;
-        this.playerIdx = 0;
+        this.playerIdx = playerIdx;
+    }
+
+    /**
+     * The turn as it stands, with its own player order and no turns counted, for another session of the same game
+     */
+    Turn copy() {
+        return new Turn(myCurrentPhaseName, new ArrayList<>(playersOrder), playerIdx);
     }
 
     public String getCurrentPlayerName() {
@@ -31,16 +43,48 @@ public class Turn {
 
     public String toNextPlayer() { // returns id of the next player after changing current player to that player
         playerIdx = (++playerIdx) % playersOrder.size();
+        myTurnCount++;
         return playersOrder.get(playerIdx);
     }
 
+    /**
+     * How many times the turn has passed to another player since the game was loaded
+     */
+    public int getTurnCount() {
+        return myTurnCount;
+    }
+
     public void setPlayerOrder(List<String> newOrder) {
         playersOrder = newOrder;
         playerIdx = 0;
     }
 
     public void setCurrentPlayer(String playerName) {
-        playerIdx = playersOrder.indexOf(playerName);
+        var idx = playersOrder.indexOf(playerName);
+        if (idx != playerIdx) myTurnCount++;
+        playerIdx = idx;
+    }
+
+    String getCurrentPhaseName() {
+        return myCurrentPhaseName;
+    }
+
+    int getPlayerIndex() {
+        return playerIdx;
+    }
+
+    List<String> getPlayersOrder() {
+        return playersOrder;
+    }
+
+    /**
+     * Puts the turn back where a snapshot left it
+     */
+    void restore(String phaseName, List<String> order, int playerIndex, int turnCount) {
+        myCurrentPhaseName = phaseName;
+        playersOrder = order;
+        playerIdx = playerIndex;
+        myTurnCount = turnCount;
     }
 
     public void startPhase() {
@@ -48,15 +92,6 @@ public class Turn {
     }
 
     public void endGame(String message) {
-        // end the game
-        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-        alert.setTitle("Confirmation Dialog");
-        alert.setHeaderText(message);
-        alert.setContentText("Restart?");
-        Optional<ButtonType> result = alert.showAndWait();
-        if (result.get() == ButtonType.OK) {
-            GameData.restartGame();
-        } else {
-        }
+        GameData.view().endGame(message);
     }
 }
\ No newline at end of file
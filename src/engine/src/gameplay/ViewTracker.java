@@ -0,0 +1,109 @@
+package gameplay;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Remembers which entities and tiles were touched while a script ran
+ * (a write to their props, Entity.setLocation, createEntity or being clicked),
+ * so that only their image selectors have to be re-run afterwards.
+ * <p>
+ * Image selectors that look at anything besides $this (other objects, the current player, binding variables ...)
+ * can change without their owner being touched; objects with such selectors are refreshed every time.
+ * That includes objects reached through one of $this's props, e.g. $this.props.target.props.hp.
+ */
+public class ViewTracker {
+    private static final Pattern STRING_LITERAL = Pattern.compile("\"(\\\\.|[^\"\\\\])*\"|'(\\\\.|[^'\\\\])*'");
+    private static final Pattern CHAINED_PROP = Pattern.compile(
+            "(\\.\\s*props\\s*(\\.\\s*[$\\w]+|\\[[^\\]]*])|\\.\\s*get\\s*\\([^()]*\\)|getProperty\\s*\\(([^()]|\\([^()]*\\))*\\))"
+                    + "\\s*(\\?\\.|\\.|\\[)"
+    );
+    private static final Pattern FOREIGN_ARGUMENT = Pattern.compile(
+            "\\b(getProperty|getId|getName|getX|getY)\\s*\\(\\s*(?!\\)|(\\$this|GameMethods\\s*\\.\\s*\\$this\\s*\\(\\s*\\))\\s*[,)])"
+    );
+    private static final Pattern IDENTIFIER = Pattern.compile("(\\.\\s*)?([$A-Za-z_][$\\w]*)");
+    private static final Set<String> SELF_CONTAINED_NAMES = Set.of(
+            "GameMethods", "$this", "$return", "true", "false", "null", "if", "else", "return"
+    );
+    private static final Set<String> SELF_CONTAINED_METHODS = Set.of(
+            "$return", "$this", "getProperty", "getId", "getName", "getX", "getY", "isNull", "not"
+    );
+
+    private Map<String, Boolean> mySelfContained; // image selector -> whether it only depends on $this
+    private Set<Entity> myGlobalEntities, myDirtyEntities;
+    private Set<Tile> myGlobalTiles, myDirtyTiles;
+
+    public ViewTracker(Collection<Entity> entities, Iterable<Tile> tiles) {
+        mySelfContained = new HashMap<>();
+        myGlobalEntities = new LinkedHashSet<>();
+        myDirtyEntities = new LinkedHashSet<>();
+        myGlobalTiles = new LinkedHashSet<>();
+        myDirtyTiles = new LinkedHashSet<>();
+        entities.forEach(this::track);
+        tiles.forEach(tile -> {
+            if (!isSelfContained(tile.getImageSelector())) myGlobalTiles.add(tile);
+            myDirtyTiles.add(tile);
+        });
+    }
+
+    public void track(Entity entity) {
+        if (!isSelfContained(entity.getImageSelector())) myGlobalEntities.add(entity);
+        myDirtyEntities.add(entity);
+    }
+
+    public void untrack(Entity entity) {
+        myGlobalEntities.remove(entity);
+        myDirtyEntities.remove(entity);
+    }
+
+    public void markDirty(Object object) {
+        if (object instanceof Entity) myDirtyEntities.add((Entity) object);
+        else if (object instanceof Tile) myDirtyTiles.add((Tile) object);
+    }
+
+    boolean isDirty(Object object) {
+        return myDirtyEntities.contains(object) || myDirtyTiles.contains(object);
+    }
+
+    /**
+     * Re-runs the image selectors of everything touched since the last refresh, plus the ones that depend on global state
+     */
+    public void refresh() {
+        myDirtyEntities.addAll(myGlobalEntities);
+        myDirtyTiles.addAll(myGlobalTiles);
+        var entities = myDirtyEntities.toArray(new Entity[0]);
+        var tiles = myDirtyTiles.toArray(new Tile[0]);
+        myDirtyEntities.clear();
+        myDirtyTiles.clear();
+        for (var entity : entities) entity.updateView();
+        for (var tile : tiles) tile.updateView();
+    }
+
+    /**
+     * A selector is self-contained if, string literals aside, it only mentions $this, $return
+     * and GameMethods calls that read from $this, and uses the props it reads as they are:
+     * accessing anything on a prop's value (a chain past the prop) reaches another object.
+     * Anything else is assumed to depend on global state.
+     */
+    boolean isSelfContained(String selector) {
+        if (selector == null || selector.isEmpty()) return true;
+        return mySelfContained.computeIfAbsent(selector, source -> {
+            var code = STRING_LITERAL.matcher(source).replaceAll("\"\"");
+            if (CHAINED_PROP.matcher(code).find() || FOREIGN_ARGUMENT.matcher(code).find()) return false;
+            var matcher = IDENTIFIER.matcher(code);
+            String previous = null;
+            while (matcher.find()) {
+                var name = matcher.group(2);
+                var isMember = matcher.group(1) != null;
+                if (isMember && "GameMethods".equals(previous) && !SELF_CONTAINED_METHODS.contains(name)) return false;
+                if (!isMember && !SELF_CONTAINED_NAMES.contains(name)) return false;
+                previous = name;
+            }
+            return true;
+        });
+    }
+}
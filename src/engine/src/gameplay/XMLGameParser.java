@@ -0,0 +1,8 @@
+package gameplay;
+
+/**
+ * A GameParser for the engine XML, which can also be handed the XML itself rather than a file
+ */
+public interface XMLGameParser extends GameParser {
+    void loadXML(String xml);
+}
@@ -2,9 +2,11 @@ package gameplay;
 
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.io.xml.DomDriver;
+import com.thoughtworks.xstream.io.xml.DomReader;
 import grids.Point;
 import grids.PointImpl;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -12,19 +14,17 @@ import org.xml.sax.SAXException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
 import java.io.*;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
-public class XMLParser {
+/**
+ * Parses the whole game into a DOM and reads each object off its element.
+ * Every getter builds new objects; StreamingXMLParser reads large games faster without keeping the DOM around.
+ */
+public class XMLParser implements XMLGameParser {
     Document myDocTree;
     private DocumentBuilder myDocumentBuilder;
     private XStream mySerializer;
@@ -34,19 +34,11 @@ public class XMLParser {
     }
 
     /**
-     * Taken from https://stackoverflow.com/questions/4412848/xml-node-to-string-in-java
+     * Reads an object straight off its DOM element, instead of printing the element back to a string
+     * and having XStream parse that again
      */
-    private static String nodeToString(org.w3c.dom.Node node) {
-        StringWriter sw = new StringWriter();
-        try {
-            Transformer t = TransformerFactory.newInstance().newTransformer();
-            t.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-            t.setOutputProperty(OutputKeys.INDENT, "yes");
-            t.transform(new DOMSource(node), new StreamResult(sw));
-        } catch (TransformerException te) {
-            System.out.println("nodeToString Transformer Exception");
-        }
-        return sw.toString();
+    private Object unmarshal(org.w3c.dom.Node node) {
+        return mySerializer.unmarshal(new DomReader((Element) node));
     }
 
     public void loadXML(String xml) {
@@ -65,6 +57,10 @@ public class XMLParser {
         }
     }
 
+    @Override
+    public void reload() {
+    }
+
     public Point getDimension() {
         return new PointImpl(Integer.parseInt(myDocTree.getElementsByTagName("grid-width").item(0).getTextContent()),
                 Integer.parseInt(myDocTree.getElementsByTagName("grid-height").item(0).getTextContent()));
@@ -78,8 +74,7 @@ public class XMLParser {
         NodeList players = myDocTree.getElementsByTagName("gameplay.Player");
         Map<String, Player> myPlayers = new HashMap<>();
         for (int i = 0; i < players.getLength(); i++) {
-            String currentPlayer = nodeToString(players.item(i));
-            Player player = (Player) mySerializer.fromXML(currentPlayer);
+            Player player = (Player) unmarshal(players.item(i));
             myPlayers.put(player.getName(), player);
         }
         return myPlayers;
@@ -89,8 +84,7 @@ public class XMLParser {
         NodeList entities = myDocTree.getElementsByTagName("gameplay.Entity");
         Map<Integer, Entity> myEntities = new HashMap<>();
         for (int i = 0; i < entities.getLength(); i++) {
-            String currentEntity = nodeToString(entities.item(i));
-            Entity entity = (Entity) mySerializer.fromXML(currentEntity);
+            Entity entity = (Entity) unmarshal(entities.item(i));
             myEntities.put(entity.getID(), entity);
         }
         return myEntities;
@@ -100,8 +94,7 @@ public class XMLParser {
         NodeList entities = myDocTree.getElementsByTagName("gameplay.EntityPrototype");
         Map<String, EntityPrototype> myEntities = new HashMap<>();
         for (int i = 0; i < entities.getLength(); i++) {
-            String currentEntity = nodeToString(entities.item(i));
-            EntityPrototype entity = (EntityPrototype) mySerializer.fromXML(currentEntity);
+            EntityPrototype entity = (EntityPrototype) unmarshal(entities.item(i));
             myEntities.put(entity.name(), entity);
         }
         return myEntities;
@@ -111,8 +104,7 @@ public class XMLParser {
         NodeList tiles = myDocTree.getElementsByTagName("gameplay.Tile");
         Map<Integer, Tile> myTiles = new HashMap<>();
         for (int i = 0; i < tiles.getLength(); i++) {
-            String currentTile = nodeToString(tiles.item(i));
-            Tile tile = (Tile) mySerializer.fromXML(currentTile);
+            Tile tile = (Tile) unmarshal(tiles.item(i));
             myTiles.put(tile.getID(), tile);
         }
         return myTiles;
@@ -122,8 +114,7 @@ public class XMLParser {
         NodeList phases = myDocTree.getElementsByTagName("gameplay.Phase");
         Map<String, Phase> myPhases = new HashMap<>();
         for (int i = 0; i < phases.getLength(); i++) {
-            String currentPhase = nodeToString(phases.item(i));
-            Phase phase = (Phase) mySerializer.fromXML(currentPhase);
+            Phase phase = (Phase) unmarshal(phases.item(i));
             myPhases.put(phase.getName(), phase);
         }
         return myPhases;
@@ -133,8 +124,7 @@ public class XMLParser {
         NodeList nodes = myDocTree.getElementsByTagName("gameplay.Node");
         Map<String, Node> myNodes = new HashMap<>();
         for (int i = 0; i < nodes.getLength(); i++) {
-            String currentNode = nodeToString(nodes.item(i));
-            Node node = (Node) mySerializer.fromXML(currentNode);
+            Node node = (Node) unmarshal(nodes.item(i));
             myNodes.put(node.getName(), node);
         }
         return myNodes;
@@ -144,8 +134,7 @@ public class XMLParser {
         NodeList edges = myDocTree.getElementsByTagName("gameplay.Edge");
         Set<Edge> myEdges = new HashSet<>();
         for (int i = 0; i < edges.getLength(); i++) {
-            String currentEdge = nodeToString(edges.item(i));
-            Edge edge = (Edge) mySerializer.fromXML(currentEdge);
+            Edge edge = (Edge) unmarshal(edges.item(i));
             myEdges.add(edge);
         }
         return myEdges;
@@ -153,8 +142,7 @@ public class XMLParser {
 
     public Turn getTurn() {
         NodeList turns = myDocTree.getElementsByTagName("gameplay.Turn");
-        String currentTurn = nodeToString(turns.item(0)); // only one Turn per game
-        Turn turn = (Turn) mySerializer.fromXML(currentTurn);
+        Turn turn = (Turn) unmarshal(turns.item(0)); // only one Turn per game
         return turn;
     }
 
@@ -6,6 +6,8 @@ module engine {
 
     requires java.xml;
     requires java.scripting;
+    requires jdk.jfr;
+    requires jdk.management;
     requires xstream;
     requires org.codehaus.groovy;
 
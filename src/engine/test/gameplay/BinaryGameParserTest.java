@@ -0,0 +1,48 @@
+package gameplay;
+
+import conversion.engine.BinaryGamePackage;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BinaryGameParserTest {
+    /**
+     * Writes the game out as a binary package and reads it back
+     */
+    private static BinaryGameParser transcode(String xml) throws IOException {
+        var file = File.createTempFile("game", BinaryGamePackage.EXTENSION);
+        file.deleteOnExit();
+        try (var out = new FileOutputStream(file)) {
+            BinaryGamePackage.write(xml, Map.of(), out);
+        }
+        var parser = new BinaryGameParser();
+        parser.loadFile(file);
+        return parser;
+    }
+
+    @Test
+    public void testBundledGamesReadTheSameAsTheXML() throws IOException {
+        for (var game : StreamingXMLParserTest.GAMES) {
+            var xml = new XMLParser();
+            xml.loadFile(new File(game));
+            StreamingXMLParserTest.assertSameGame(xml, transcode(Files.readString(new File(game).toPath())));
+        }
+    }
+
+    @Test
+    public void testTurnKeepsWhoseTurnItIs() throws IOException {
+        var xml = Files.readString(new File(TestGames.REVERSI).toPath())
+                .replace("</playersOrder>", "</playersOrder>\n    <playerIdx>1</playerIdx>");
+        var expected = new XMLParser();
+        expected.loadXML(xml);
+        var turn = transcode(xml).getTurn();
+        assertEquals(expected.getTurn().getCurrentPlayerName(), turn.getCurrentPlayerName());
+        assertEquals("A", turn.getCurrentPlayerName());
+    }
+}
@@ -0,0 +1,193 @@
+package gameplay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BitboardTest {
+    /**
+     * A board drawn row by row, '#' for cells in the set
+     */
+    private static Bitboard board(String... rows) {
+        var board = new Bitboard(rows[0].length(), rows.length);
+        for (int y = 0; y < rows.length; y++) {
+            for (int x = 0; x < rows[y].length(); x++) board.set(x, y, rows[y].charAt(x) == '#');
+        }
+        return board;
+    }
+
+    private static Bitboard cell(int width, int height, int x, int y) {
+        var cell = new Bitboard(width, height);
+        cell.set(x, y, true);
+        return cell;
+    }
+
+    @Test
+    public void testShiftDoesNotWrapRows() {
+        var board = board(
+                "...#",
+                "#...");
+        assertEquals(board(
+                "....",
+                ".#.."), board.shift(1, 0));
+        assertEquals(board(
+                "..#.",
+                "...."), board.shift(-1, 0));
+        assertEquals(board(
+                "....",
+                "...#"), board.shift(0, 1));
+    }
+
+    @Test
+    public void testLineFill() {
+        var through = board(
+                ".####.#.",
+                "........");
+        assertEquals(board(
+                ".####...",
+                "........"), cell(8, 2, 0, 0).lineFill(1, 0, through));
+        assertEquals(board(
+                "......#.",
+                "........"), cell(8, 2, 5, 0).lineFill(1, 0, through));
+        assertEquals(board(
+                "........",
+                "........"), cell(8, 2, 7, 0).lineFill(1, 0, through)); // the row ends, nothing wraps onto the next
+        assertEquals(board(
+                ".###....",
+                "........"), cell(8, 2, 4, 0).lineFill(-1, 0, through));
+    }
+
+    @Test
+    public void testLineFillAcrossWords() {
+        var width = 100;
+        var through = new Bitboard(width, 2);
+        for (int x = 1; x < width; x++) through.set(x, 1, true);
+        var filled = cell(width, 2, 0, 1).lineFill(1, 0, through);
+        assertEquals(width - 1, filled.count());
+        assertTrue(filled.get(99, 1));
+    }
+
+    @Test
+    public void testFlankTakesOnlyTheBracketedRun() {
+        // X O X O and X placed at the end: only the O next to it is closed off by the nearest X
+        var own = board("#.#...");
+        var opponent = board(".#.#..");
+        assertEquals(board("...#.."), cell(6, 1, 4, 0).flank(own, opponent, Bitboard.ORTHOGONAL));
+    }
+
+    @Test
+    public void testFlankNeedsAClosingPiece() {
+        var own = board("......");
+        var opponent = board(".###..");
+        assertTrue(cell(6, 1, 0, 0).flank(own, opponent, Bitboard.ORTHOGONAL).isEmpty());
+        opponent = board(".#.#..");
+        own = board("......");
+        assertTrue(cell(6, 1, 2, 0).flank(own, opponent, Bitboard.ORTHOGONAL).isEmpty());
+    }
+
+    @Test
+    public void testFlankInAllDirections() {
+        var own = board(
+                "#.#.#",
+                ".....",
+                "#...#",
+                ".....",
+                "#.#.#");
+        var opponent = board(
+                ".....",
+                ".###.",
+                ".#.#.",
+                ".###.",
+                ".....");
+        assertEquals(opponent, cell(5, 5, 2, 2).flank(own, opponent, Bitboard.ALL_DIRECTIONS));
+        assertEquals(board(
+                ".....",
+                "..#..",
+                ".#.#.",
+                "..#..",
+                "....."), cell(5, 5, 2, 2).flank(own, opponent, Bitboard.ORTHOGONAL));
+    }
+
+    @Test
+    public void testFlankingMovesOnOthelloStart() {
+        var black = board(
+                "........",
+                "........",
+                "........",
+                "...#....",
+                "....#...",
+                "........",
+                "........",
+                "........");
+        var white = board(
+                "........",
+                "........",
+                "........",
+                "....#...",
+                "...#....",
+                "........",
+                "........",
+                "........");
+        var empty = black.or(white).not();
+        assertEquals(board(
+                "........",
+                "........",
+                "....#...",
+                ".....#..",
+                "..#.....",
+                "...#....",
+                "........",
+                "........"), Bitboard.flankingMoves(black, white, empty, Bitboard.ALL_DIRECTIONS));
+    }
+
+    @Test
+    public void testFlankMatchesAWalkOnRandomBoards() {
+        var random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            var width = 3 + random.nextInt(12);
+            var height = 3 + random.nextInt(12);
+            var own = new Bitboard(width, height);
+            var opponent = new Bitboard(width, height);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    var roll = random.nextInt(3);
+                    own.set(x, y, roll == 1);
+                    opponent.set(x, y, roll == 2);
+                }
+            }
+            var empty = own.or(opponent).not();
+            var expectedMoves = new Bitboard(width, height);
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    var expected = walkFlank(own, opponent, x, y);
+                    assertEquals(expected, cell(width, height, x, y).flank(own, opponent, Bitboard.ALL_DIRECTIONS));
+                    if (empty.get(x, y) && !expected.isEmpty()) expectedMoves.set(x, y, true);
+                }
+            }
+            assertEquals(expectedMoves, Bitboard.flankingMoves(own, opponent, empty, Bitboard.ALL_DIRECTIONS));
+        }
+    }
+
+    /**
+     * Othello captures from (x, y) worked out one cell at a time
+     */
+    private static Bitboard walkFlank(Bitboard own, Bitboard opponent, int x, int y) {
+        var captured = new Bitboard(own.getWidth(), own.getHeight());
+        for (var d : Bitboard.ALL_DIRECTIONS) {
+            var cx = x + d[0];
+            var cy = y + d[1];
+            var run = 0;
+            while (opponent.get(cx, cy)) {
+                cx += d[0];
+                cy += d[1];
+                run++;
+            }
+            if (run == 0 || !own.get(cx, cy)) continue;
+            for (int i = 1; i <= run; i++) captured.set(x + i * d[0], y + i * d[1], true);
+        }
+        return captured;
+    }
+}
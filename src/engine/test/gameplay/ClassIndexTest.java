@@ -0,0 +1,74 @@
+package gameplay;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClassIndexTest {
+    GameSession session;
+    Entity red1, red2, yellow;
+    ClassIndex index;
+
+    @BeforeEach
+    public void setupIndex() {
+        session = TestGames.load(TestGames.CONNECT4);
+        red1 = TestGames.entity(session, 1, "red", 0, 0, 1, 1);
+        red2 = TestGames.entity(session, 2, "red", 1, 0, 1, 1);
+        yellow = TestGames.entity(session, 3, "yellow", 2, 0, 1, 1);
+        index = new ClassIndex(List.of("red", "yellow", "green"), List.of(red1, yellow, red2));
+    }
+
+    @Test
+    public void testInstancesAndCounts() {
+        assertEquals(List.of(red1, red2), index.instancesOf("red"));
+        assertEquals(List.of(yellow), index.instancesOf("yellow"));
+        assertTrue(index.instancesOf("green").isEmpty());
+        assertTrue(index.instancesOf("blue").isEmpty());
+        assertEquals(2, index.count("red"));
+        assertEquals(0, index.count("green"));
+        assertTrue(index.isEntityClass("green"));
+        assertFalse(index.isEntityClass("blue"));
+    }
+
+    @Test
+    public void testInstancesAreASnapshot() {
+        var reds = index.instancesOf("red");
+        index.remove(red1);
+        var red4 = TestGames.entity(session, 4, "red", 3, 0, 1, 1);
+        index.add(red4);
+        assertEquals(List.of(red1, red2), reds);
+        assertEquals(List.of(red2, red4), index.instancesOf("red"));
+        assertEquals(2, index.count("red"));
+        assertThrows(UnsupportedOperationException.class, () -> reds.add(yellow));
+    }
+
+    @Test
+    public void testScriptRemovesWhileIterating() {
+        var game = TestGames.load(TestGames.REVERSI);
+        var className = game.getEntities().values().iterator().next().getName();
+        var count = game.classIndex().count(className);
+        assertTrue(count > 0);
+        game.run(() -> GameData.evaluate("for (e in GameMethods.instancesOf('" + className + "')) GameMethods.removeEntity(e)"));
+        assertEquals(0, game.classIndex().count(className));
+        assertTrue(game.getEntities().values().stream().noneMatch(entity -> entity.getName().equals(className)));
+    }
+
+    @Test
+    public void testInstancesFollowARestore() {
+        var game = TestGames.load(TestGames.REVERSI);
+        var className = game.getEntities().values().iterator().next().getName();
+        var before = game.call(() -> GameMethods.instancesOf(className));
+        var snapshot = game.snapshot();
+        game.run(() -> GameData.evaluate("for (e in GameMethods.instancesOf('" + className + "')) GameMethods.removeEntity(e)"));
+        game.restore(snapshot);
+        var after = game.call(() -> GameMethods.instancesOf(className));
+        assertEquals(before.size(), after.size());
+        for (var entity : after) assertEquals(entity, game.getEntities().get(entity.getID()));
+    }
+}
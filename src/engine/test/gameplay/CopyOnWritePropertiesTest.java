@@ -0,0 +1,64 @@
+package gameplay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CopyOnWritePropertiesTest {
+    private static Map<String, Object> prototype() {
+        var props = new LinkedHashMap<String, Object>();
+        props.put("hp", 10);
+        props.put("name", "goblin");
+        props.put("items", new ArrayList<>(List.of("sword")));
+        props.put("position", new int[]{1, 2});
+        props.put("log", new StringBuilder("spawned"));
+        return CopyOnWriteProperties.freeze(props);
+    }
+
+    @Test
+    public void testImmutableValuesAreShared() {
+        var shared = prototype();
+        var props = new CopyOnWriteProperties(shared);
+        assertSame(shared.get("name"), props.get("name"));
+        assertTrue(props.isShared("hp"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testMutableValuesAreCopiedPerInstance() {
+        var shared = prototype();
+        var first = new CopyOnWriteProperties(shared);
+        var second = new CopyOnWriteProperties(shared);
+
+        ((List<Object>) first.get("items")).add("shield");
+        ((int[]) first.get("position"))[0] = 5;
+        ((StringBuilder) first.get("log")).append(", hit");
+
+        assertEquals(List.of("sword"), second.get("items"));
+        assertArrayEquals(new int[]{1, 2}, (int[]) second.get("position"));
+        assertEquals("spawned", second.get("log").toString());
+        assertEquals("spawned", shared.get("log").toString());
+        assertNotSame(first.get("log"), second.get("log"));
+    }
+
+    @Test
+    public void testPutAndRemoveDontCopyTheOldValue() {
+        var props = new CopyOnWriteProperties(prototype());
+        var previous = props.put("items", List.of());
+        assertEquals(List.of("sword"), previous);
+        props.remove("log");
+        assertFalse(props.containsKey("log"));
+        assertFalse(props.own().containsKey("log"));
+        assertEquals(4, props.size());
+    }
+}
@@ -0,0 +1,97 @@
+package gameplay;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class EntityOwnerTest {
+    GameSession session;
+    Player first, second;
+    String prototype;
+
+    @BeforeEach
+    public void loadGame() {
+        session = TestGames.load(TestGames.REVERSI);
+        var players = new ArrayList<>(session.getPlayers().values());
+        first = players.get(0);
+        second = players.get(1);
+        prototype = session.getEntityPrototypes().keySet().iterator().next();
+    }
+
+    /**
+     * The index answers for every ID exactly what the players' own lists say
+     */
+    private void assertIndexMatchesPlayers() {
+        var ids = new HashSet<>(session.getEntities().keySet());
+        session.getPlayers().values().forEach(player -> ids.addAll(player.getMyEntities()));
+        for (var id : ids) {
+            Player owner = null;
+            for (var player : session.getPlayers().values()) {
+                if (!player.getMyEntities().contains(id)) continue;
+                assertNull(owner, "entity " + id + " has two owners");
+                owner = player;
+            }
+            assertSame(owner, session.getOwner(id), "owner of entity " + id);
+        }
+    }
+
+    @Test
+    public void testBundledGameStartsConsistent() {
+        assertIndexMatchesPlayers();
+    }
+
+    @Test
+    public void testCreatedEntityBelongsToItsOwner() {
+        var entity = session.call(() -> GameMethods.createEntity(prototype, 0, 0, second.getName()));
+        assertSame(second, session.getOwner(entity.getID()));
+        assertIndexMatchesPlayers();
+    }
+
+    @Test
+    public void testRemovedEntityHasNoOwner() {
+        var entity = session.call(() -> GameMethods.createEntity(prototype, 0, 0, first.getName()));
+        session.run(() -> GameMethods.removeEntity(entity));
+        assertNull(session.getOwner(entity.getID()));
+        assertFalse(first.getMyEntities().contains(entity.getID()));
+        assertIndexMatchesPlayers();
+    }
+
+    @Test
+    public void testOwnershipMovesToTheNewOwner() {
+        var entity = session.call(() -> GameMethods.createEntity(prototype, 0, 0, first.getName()));
+        session.run(() -> second.addEntity(entity.getID()));
+        assertSame(second, session.getOwner(entity.getID()));
+        assertFalse(first.getMyEntities().contains(entity.getID()));
+        session.run(() -> second.removeEntity(entity.getID()));
+        assertNull(session.getOwner(entity.getID()));
+        assertIndexMatchesPlayers();
+    }
+
+    @Test
+    public void testClearingAPlayersEntities() {
+        var owned = new ArrayList<>(first.getMyEntities());
+        session.run(first::clearMyEntities);
+        for (var id : owned) assertNull(session.getOwner(id));
+        assertIndexMatchesPlayers();
+    }
+
+    @Test
+    public void testIndexFollowsAGameAndItsRestore() {
+        var snapshot = session.snapshot();
+        var fingerprint = session.fingerprint();
+        var random = new Random(5);
+        var policy = InputPolicy.random();
+        for (int i = 0; i < 30 && policy.play(session, random); i++) assertIndexMatchesPlayers();
+        session.restore(snapshot);
+        assertIndexMatchesPlayers();
+        assertEquals(fingerprint, session.fingerprint());
+    }
+}
@@ -0,0 +1,143 @@
+package gameplay;
+
+import javafx.scene.input.KeyCode;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static java.time.Duration.ofSeconds;
+
+public class GameLoopTest {
+    /**
+     * A loop whose thread is held by an action until the latch is released, so that inputs pile up behind it
+     */
+    private static GameLoop blockedLoop(GameSession session, CountDownLatch release) {
+        var loop = new GameLoop(() -> session, new HeadlessView());
+        loop.submit(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return loop;
+    }
+
+    @Test
+    public void testNoInputIsDropped() {
+        var session = TestGames.load(TestGames.TICTACTOE);
+        var release = new CountDownLatch(1);
+        var loop = blockedLoop(session, release);
+        var tile = session.getTiles().keySet().iterator().next();
+        var click = new ClickTag(Tile.class, tile);
+
+        for (int i = 0; i < 100; i++) { // far more than a frame's worth, while a script holds the thread
+            assertTrue(loop.offer(click));
+            assertTrue(loop.offer(new KeyTag(KeyCode.A))); // every KeyTag is a key released, never a repeat
+        }
+        assertTrue(loop.getPending() >= 200); // the action holding the thread may not have been taken yet
+        assertEquals(0, loop.getDropped());
+        release.countDown();
+        loop.stop();
+    }
+
+    @Test
+    public void testInputsAfterTheLoopFinishedAreDropped() {
+        var session = TestGames.load(TestGames.TICTACTOE);
+        var loop = new GameLoop(() -> session, new HeadlessView());
+        loop.stop();
+        assertTimeoutPreemptively(ofSeconds(10), () -> {
+            while (loop.offer(new KeyTag(KeyCode.A))) Thread.onSpinWait();
+        });
+        assertEquals(1, loop.getDropped());
+    }
+
+    @Test
+    public void testInputsArePlayedInOrder() {
+        var session = TestGames.load(TestGames.TICTACTOE);
+        var release = new CountDownLatch(1);
+        var loop = blockedLoop(session, release);
+        var played = Collections.synchronizedList(new ArrayList<Integer>());
+        for (int i = 0; i < 10; i++) {
+            var n = i;
+            loop.submit(() -> played.add(n));
+        }
+        release.countDown();
+        assertTimeoutPreemptively(ofSeconds(10), () -> loop.call(() -> null));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), played);
+        loop.stop();
+    }
+
+    @Test
+    public void testCallAfterStopDoesntWait() {
+        var session = TestGames.load(TestGames.TICTACTOE);
+        for (int i = 0; i < 200; i++) { // races stop() against the thread finishing
+            var loop = new GameLoop(() -> session, new HeadlessView());
+            loop.stop();
+            var n = i;
+            assertEquals(n, (int) assertTimeoutPreemptively(ofSeconds(10), () -> loop.call(() -> n)));
+        }
+    }
+
+    @Test
+    public void testFailuresGoToTheExceptionHandler() throws InterruptedException {
+        var session = TestGames.load(TestGames.TICTACTOE);
+        var failures = new LinkedBlockingQueue<Throwable>();
+        var handler = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> failures.add(e));
+        try {
+            var loop = new GameLoop(() -> session, new HeadlessView());
+            var failure = new IllegalStateException("thrown on purpose by GameLoopTest");
+            loop.submit(() -> {
+                throw failure;
+            });
+            assertEquals("still running", assertTimeoutPreemptively(ofSeconds(10), () -> loop.call(() -> "still running")));
+            assertSame(failure, failures.poll(10, TimeUnit.SECONDS));
+            assertThrows(IllegalArgumentException.class, () -> loop.call(() -> {
+                throw new IllegalArgumentException();
+            }));
+            assertTrue(failures.isEmpty()); // the caller heard of that one
+            loop.stop();
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+
+    @Test
+    public void testAnErrorEndsTheLoopWithoutStrandingCallers() throws InterruptedException {
+        var session = TestGames.load(TestGames.TICTACTOE);
+        var handler = Thread.getDefaultUncaughtExceptionHandler();
+        var failures = new LinkedBlockingQueue<Throwable>();
+        Thread.setDefaultUncaughtExceptionHandler((thread, e) -> failures.add(e));
+        try {
+            var loop = new GameLoop(() -> session, new HeadlessView());
+            var release = new CountDownLatch(1);
+            loop.submit(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new AssertionError("thrown on purpose by GameLoopTest");
+            });
+            var queued = loop.supply(() -> "never runs");
+            release.countDown();
+            assertThrows(CancellationException.class, () -> queued.get(10, TimeUnit.SECONDS));
+            assertTrue(failures.poll(10, TimeUnit.SECONDS) instanceof AssertionError);
+            assertEquals("inline", assertTimeoutPreemptively(ofSeconds(10), () -> loop.call(() -> "inline")));
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+}
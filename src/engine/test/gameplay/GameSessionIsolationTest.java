@@ -0,0 +1,71 @@
+package gameplay;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameSessionIsolationTest {
+    private static final int GAMES_PER_THREAD = 3;
+
+    @Test
+    public void testConcurrentGamesMatchGamesPlayedAlone() throws IOException, InterruptedException {
+        var simulation = new Simulation(new File(TestGames.REVERSI));
+        var alone = List.of(simulation.play(1, InputPolicy.random()), simulation.play(2, InputPolicy.random()));
+        assertTrue(alone.get(0).getFingerprint() != alone.get(1).getFingerprint(), "the two seeds should play different games");
+
+        var start = new CountDownLatch(1);
+        var failure = new AtomicReference<Throwable>();
+        var together = new ArrayList<List<GameOutcome>>();
+        var threads = new ArrayList<Thread>();
+        for (var seed : new long[]{1, 2}) {
+            var outcomes = new ArrayList<GameOutcome>();
+            together.add(outcomes);
+            var thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < GAMES_PER_THREAD; i++) outcomes.add(simulation.play(seed, InputPolicy.random()));
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (var thread : threads) thread.join();
+
+        assertNull(failure.get());
+        for (int game = 0; game < 2; game++) {
+            var expected = alone.get(game);
+            for (var outcome : together.get(game)) {
+                assertEquals(expected.getFingerprint(), outcome.getFingerprint());
+                assertEquals(expected.getTurns(), outcome.getTurns());
+                assertEquals(expected.getEndMessage(), outcome.getEndMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testCheckingClicksLeavesTheClickedBindingAlone() {
+        var session = TestGames.load(TestGames.TICTACTOE);
+        var shell = session.shell().getContext();
+        assertFalse(session.legalClicks().isEmpty());
+        assertFalse(shell.hasVariable("$clicked"));
+
+        var clicked = session.legalClicks().get(0);
+        session.click(clicked);
+        var bound = shell.getVariable("$clicked");
+        session.legalClicks();
+        assertEquals(bound, shell.getVariable("$clicked"));
+    }
+}
@@ -0,0 +1,88 @@
+package gameplay;
+
+import conversion.engine.UnsupportedValueException;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameSnapshotTest {
+    /**
+     * The game with the given seed, after that many random clicks chosen with the policy seed
+     */
+    private static GameSession play(String path, long seed, long policySeed, int inputs) {
+        var session = TestGames.load(path);
+        session.setSeed(seed);
+        var random = new Random(policySeed);
+        var policy = InputPolicy.random();
+        for (int i = 0; i < inputs; i++) policy.play(session, random);
+        return session;
+    }
+
+    @Test
+    public void testUnsupportedPropIsReported() {
+        var session = play(TestGames.REVERSI, 1, 1, 0);
+        var entity = session.getEntities().values().iterator().next();
+        session.run(() -> entity.props.put("owner", new Object()));
+        var e = assertThrows(UnsupportedValueException.class, session::snapshot);
+        assertTrue(e.getMessage().startsWith("Entity " + entity.getID()), e.getMessage());
+    }
+
+    @Test
+    public void testUnsupportedVariableIsReported() {
+        var session = play(TestGames.REVERSI, 1, 1, 0);
+        session.shell().setVariable("cache", new Object());
+        var e = assertThrows(UnsupportedValueException.class, session::snapshot);
+        assertTrue(e.getMessage().startsWith("Script variable cache"), e.getMessage());
+    }
+
+    @Test
+    public void testPlayersAreSavedByName() {
+        var session = play(TestGames.TICTACTOE, 1, 1, 0);
+        var player = session.getPlayers().values().iterator().next();
+        session.shell().setVariable("turn", player);
+        var snapshot = session.snapshot();
+        session.shell().setVariable("turn", null);
+        session.restore(snapshot);
+        assertSame(player, session.shell().getVariable("turn"));
+    }
+
+    @Test
+    public void testJournalIsKeptOnlyForTheSameGame() {
+        var session = play(TestGames.REVERSI, 1, 1, 4);
+        var snapshot = session.snapshot();
+        InputPolicy.random().play(session, new Random(9));
+        session.restore(snapshot);
+        assertEquals(4, session.getJournal().size()); // going back in the same game
+
+        var other = play(TestGames.REVERSI, 1, 2, 5);
+        assertNotEquals(session.getJournal().inputs(), other.getJournal().inputs().subList(0, 4));
+        other.restore(snapshot);
+        assertEquals(0, other.getJournal().size()); // same seed, other inputs: its journal restarts at the snapshot
+    }
+
+    @Test
+    public void testInitializerSavesAndLoadsWithoutWaiting() {
+        var initializer = new Initializer(new HeadlessView());
+        initializer.setTracing(false);
+        initializer.myXMLParser.loadFile(new File(TestGames.REVERSI));
+        initializer.initGameData();
+        var session = initializer.getSession();
+        var fingerprint = session.fingerprint();
+        var saved = initializer.saveGame().join();
+        InputPolicy.random().play(session, new Random(3));
+        assertNotEquals(fingerprint, session.fingerprint());
+        initializer.loadGame(saved).join();
+        assertEquals(fingerprint, session.fingerprint());
+
+        var other = TestGames.load(TestGames.TICTACTOE).snapshot();
+        var failed = initializer.loadGame(other);
+        assertTrue(failed.isCompletedExceptionally()); // from another game: reported through the future
+    }
+}
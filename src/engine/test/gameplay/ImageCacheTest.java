@@ -0,0 +1,55 @@
+package gameplay;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ImageCacheTest {
+    private static final String CROSS = "../../../../tictactoe/x_drawn.png"; // the prefix game files put before their paths
+    private static final String CIRCLE = "../../../../tictactoe/circle_red.png";
+
+    @BeforeEach
+    public void clearCache() {
+        ImageCache.clear();
+    }
+
+    @Test
+    public void testOnePathDecodesOnce() {
+        var decodes = ImageCache.decodes();
+        var first = ImageCache.get(CROSS);
+        for (int i = 0; i < 10; i++) assertSame(first, ImageCache.get(CROSS)); // every sprite of the class
+        assertEquals(decodes + 1, ImageCache.decodes());
+        assertEquals(1, ImageCache.size());
+    }
+
+    @Test
+    public void testSpritesOfOneSizeShareTheScaledImage() {
+        var decodes = ImageCache.decodes();
+        var scaled = ImageCache.get(CROSS, 40, 40, true);
+        assertSame(scaled, ImageCache.get(CROSS, 40, 40, true));
+        assertEquals(40, scaled.getWidth());
+        assertNotSame(scaled, ImageCache.get(CROSS));
+        assertEquals(decodes + 2, ImageCache.decodes());
+    }
+
+    @Test
+    public void testResizingBackReusesTheEarlierImage() {
+        var small = ImageCache.get(CROSS, 40, 40, true);
+        var large = ImageCache.get(CROSS, 80, 60, true);
+        var decodes = ImageCache.decodes();
+        assertSame(small, ImageCache.get(CROSS, 40, 40, true));
+        assertSame(large, ImageCache.get(CROSS, 80, 60, true));
+        assertEquals(decodes, ImageCache.decodes());
+    }
+
+    @Test
+    public void testPathsAreCachedApart() {
+        var decodes = ImageCache.decodes();
+        assertNotSame(ImageCache.get(CROSS), ImageCache.get(CIRCLE));
+        assertEquals(decodes + 2, ImageCache.decodes());
+        assertEquals(2, ImageCache.size());
+    }
+}
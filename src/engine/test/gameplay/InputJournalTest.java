@@ -0,0 +1,81 @@
+package gameplay;
+
+import javafx.scene.input.KeyCode;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InputJournalTest {
+    private static final int SIZE_OFFSET = 4 + 1 + 8; // magic, version, seed
+
+    private static InputJournal journal() {
+        var journal = new InputJournal(42);
+        journal.recordClick(new ClickTag(Tile.class, 3));
+        journal.recordKey(KeyCode.SPACE);
+        journal.recordClick(new ClickTag(Entity.class, 300));
+        return journal;
+    }
+
+    @Test
+    public void testBytesRoundTrip() {
+        var read = InputJournal.fromBytes(journal().toBytes());
+        assertEquals(42, read.getSeed());
+        assertEquals(3, read.size());
+        assertEquals(List.of(new ClickTag(Tile.class, 3), KeyCode.SPACE, new ClickTag(Entity.class, 300)), read.inputs());
+    }
+
+    @Test
+    public void testSizeLargerThanTheRecords() {
+        var bytes = journal().toBytes();
+        ByteBuffer.wrap(bytes).putInt(SIZE_OFFSET, Integer.MAX_VALUE);
+        assertThrows(IOException.class, () -> InputJournal.read(new ByteArrayInputStream(bytes)));
+        ByteBuffer.wrap(bytes).putInt(SIZE_OFFSET, 4);
+        assertThrows(IOException.class, () -> InputJournal.read(new ByteArrayInputStream(bytes)));
+        ByteBuffer.wrap(bytes).putInt(SIZE_OFFSET, -1);
+        assertThrows(IOException.class, () -> InputJournal.read(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void testSizeSmallerThanTheRecords() {
+        var bytes = journal().toBytes();
+        ByteBuffer.wrap(bytes).putInt(SIZE_OFFSET, 2);
+        assertThrows(IOException.class, () -> InputJournal.read(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void testTruncatedJournal() {
+        var bytes = journal().toBytes();
+        var truncated = Arrays.copyOf(bytes, bytes.length - 1);
+        assertThrows(UncheckedIOException.class, () -> InputJournal.fromBytes(truncated));
+    }
+
+    @Test
+    public void testReplayedGameEndsTheSame() throws IOException {
+        var simulation = new Simulation(new File(TestGames.TICTACTOE));
+        var session = TestGames.load(TestGames.TICTACTOE);
+        var random = new Random(5);
+        var policy = InputPolicy.random();
+        var inputs = 0;
+        while (inputs < 9 && policy.play(session, random)) inputs++;
+        long fingerprint = session.call(session::fingerprint);
+        session.unbind();
+        var journal = InputJournal.fromBytes(session.getJournal().toBytes());
+        assertEquals(inputs, journal.size());
+        assertTrue(inputs > 0);
+
+        var replayed = simulation.replay(journal);
+        assertEquals(fingerprint, replayed.getFingerprint());
+        assertEquals(session.getTurn().getTurnCount(), replayed.getTurns());
+    }
+}
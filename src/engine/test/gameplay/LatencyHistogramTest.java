@@ -0,0 +1,84 @@
+package gameplay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class LatencyHistogramTest {
+    @Test
+    public void testEmptyHistogram() {
+        var histogram = new LatencyHistogram();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.meanNanos());
+        assertEquals(0, histogram.percentileNanos(0.99));
+    }
+
+    @Test
+    public void testPercentilesAreBucketBounds() {
+        var histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) histogram.record(100); // bucket 64..127
+        for (int i = 0; i < 9; i++) histogram.record(1000); // bucket 512..1023
+        histogram.record(5000);
+        assertEquals(100, histogram.count());
+        assertEquals((90 * 100 + 9 * 1000 + 5000) / 100.0, histogram.meanNanos());
+        assertEquals(127, histogram.percentileNanos(0.5));
+        assertEquals(127, histogram.percentileNanos(0.9));
+        assertEquals(1023, histogram.percentileNanos(0.99));
+        assertEquals(5000, histogram.percentileNanos(1)); // capped by the largest record
+        assertEquals(5000, histogram.maxNanos());
+    }
+
+    @Test
+    public void testNegativeDurationsCountAsZero() {
+        var histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(0, histogram.percentileNanos(0.5));
+        assertEquals(0, histogram.maxNanos());
+    }
+
+    @Test
+    public void testMergeAddsTheOtherRecords() {
+        var first = new LatencyHistogram();
+        var second = new LatencyHistogram();
+        for (int i = 0; i < 10; i++) first.record(100);
+        for (int i = 0; i < 30; i++) second.record(3000);
+        first.merge(second);
+        assertEquals(40, first.count());
+        assertEquals((10 * 100 + 30 * 3000) / 40.0, first.meanNanos());
+        assertEquals(3000, first.maxNanos());
+        assertEquals(127, first.percentileNanos(0.25));
+        assertEquals(3000, first.percentileNanos(0.5));
+        assertEquals(30, second.count()); // left as it was
+    }
+
+    @Test
+    public void testMergingIntoEachOtherDoesntDeadlock() throws InterruptedException {
+        var first = new LatencyHistogram();
+        var second = new LatencyHistogram(); // empty, so that merging them over and over adds nothing up
+        var start = new CountDownLatch(1);
+        var left = new Thread(() -> merge(start, first, second));
+        var right = new Thread(() -> merge(start, second, first));
+        left.setDaemon(true); // a deadlocked pair mustn't keep the test run alive
+        right.setDaemon(true);
+        left.start();
+        right.start();
+        start.countDown();
+        left.join(TimeUnit.SECONDS.toMillis(10));
+        right.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(left.isAlive() || right.isAlive(), "merging threads are stuck");
+    }
+
+    private static void merge(CountDownLatch start, LatencyHistogram into, LatencyHistogram from) {
+        try {
+            start.await();
+        } catch (InterruptedException e) {
+            return;
+        }
+        var end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(500);
+        while (System.nanoTime() < end) into.merge(from);
+    }
+}
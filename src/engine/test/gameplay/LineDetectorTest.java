@@ -0,0 +1,98 @@
+package gameplay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LineDetectorTest {
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}};
+
+    @Test
+    public void testRowsColumnsAndDiagonals() {
+        var lines = new LineDetector(7, 6);
+        assertFalse(lines.hasInARow("red", 4));
+        for (int x = 1; x < 5; x++) lines.occupantChanged(x, 5, null, "red");
+        assertTrue(lines.hasInARow("red", 4));
+        assertFalse(lines.hasInARow("red", 5));
+        assertFalse(lines.hasInARow("yellow", 4));
+
+        for (int y = 0; y < 4; y++) lines.occupantChanged(6, y, null, "yellow");
+        assertTrue(lines.hasInARow("yellow", 4));
+
+        var diagonal = new LineDetector(7, 6);
+        for (int i = 0; i < 4; i++) diagonal.occupantChanged(i, 5 - i, null, "red");
+        assertTrue(diagonal.hasInARow("red", 4));
+        var antiDiagonal = new LineDetector(7, 6);
+        for (int i = 0; i < 4; i++) antiDiagonal.occupantChanged(2 + i, 1 + i, null, "red");
+        assertTrue(antiDiagonal.hasInARow("red", 4));
+    }
+
+    @Test
+    public void testLinesBrokenAfterTheyWereCounted() {
+        var lines = new LineDetector(3, 3);
+        for (int x = 0; x < 3; x++) lines.occupantChanged(x, 1, null, "X");
+        assertTrue(lines.hasInARow("X", 3));
+        lines.occupantChanged(1, 1, "X", "O");
+        assertFalse(lines.hasInARow("X", 3));
+        lines.occupantChanged(1, 1, "O", null);
+        assertFalse(lines.hasInARow("X", 3));
+        lines.occupantChanged(1, 1, null, "X");
+        assertTrue(lines.hasInARow("X", 3));
+    }
+
+    @Test
+    public void testRunsLongerThanTheBoard() {
+        var lines = new LineDetector(3, 3);
+        for (int x = 0; x < 3; x++) lines.occupantChanged(x, 0, null, "X");
+        assertFalse(lines.hasInARow("X", 4));
+        assertTrue(lines.hasInARow("X", 0));
+    }
+
+    @Test
+    public void testMatchesAScanOnRandomMoves() {
+        var random = new Random(11);
+        var classes = new String[]{null, "A", "B"};
+        var width = 9;
+        var height = 7;
+        var lines = new LineDetector(width, height);
+        var cells = new String[width * height];
+        for (int runLength = 2; runLength <= 5; runLength++) lines.hasInARow("A", runLength); // start counting early
+        for (int move = 0; move < 2000; move++) {
+            var x = random.nextInt(width);
+            var y = random.nextInt(height);
+            var updated = classes[random.nextInt(classes.length)];
+            lines.occupantChanged(x, y, cells[y * width + x], updated);
+            cells[y * width + x] = updated;
+            for (int runLength = 2; runLength <= 5; runLength++) {
+                for (var className : new String[]{"A", "B"}) {
+                    assertEquals(scan(cells, width, height, className, runLength), lines.hasInARow(className, runLength),
+                            "move " + move + ", " + runLength + " of " + className);
+                }
+            }
+        }
+    }
+
+    private static boolean scan(String[] cells, int width, int height, String className, int runLength) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                for (var d : DIRECTIONS) {
+                    var run = 0;
+                    while (run < runLength) {
+                        var cx = x + run * d[0];
+                        var cy = y + run * d[1];
+                        if (cx < 0 || cy < 0 || cx >= width || cy >= height) break;
+                        if (!Objects.equals(cells[cy * width + cx], className)) break;
+                        run++;
+                    }
+                    if (run == runLength) return true;
+                }
+            }
+        }
+        return false;
+    }
+}
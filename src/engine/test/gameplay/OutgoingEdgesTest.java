@@ -0,0 +1,98 @@
+package gameplay;
+
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import org.junit.jupiter.api.Test;
+import phase.api.GameEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OutgoingEdgesTest {
+    private static final MouseEvent CLICK = new MouseEvent(
+            MouseEvent.MOUSE_CLICKED, 0, 0, 0, 0, MouseButton.PRIMARY, 1,
+            false, false, false, false, true, false, false, true, false, false, null
+    );
+
+    private static Edge edge(String from, String to, GameEvent trigger, String guard) {
+        return new Edge("phase", from, to, trigger, guard);
+    }
+
+    private static KeyEvent released(KeyCode code) {
+        return new KeyEvent(KeyEvent.KEY_RELEASED, "", "", code, false, false, false, false);
+    }
+
+    @Test
+    public void testOrderDoesntDependOnHowEdgesWereStored() {
+        var edges = new ArrayList<>(List.of(
+                edge("start", "b", GameEvent.mouseClick(), "$return = true"),
+                edge("start", "a", GameEvent.mouseClick(), "$return = false"),
+                edge("start", "a", GameEvent.mouseClick(), "$return = true"),
+                edge("start", "a", GameEvent.keyPress(KeyCode.A), "$return = true"),
+                edge("start", "c", GameEvent.mouseClick(), null)
+        ));
+        var expected = new OutgoingEdges(edges).all();
+        assertEquals(List.of("a", "a", "a", "b", "c"), expected.stream().map(Edge::getMyEndNodeName).collect(Collectors.toList()));
+        assertEquals("$return = false", expected.get(1).getGuard()); // after the key press, guards in natural order
+        var random = new Random(3);
+        for (int i = 0; i < 20; i++) {
+            Collections.shuffle(edges, random);
+            assertEquals(expected, new OutgoingEdges(edges).all());
+        }
+    }
+
+    @Test
+    public void testCandidatesMatchTheTrigger() {
+        var click = edge("start", "a", GameEvent.mouseClick(), "$return = true");
+        var keyA = edge("start", "b", GameEvent.keyPress(KeyCode.A), "$return = true");
+        var keyB = edge("start", "c", GameEvent.keyPress(KeyCode.B), "$return = true");
+        var drag = edge("start", "d", GameEvent.mouseDrag(), "$return = true");
+        var edges = new OutgoingEdges(List.of(drag, keyB, keyA, click));
+
+        assertEquals(List.of(click), edges.candidatesFor(CLICK));
+        assertEquals(List.of(keyA), edges.candidatesFor(released(KeyCode.A)));
+        assertEquals(List.of(keyB), edges.candidatesFor(released(KeyCode.B)));
+        assertTrue(edges.candidatesFor(released(KeyCode.C)).isEmpty());
+        assertTrue(edges.candidatesFor(new KeyEvent(KeyEvent.KEY_PRESSED, "", "", KeyCode.A, false, false, false, false)).isEmpty());
+        assertEquals(4, edges.all().size());
+    }
+
+    @Test
+    public void testIndexGroupsByStartNode() {
+        var ab = edge("a", "b", GameEvent.mouseClick(), "$return = true");
+        var ac = edge("a", "c", GameEvent.mouseClick(), "$return = true");
+        var ba = edge("b", "a", GameEvent.keyPress(KeyCode.SPACE), "$return = true");
+        var index = OutgoingEdges.index(List.of(ba, ac, ab));
+        assertEquals(List.of(ab, ac), index.get("a").all());
+        assertEquals(List.of(ba), index.get("b").all());
+        assertFalse(index.containsKey("c"));
+        assertTrue(OutgoingEdges.NONE.candidatesFor(CLICK).isEmpty());
+    }
+
+    @Test
+    public void testFirstPassingGuardDecides() {
+        var session = TestGames.load(TestGames.TICTACTOE);
+        session.myOutgoingEdges.put("test", new OutgoingEdges(List.of(
+                edge("test", "c", GameEvent.mouseClick(), "checked += 'c'; $return = true"),
+                edge("test", "b", GameEvent.mouseClick(), "checked += 'b'; $return = true"),
+                edge("test", "a", GameEvent.mouseClick(), "checked += 'a'; $return = false"),
+                edge("test", "a", GameEvent.keyPress(KeyCode.A), "checked += 'k'; $return = true")
+        )));
+        session.clearArgumentListeners();
+        session.listenToEdgesFrom("test");
+        session.shell().setVariable("checked", "");
+        var tile = session.getTiles().keySet().iterator().next();
+
+        assertTrue(session.acceptsClick(new ClickTag(Tile.class, tile)));
+        assertEquals("ab", session.shell().getVariable("checked")); // c comes after the edge that passed
+    }
+}
@@ -0,0 +1,36 @@
+package gameplay;
+
+import conversion.engine.ScriptCompiler;
+import groovy.lang.GroovyShell;
+import groovy.lang.Script;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class ScriptCacheTest {
+    @Test
+    public void testClassesAreNamedAfterTheirSource() {
+        var first = new HashMap<String, Class<? extends Script>>();
+        var second = new HashMap<String, Class<? extends Script>>();
+        new ScriptCache(new GroovyShell(), first).precompile("1 + 1");
+        var cache = new ScriptCache(new GroovyShell(), second); // another session, whose shell counts from Script1 again
+        cache.precompile("2 + 2");
+        assertEquals(4, cache.evaluate("2 + 2"));
+        assertEquals(ScriptCompiler.classNameFor("1 + 1"), first.get("1 + 1").getName());
+        assertEquals(ScriptCompiler.classNameFor("2 + 2"), second.get("2 + 2").getName());
+        assertNotEquals(first.get("1 + 1").getName(), second.get("2 + 2").getName());
+    }
+
+    @Test
+    public void testScriptsCompiledOnTheirFirstRunAreNamedToo() {
+        Map<String, Class<? extends Script>> classes = new HashMap<>();
+        var cache = new ScriptCache(new GroovyShell(), classes);
+        assertEquals(3, cache.evaluate("1 + 2"));
+        assertEquals(ScriptCompiler.classNameFor("1 + 2"), classes.get("1 + 2").getName());
+        assertEquals(1, cache.misses());
+    }
+}
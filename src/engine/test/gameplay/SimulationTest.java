@@ -0,0 +1,66 @@
+package gameplay;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SimulationTest {
+    @Test
+    public void testSameSeedPlaysTheSameGame() throws IOException {
+        var simulation = new Simulation(new File(TestGames.REVERSI));
+        for (long seed = 0; seed < 3; seed++) {
+            var first = simulation.play(seed, InputPolicy.random());
+            var second = simulation.play(seed, InputPolicy.random());
+            assertEquals(first.getFingerprint(), second.getFingerprint());
+            assertEquals(first.getTurns(), second.getTurns());
+            assertEquals(first.getInputs(), second.getInputs());
+        }
+    }
+
+    @Test
+    public void testForkedGameMatchesAFreshlyParsedOne() throws IOException {
+        var simulation = new Simulation(new File(TestGames.TICTACTOE));
+        simulation.play(1, InputPolicy.random()); // must leave nothing behind for the next game
+        var forked = simulation.play(7, InputPolicy.random());
+
+        var initializer = new Initializer(new HeadlessView());
+        initializer.setTracing(false);
+        initializer.setSeed(7);
+        initializer.myXMLParser.loadFile(new File(TestGames.TICTACTOE));
+        initializer.initGameData();
+        var session = initializer.getSession();
+        var random = new Random(7);
+        var policy = InputPolicy.random();
+        var inputs = 0;
+        while (!((HeadlessView) initializer.getView()).isOver() && policy.play(session, random)) inputs++;
+        long fingerprint = session.call(session::fingerprint);
+        session.unbind();
+
+        assertTrue(inputs > 0);
+        assertEquals(inputs, forked.getInputs());
+        assertEquals(fingerprint, forked.getFingerprint());
+    }
+
+    @Test
+    public void testParsedGameHandsOutCopies() throws IOException {
+        var game = ParsedGame.read(new File(TestGames.REVERSI));
+        var entities = game.getEntities();
+        var entity = entities.values().iterator().next();
+        entity.props.put("mark", 1);
+        var again = game.getEntities().get(entity.getID());
+        assertNotSame(entity, again);
+        assertFalse(again.props.containsKey("mark"));
+        assertNotSame(game.getTurn(), game.getTurn());
+        var player = game.getPlayers().values().iterator().next();
+        var playerAgain = game.getPlayers().get(player.getName());
+        assertNotSame(player, playerAgain);
+        assertEquals(player.getMyEntities(), playerAgain.getMyEntities());
+    }
+}
@@ -0,0 +1,114 @@
+package gameplay;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpatialIndexTest {
+    GameSession session;
+    SpatialIndex index;
+
+    @BeforeEach
+    public void setupIndex() {
+        session = TestGames.load(TestGames.CONNECT4);
+        index = new SpatialIndex(8, 6);
+    }
+
+    @Test
+    public void testAddAndQuery() {
+        var entity = TestGames.entity(session, 1, "red", 2, 3, 1, 1);
+        index.add(entity);
+        assertSame(entity, index.entityOver(2, 3, 1, 1));
+        assertSame(entity, index.entityAt(2.5, 3.5));
+        assertNull(index.entityOver(3, 3, 1, 1));
+        assertTrue(index.hasEntityAt(2, 3));
+        assertFalse(index.hasEntityAt(2, 4));
+        assertEquals("red", index.occupantClass(2, 3));
+    }
+
+    @Test
+    public void testEntityCoversEveryCellItSpans() {
+        var wide = TestGames.entity(session, 1, "ship", 1, 1, 3, 2);
+        index.add(wide);
+        for (int x = 1; x < 4; x++) {
+            for (int y = 1; y < 3; y++) assertSame(wide, index.entityOver(x, y, 1, 1));
+        }
+        assertNull(index.entityOver(4, 1, 1, 1));
+        assertNull(index.entityOver(1, 3, 1, 1));
+    }
+
+    @Test
+    public void testMove() {
+        var entity = TestGames.entity(session, 1, "red", 0, 0, 1, 1);
+        index.add(entity);
+        entity.restoreLocation(5, 4);
+        index.move(entity);
+        assertNull(index.entityOver(0, 0, 1, 1));
+        assertNull(index.occupantClass(0, 0));
+        assertSame(entity, index.entityOver(5, 4, 1, 1));
+        assertEquals("red", index.occupantClass(5, 4));
+    }
+
+    @Test
+    public void testMoveIgnoresEntitiesNeverAdded() {
+        var entity = TestGames.entity(session, 1, "red", 0, 0, 1, 1);
+        index.move(entity);
+        assertNull(index.entityOver(0, 0, 1, 1));
+    }
+
+    @Test
+    public void testRemove() {
+        var entity = TestGames.entity(session, 1, "red", 4, 4, 1, 1);
+        index.add(entity);
+        index.remove(entity);
+        assertNull(index.entityOver(4, 4, 1, 1));
+        assertNull(index.occupantClass(4, 4));
+        index.remove(entity); // removing twice is harmless
+    }
+
+    @Test
+    public void testLowestIdWins() {
+        var high = TestGames.entity(session, 7, "red", 2, 2, 1, 1);
+        var low = TestGames.entity(session, 3, "blue", 2, 2, 1, 1);
+        index.add(high);
+        index.add(low);
+        assertSame(low, index.entityOver(2, 2, 1, 1));
+        assertEquals("blue", index.occupantClass(2, 2));
+        index.remove(low);
+        assertSame(high, index.entityOver(2, 2, 1, 1));
+        assertEquals("red", index.occupantClass(2, 2));
+    }
+
+    @Test
+    public void testEntityOutsideTheGrid() {
+        var outside = TestGames.entity(session, 1, "red", -2, 1, 1, 1);
+        var overlapping = TestGames.entity(session, 2, "blue", 7, 5, 2, 2);
+        index.add(outside);
+        index.add(overlapping);
+        assertSame(outside, index.entityOver(-2, 1, 1, 1));
+        assertSame(overlapping, index.entityOver(8, 6, 1, 1));
+        assertSame(overlapping, index.entityOver(7, 5, 1, 1));
+        assertNull(index.occupantClass(-2, 1));
+    }
+
+    @Test
+    public void testListenersFollowOccupants() {
+        var changes = new ArrayList<String>();
+        var entity = TestGames.entity(session, 1, "red", 1, 1, 1, 1);
+        index.add(entity);
+        index.addListener((x, y, oldClass, newClass) -> changes.add(x + "," + y + ":" + oldClass + "->" + newClass));
+        assertEquals(List.of("1,1:null->red"), changes); // told about what was there before it listened
+        entity.restoreLocation(2, 1);
+        index.move(entity);
+        index.remove(entity);
+        assertEquals(List.of("1,1:null->red", "1,1:red->null", "2,1:null->red", "2,1:red->null"), changes);
+    }
+}
@@ -0,0 +1,65 @@
+package gameplay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StartupProfileTest {
+    private static List<String> paths(StartupProfile profile) {
+        var paths = new ArrayList<String>();
+        profile.getSteps().forEach(step -> paths.add(step.getPath()));
+        return paths;
+    }
+
+    @Test
+    public void testStepsNest() {
+        var profile = new StartupProfile(true);
+        int result = profile.time("load", () -> {
+            profile.run("parse", () -> profile.record("decode", 1000));
+            return 42;
+        });
+        assertEquals(42, result);
+        assertEquals(List.of("load", "load/parse", "load/parse/decode"), paths(profile));
+        assertEquals(2, profile.getSteps().get(2).getDepth());
+        assertTrue(profile.getSteps().stream().allMatch(step -> step.getNanos() >= 0));
+    }
+
+    @Test
+    public void testNothingRecordedWhenDisabled() {
+        var profile = new StartupProfile(false);
+        assertEquals("done", profile.time("load", () -> "done"));
+        assertFalse(profile.firstFrame());
+        assertTrue(profile.getSteps().isEmpty());
+    }
+
+    @Test
+    public void testStartupEndsAtTheFirstFrame() {
+        var profile = new StartupProfile(true);
+        profile.run("adjustViewSize", () -> { });
+        assertTrue(profile.firstFrame());
+        assertFalse(profile.firstFrame());
+        for (int i = 0; i < 10; i++) profile.run("adjustViewSize", () -> { }); // the window being resized later on
+        assertEquals(List.of("adjustViewSize", "firstFrame"), paths(profile));
+    }
+
+    @Test
+    public void testStepsOnAnotherThreadDontNestUnderThisOne() {
+        var profile = new StartupProfile(true);
+        var other = new Thread(() -> profile.run("resize", () -> { }));
+        profile.run("initGameData", () -> {
+            other.start();
+            try {
+                other.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(paths(profile).contains("resize"));
+        assertEquals(2, profile.getSteps().size());
+    }
+}
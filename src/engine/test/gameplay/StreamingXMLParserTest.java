@@ -0,0 +1,105 @@
+package gameplay;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StreamingXMLParserTest {
+    static final List<String> GAMES = List.of(TestGames.CONNECT4, TestGames.REVERSI, TestGames.TICTACTOE,
+            "battleship/battleship.xml", "goblins_and_trolls/goblin_sword_game.xml");
+
+    /**
+     * The object's fields as plain maps and lists, so that objects read by two parsers compare by value
+     * whichever collection classes each of them chose
+     */
+    private static Object plain(Object object) {
+        if (object == null || object instanceof String || object instanceof Number
+                || object instanceof Boolean || object instanceof Character || object instanceof Enum) return object;
+        if (object instanceof Map) {
+            var plain = new TreeMap<String, Object>();
+            ((Map<?, ?>) object).forEach((key, value) -> plain.put(String.valueOf(key), plain(value)));
+            return plain;
+        }
+        if (object instanceof Set) {
+            return ((Set<?>) object).stream().map(StreamingXMLParserTest::plain).map(String::valueOf).sorted().collect(Collectors.toList());
+        }
+        if (object instanceof Collection) {
+            return ((Collection<?>) object).stream().map(StreamingXMLParserTest::plain).collect(Collectors.toList());
+        }
+        var fields = new TreeMap<String, Object>();
+        for (var type = object.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (var field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) continue;
+                try {
+                    field.setAccessible(true);
+                    fields.put(type.getSimpleName() + "." + field.getName(), plain(field.get(object)));
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Fails unless the two parsers read the same game
+     */
+    static void assertSameGame(GameParser expected, GameParser actual) {
+        assertEquals(expected.getDimension().getX(), actual.getDimension().getX());
+        assertEquals(expected.getDimension().getY(), actual.getDimension().getY());
+        assertEquals(expected.getBGMpath(), actual.getBGMpath());
+        assertEquals(expected.getWinCondition(), actual.getWinCondition());
+        assertEquals(plain(expected.getPlayers()), plain(actual.getPlayers()));
+        assertEquals(plain(expected.getEntities()), plain(actual.getEntities()));
+        assertEquals(plain(expected.getEntityPrototypes()), plain(actual.getEntityPrototypes()));
+        assertEquals(plain(expected.getTiles()), plain(actual.getTiles()));
+        assertEquals(plain(expected.getPhases()), plain(actual.getPhases()));
+        assertEquals(plain(expected.getNodes()), plain(actual.getNodes()));
+        assertEquals(plain(expected.getEdges()), plain(actual.getEdges()));
+        assertEquals(plain(expected.getTurn()), plain(actual.getTurn()));
+    }
+
+    @Test
+    public void testBundledGamesReadTheSameAsTheDomParser() {
+        for (var game : GAMES) {
+            var dom = new XMLParser();
+            dom.loadFile(new File(game));
+            var streaming = new StreamingXMLParser();
+            streaming.loadFile(new File(game));
+            assertSameGame(dom, streaming);
+        }
+    }
+
+    @Test
+    public void testNothingOfTheLastGameSurvives() {
+        var parser = new StreamingXMLParser();
+        parser.loadFile(new File(TestGames.REVERSI));
+        parser.loadXML("<game><grid-width>2</grid-width><grid-height>3</grid-height></game>");
+        assertEquals(2, parser.getDimension().getX());
+        assertEquals(3, parser.getDimension().getY());
+        assertNull(parser.getBGMpath());
+        assertNull(parser.getWinCondition());
+        assertNull(parser.getTurn());
+        assertEquals(0, parser.getEntities().size());
+        assertEquals(0, parser.getPlayers().size());
+    }
+
+    @Test
+    public void testUnreadableGamesThrow() {
+        var parser = new StreamingXMLParser();
+        assertThrows(UncheckedIOException.class, () -> parser.loadFile(new File("no/such/game.xml")));
+        assertThrows(UncheckedIOException.class, () -> parser.loadXML("<game><grid-width>"));
+    }
+}
@@ -0,0 +1,34 @@
+package gameplay;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Games shipped with the engine, loaded headless for tests; paths are relative to src/engine
+ */
+class TestGames {
+    static final String CONNECT4 = "connect4/Connect4.xml";
+    static final String REVERSI = "reversi/reversi.xml";
+    static final String TICTACTOE = "tictactoe/TicTacToe.xml";
+
+    /**
+     * Loads the game without a display and makes its session current on the calling thread
+     */
+    static GameSession load(String path) {
+        var initializer = new Initializer(new HeadlessView());
+        initializer.setTracing(false);
+        initializer.myXMLParser.loadFile(new File(path));
+        initializer.initGameData();
+        return initializer.getSession();
+    }
+
+    /**
+     * An entity that belongs to no game, placed at (x, y), for testing the board indexes on their own
+     */
+    static Entity entity(GameSession session, int id, String className, int x, int y, int width, int height) {
+        var entity = new Entity(id, className, className + id, width, height, x, y, List.of(), "", new HashMap<>());
+        session.run(entity::setupView);
+        return entity;
+    }
+}
@@ -0,0 +1,81 @@
+package gameplay;
+
+import grids.PointImpl;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class TileGridTest {
+    private static Tile tile(int id, int x, int y) {
+        return new Tile(id, "floor", "floor" + id, 1, 1, x, y, List.of(), "", new HashMap<>());
+    }
+
+    @Test
+    public void testLookupInsideTheGrid() {
+        var tiles = new ArrayList<Tile>();
+        for (int x = 0; x < 4; x++) {
+            for (int y = 0; y < 3; y++) tiles.add(tile(x * 3 + y, x, y));
+        }
+        var grid = new TileGrid(new PointImpl(4, 3), tiles);
+        for (var tile : tiles) assertSame(tile, grid.tileAt(tile.getX(), tile.getY()));
+        assertNull(grid.tileAt(1.5, 2)); // tiles are only found at their anchor
+        assertNull(grid.tileAt(1, 2.5));
+    }
+
+    @Test
+    public void testEmptyCellsAndPointsOutsideTheGrid() {
+        var grid = new TileGrid(new PointImpl(4, 3), List.of(tile(1, 0, 0)));
+        assertNull(grid.tileAt(3, 2));
+        assertNull(grid.tileAt(-1, 0));
+        assertNull(grid.tileAt(4, 0));
+        assertNull(grid.tileAt(0, 3));
+        assertNull(grid.tileAt(100, -100));
+    }
+
+    @Test
+    public void testTilesAnchoredOutsideTheGridAreFound() {
+        var inside = tile(1, 1, 1);
+        var left = tile(2, -1, 0);
+        var below = tile(3, 2, 5);
+        var grid = new TileGrid(new PointImpl(4, 3), List.of(inside, left, below));
+        assertSame(left, grid.tileAt(-1, 0));
+        assertSame(below, grid.tileAt(2, 5));
+        assertNull(grid.tileAt(-1, 1));
+    }
+
+    @Test
+    public void testLowestIDAnswersForASharedAnchor() {
+        var first = tile(4, 2, 2);
+        var second = tile(7, 2, 2);
+        var grid = new TileGrid(new PointImpl(4, 3), List.of(second, first));
+        assertSame(first, grid.tileAt(2, 2));
+    }
+
+    @Test
+    public void testIterationVisitsEveryTileOnce() {
+        var tiles = List.of(tile(1, 0, 0), tile(2, 3, 2), tile(3, 3, 2), tile(4, 9, 9), tile(5, 1, 0));
+        var visited = new ArrayList<Tile>();
+        new TileGrid(new PointImpl(4, 3), tiles).forEach(visited::add);
+        assertEquals(tiles.size(), visited.size());
+        assertEquals(new HashSet<>(tiles), new HashSet<>(visited));
+    }
+
+    @Test
+    public void testBundledGameTilesAreFoundAtTheirAnchor() {
+        var session = TestGames.load(TestGames.CONNECT4);
+        var grid = session.getTileGrid();
+        for (var tile : session.getTiles().values()) {
+            var found = grid.tileAt(tile.getX(), tile.getY());
+            assertEquals(tile.getX(), found.getX());
+            assertEquals(tile.getY(), found.getY());
+            assertSame(found, grid.tileAt(found.getX(), found.getY()));
+        }
+    }
+}
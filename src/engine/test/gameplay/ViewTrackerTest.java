@@ -0,0 +1,101 @@
+package gameplay;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ViewTrackerTest {
+    GameSession session;
+    Entity first, second;
+
+    @BeforeEach
+    public void loadGame() {
+        session = TestGames.load(TestGames.REVERSI);
+        var entities = session.getEntities().values().iterator();
+        first = entities.next();
+        second = entities.next();
+        session.run(session.myViews::refresh); // start with nothing dirty
+    }
+
+    private void evaluate(String script) {
+        session.run(() -> GameData.evaluate(script));
+    }
+
+    @Test
+    public void testDirectWritesMarkTheOwnerDirty() {
+        assertFalse(session.myViews.isDirty(first));
+        evaluate("GameMethods.getEntity(" + first.getID() + ").props.hp = 0");
+        assertTrue(session.myViews.isDirty(first));
+        assertFalse(session.myViews.isDirty(second));
+    }
+
+    @Test
+    public void testRemovingAPropMarksTheOwnerDirty() {
+        evaluate("GameMethods.getEntity(" + first.getID() + ").props.hp = 0");
+        session.run(session.myViews::refresh);
+        evaluate("GameMethods.getEntity(" + first.getID() + ").props.remove('hp')");
+        assertTrue(session.myViews.isDirty(first));
+    }
+
+    @Test
+    public void testWritesInsideALoopMarkEveryEntity() {
+        evaluate("for (e in GameMethods.instancesOf('" + first.getName() + "')) e.props.flipped = true");
+        for (var entity : session.getEntities().values()) {
+            assertEquals(entity.getName().equals(first.getName()), session.myViews.isDirty(entity), entity.getName());
+        }
+    }
+
+    @Test
+    public void testReadsDontMarkAnything() {
+        evaluate("GameMethods.getEntity(" + first.getID() + ").props.hp");
+        assertFalse(session.myViews.isDirty(first));
+    }
+
+    @Test
+    public void testPropsAreStillTrackedAfterARestore() {
+        var snapshot = session.snapshot();
+        session.restore(snapshot);
+        session.run(session.myViews::refresh);
+        evaluate("GameMethods.getEntity(" + first.getID() + ").props.hp = 0");
+        assertTrue(session.myViews.isDirty(session.getEntities().get(first.getID())));
+    }
+
+    @Test
+    public void testSelectorsReadingOnlyThemselves() {
+        var tracker = new ViewTracker(List.of(), List.of());
+        assertTrue(tracker.isSelfContained("$return = $this.props.hp-1"));
+        assertTrue(tracker.isSelfContained("GameMethods.$return(((GameMethods.getProperty(GameMethods.$this(),\"hp\")) - (1)))"));
+        assertTrue(tracker.isSelfContained("if (GameMethods.getProperty(GameMethods.$this(), 'dead') < 2) { GameMethods.$return(0) }"));
+        assertTrue(tracker.isSelfContained("$return = $this.props['color'] == 'white' ? 0 : 1"));
+        assertTrue(tracker.isSelfContained("$return = $this.get('hp') > 0 ? 0 : 1"));
+        assertTrue(tracker.isSelfContained("$return = \"a.props.b.c\".length()"));
+        assertTrue(tracker.isSelfContained(""));
+    }
+
+    @Test
+    public void testSelectorsReachingPastAProp() {
+        var tracker = new ViewTracker(List.of(), List.of());
+        assertFalse(tracker.isSelfContained("$return = $this.props.target.props.hp"));
+        assertFalse(tracker.isSelfContained("$return = $this.props.target?.props?.hp"));
+        assertFalse(tracker.isSelfContained("$return = $this.props['target'].props.hp"));
+        assertFalse(tracker.isSelfContained("$return = $this.get('target').get('hp')"));
+        assertFalse(tracker.isSelfContained("GameMethods.$return(GameMethods.getProperty(GameMethods.getProperty(GameMethods.$this(), 'target'), 'hp'))"));
+        assertFalse(tracker.isSelfContained("GameMethods.$return(GameMethods.getProperty(GameMethods.$this(), 'target').props.hp)"));
+        assertFalse(tracker.isSelfContained("GameMethods.$return(GameMethods.getX(GameMethods.getProperty(GameMethods.$this(), 'target')))"));
+        assertFalse(tracker.isSelfContained("$return = current.props.hp"));
+    }
+
+    @Test
+    public void testRefreshClearsWhatWasDirty() {
+        evaluate("GameMethods.getEntity(" + first.getID() + ").props.hp = 0");
+        evaluate("GameMethods.getEntity(" + first.getID() + ").props.hp = 1");
+        session.run(session.myViews::refresh);
+        assertFalse(session.myViews.isDirty(first));
+        assertEquals(1, session.getEntities().get(first.getID()).get("hp"));
+    }
+}
@@ -229,7 +229,7 @@ public class EditorMenuBarView implements SubView<MenuBar> {
             newWindow.setY(SCREEN_HEIGHT * 0.5 - View.GAME_HEIGHT * 0.5);
             newWindow.show();
             newWindow.setOnCloseRequest(e -> {
-                initializer.stopMusic();
+                initializer.close();
             });
         } catch (Exception e) {
             e.printStackTrace();
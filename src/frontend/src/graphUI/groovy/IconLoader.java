@@ -13,6 +13,7 @@ import utils.Functions;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -105,6 +106,7 @@ public class IconLoader {
             list.add(new Separator());
             for (var method : c.getDeclaredMethods()) {
                 if (method.getName().contains("lambda")) continue; // no lambdas!
+                if (!Modifier.isPublic(method.getModifiers())) continue; // nor the engine's own helpers
 
                 var icon = draggableIcon.apply(
                         new Image(IconLoader.class.getClassLoader().getResourceAsStream("AutoGen.png")),